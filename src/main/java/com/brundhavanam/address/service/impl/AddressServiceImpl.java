@@ -6,10 +6,9 @@ import com.brundhavanam.address.repository.AddressRepository;
 import com.brundhavanam.address.service.AddressService;
 import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
-import com.brundhavanam.user.entity.User;
+import com.brundhavanam.config.security.AuthenticatedUser;
 import com.brundhavanam.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,15 +32,15 @@ public class AddressServiceImpl implements AddressService {
     @Override
     public AddressResponse add(AddressRequest request) {
 
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
         // If new address is default → clear existing default
         if (Boolean.TRUE.equals(request.isDefault())) {
-            clearDefault(user.getId());
+            clearDefault(userId);
         }
 
         Address address = Address.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .label(request.label())
                 .fullName(request.fullName())
                 .mobile(request.mobile())
@@ -62,9 +61,9 @@ public class AddressServiceImpl implements AddressService {
     @Override
     public List<AddressResponse> myAddresses() {
 
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
-        return addressRepository.findByUserId(user.getId())
+        return addressRepository.findByUserId(userId)
                 .stream()
                 .map(this::map)
                 .toList();
@@ -73,18 +72,18 @@ public class AddressServiceImpl implements AddressService {
     @Override
     public AddressResponse update(Long id, AddressRequest request) {
 
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
         Address address = addressRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
 
         // Prevent user from editing others address
-        if (!address.getUser().getId().equals(user.getId())) {
+        if (!address.getUser().getId().equals(userId)) {
             throw new BadRequestException("Not your address");
         }
 
         if (Boolean.TRUE.equals(request.isDefault())) {
-            clearDefault(user.getId());
+            clearDefault(userId);
             address.setIsDefault(true);
         }
 
@@ -106,12 +105,12 @@ public class AddressServiceImpl implements AddressService {
     @Override
     public void delete(Long id) {
 
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
         Address address = addressRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
 
-        if (!address.getUser().getId().equals(user.getId())) {
+        if (!address.getUser().getId().equals(userId)) {
             throw new BadRequestException("Not your address");
         }
 
@@ -121,12 +120,12 @@ public class AddressServiceImpl implements AddressService {
     @Override
     public void setDefault(Long id) {
 
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
         Address address = addressRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
 
-        clearDefault(user.getId());
+        clearDefault(userId);
 
         address.setIsDefault(true);
         addressRepository.save(address);
@@ -157,13 +156,8 @@ public class AddressServiceImpl implements AddressService {
         );
     }
 
-    private User getLoggedInUser() {
-        String mobile = SecurityContextHolder.getContext()
-                .getAuthentication()
-                .getPrincipal()
-                .toString();
-
-        return userRepository.findByMobile(mobile)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    // Principal is resolved once by JwtAuthorizationFilter (no users-table lookup here)
+    private Long getLoggedInUserId() {
+        return AuthenticatedUser.current().id();
     }
 }
@@ -0,0 +1,35 @@
+package com.brundhavanam.auth.controller;
+
+import com.brundhavanam.auth.otp.OtpThrottle;
+import com.brundhavanam.common.ratelimit.RateLimitStats;
+import com.brundhavanam.common.response.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * AdminAuthController
+ *
+ * Admin-facing view of authentication throttling.
+ * Base URL: /api/v1/admin/auth
+ */
+@RestController
+@RequestMapping("/api/v1/admin/auth")
+@RequiredArgsConstructor
+public class AdminAuthController {
+
+    private final OtpThrottle otpThrottle;
+
+    /**
+     * Allowed / throttled counters of the OTP rate limiters.
+     * Endpoint: GET /api/v1/admin/auth/rate-limits/stats
+     */
+    @GetMapping("/rate-limits/stats")
+    public ResponseEntity<ApiResponse<Map<String, RateLimitStats>>> rateLimitStats() {
+        return ResponseEntity.ok(ApiResponse.success(otpThrottle.stats()));
+    }
+}
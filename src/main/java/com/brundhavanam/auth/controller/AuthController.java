@@ -3,6 +3,7 @@ package com.brundhavanam.auth.controller;
 import com.brundhavanam.auth.dto.*;
 import com.brundhavanam.auth.service.AuthService;
 import com.brundhavanam.common.response.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -15,13 +16,13 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/otp/send")
-    public ApiResponse<String> sendOtp(@Valid @RequestBody LoginRequest request) {
-        authService.sendOtp(request.mobile());
+    public ApiResponse<String> sendOtp(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        authService.sendOtp(request.mobile(), httpRequest.getRemoteAddr());
         return ApiResponse.success("OTP sent successfully");
     }
 
     @PostMapping("/otp/verify")
-    public ApiResponse<AuthResponse> login(@Valid @RequestBody OtpVerifyRequest request) {
-        return ApiResponse.success(authService.loginWithOtp(request));
+    public ApiResponse<AuthResponse> login(@Valid @RequestBody OtpVerifyRequest request, HttpServletRequest httpRequest) {
+        return ApiResponse.success(authService.loginWithOtp(request, httpRequest.getRemoteAddr()));
     }
 }
@@ -0,0 +1,39 @@
+package com.brundhavanam.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/*
+ Pending OTP for otp.store=db (shared by all instances).
+ Same primitive encoding as the in-memory store.
+*/
+
+@Entity
+@Table(
+        name = "otp_codes",
+        indexes = {
+                @Index(name = "idx_otp_codes_expires_at", columnList = "expires_at")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtpCode {
+
+    // 10-digit mobile number
+    @Id
+    private Long mobile;
+
+    @Column(nullable = false)
+    private Integer otp;
+
+    // Failed verifications of this OTP
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // Epoch millis
+    @Column(nullable = false)
+    private Long expiresAt;
+}
@@ -0,0 +1,65 @@
+package com.brundhavanam.auth.otp;
+
+import com.brundhavanam.auth.entity.OtpCode;
+import com.brundhavanam.auth.repository.OtpCodeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * OTP store backed by the otp_codes table, for running several instances
+ * (an OTP sent through one node can be verified on another).
+ *
+ * Expired rows are deleted on a schedule; capacity is bounded by that cleanup
+ * rather than by a fixed size.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "db")
+public class DatabaseOtpStore implements OtpStore {
+
+    private final OtpCodeRepository otpCodeRepository;
+    private final int maxAttempts;
+
+    public DatabaseOtpStore(
+            OtpCodeRepository otpCodeRepository,
+            @Value("${otp.max-attempts:5}") int maxAttempts
+    ) {
+        this.otpCodeRepository = otpCodeRepository;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    @Transactional
+    public boolean put(long mobile, int otp, long expiresAtMillis) {
+        otpCodeRepository.save(OtpCode.builder()
+                .mobile(mobile)
+                .otp(otp)
+                .attempts(0)
+                .expiresAt(expiresAtMillis)
+                .build());
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Verification verifyAndConsume(long mobile, int otp, long nowMillis) {
+        if (otpCodeRepository.consume(mobile, otp, nowMillis) == 1) {
+            return Verification.MATCHED;
+        }
+        // The update locks the row, so concurrent failures are all counted
+        if (otpCodeRepository.recordFailedAttempt(mobile, nowMillis) == 0) {
+            return Verification.MISSING;
+        }
+        return otpCodeRepository.deleteIfAttemptsReached(mobile, maxAttempts) == 1
+                ? Verification.EXHAUSTED
+                : Verification.MISMATCHED;
+    }
+
+    @Scheduled(fixedDelayString = "${otp.store.cleanup-interval-ms:60000}")
+    @Transactional
+    public void deleteExpired() {
+        otpCodeRepository.deleteExpired(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,328 @@
+package com.brundhavanam.auth.otp;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory OTP store.
+ *
+ * - Entries are spread over {@code SHARDS} independently locked shards
+ * - Each shard is an open-addressing table of parallel primitive arrays
+ *   (mobile / otp / expiry), sized once; no per-entry objects
+ * - Each shard accepts at most maxEntries / SHARDS pending OTPs; beyond that,
+ *   sends for new mobiles are refused (put returns false) until entries expire
+ * - Expired entries are removed by a timing wheel advanced on a schedule,
+ *   whether or not anyone ever verifies them
+ * - Failed verifications are counted per entry; the last allowed failure removes it
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final int SHARDS = 16;
+
+    // Wheel horizon = WHEEL_SLOTS ticks; later deadlines go round again (see Shard.advance)
+    private static final int WHEEL_SLOTS = 512;
+
+    // Valid mobiles are 10-digit numbers, so 0 marks a free table slot
+    private static final long FREE = 0L;
+
+    private final Shard[] shards = new Shard[SHARDS];
+    private final long tickMillis;
+    private final int maxAttempts;
+    private final LongSupplier clock;
+
+    @Autowired
+    public InMemoryOtpStore(
+            @Value("${otp.store.max-entries:100000}") int maxEntries,
+            @Value("${otp.store.tick-ms:1000}") long tickMillis,
+            @Value("${otp.max-attempts:5}") int maxAttempts
+    ) {
+        this(maxEntries, tickMillis, maxAttempts, System::currentTimeMillis);
+    }
+
+    // clock: epoch millis for the wheel (tests pass a controllable one)
+    InMemoryOtpStore(int maxEntries, long tickMillis, int maxAttempts, LongSupplier clock) {
+        if (maxEntries < SHARDS || tickMillis <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException(
+                    "otp.store.max-entries must be >= " + SHARDS + ", tick-ms and otp.max-attempts > 0");
+        }
+        this.tickMillis = tickMillis;
+        this.maxAttempts = maxAttempts;
+        this.clock = clock;
+
+        long startTick = Math.floorDiv(clock.getAsLong(), tickMillis);
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard(maxEntries / SHARDS, tickMillis, startTick);
+        }
+    }
+
+    @Override
+    public boolean put(long mobile, int otp, long expiresAtMillis) {
+        long hash = mix(mobile);
+        Shard shard = shardFor(hash);
+
+        shard.lock.lock();
+        try {
+            return shard.put(mobile, hash, otp, expiresAtMillis);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public Verification verifyAndConsume(long mobile, int otp, long nowMillis) {
+        long hash = mix(mobile);
+        Shard shard = shardFor(hash);
+
+        shard.lock.lock();
+        try {
+            int idx = shard.indexOf(mobile, hash);
+
+            // Expired but not yet swept counts as gone
+            if (idx < 0 || shard.expiries[idx] <= nowMillis) {
+                return Verification.MISSING;
+            }
+            if (shard.otps[idx] != otp) {
+                if (++shard.attempts[idx] >= maxAttempts) {
+                    shard.removeAt(idx);
+                    return Verification.EXHAUSTED;
+                }
+                return Verification.MISMATCHED;
+            }
+            shard.removeAt(idx);
+            return Verification.MATCHED;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Advances every shard's wheel to now, dropping expired OTPs.
+     *
+     * @return number of entries removed
+     */
+    @Scheduled(fixedDelayString = "${otp.store.tick-ms:1000}")
+    public int sweep() {
+        long now = clock.getAsLong();
+        long nowTick = Math.floorDiv(now, tickMillis);
+        int removed = 0;
+
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                removed += shard.advance(nowTick, now);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.size;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private Shard shardFor(long hash) {
+        return shards[shardIndex(hash)];
+    }
+
+    // High bits pick the shard, low bits the table slot
+    static int shardIndex(long hash) {
+        return (int) (hash >>> 60) & (SHARDS - 1);
+    }
+
+    // 64-bit finalizer (MurmurHash3): consecutive mobiles land far apart
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Shard {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        // Open-addressing table (linear probing, backward-shift deletion)
+        final long[] mobiles;
+        final int[] otps;
+        final int[] attempts;      // failed verifications of the current OTP
+        final long[] expiries;
+        final long[] wheelTicks;   // tick of the entry's live wheel record
+        final int mask;
+        final int limit;
+        final long tickMillis;
+        int size;
+
+        // Timing wheel: per slot, the mobiles due at that tick (mod WHEEL_SLOTS)
+        final long[][] slots = new long[WHEEL_SLOTS][];
+        final int[] slotSizes = new int[WHEEL_SLOTS];
+        long currentTick;
+
+        Shard(int limit, long tickMillis, long startTick) {
+            // Table at most half full keeps probe sequences short
+            int capacity = Integer.highestOneBit(Math.max(2, limit * 2 - 1)) << 1;
+            this.mobiles = new long[capacity];
+            this.otps = new int[capacity];
+            this.attempts = new int[capacity];
+            this.expiries = new long[capacity];
+            this.wheelTicks = new long[capacity];
+            this.mask = capacity - 1;
+            this.limit = limit;
+            this.tickMillis = tickMillis;
+            this.currentTick = startTick;
+        }
+
+        boolean put(long mobile, long hash, int otp, long expiresAt) {
+            long tick = tickOf(expiresAt);
+            int idx = (int) hash & mask;
+            while (mobiles[idx] != FREE) {
+                if (mobiles[idx] == mobile) {
+                    otps[idx] = otp;
+                    attempts[idx] = 0;
+                    expiries[idx] = expiresAt;
+                    // A later expiry keeps its record (re-queued when it fires); an earlier one needs a new record
+                    if (tick < wheelTicks[idx]) {
+                        wheelTicks[idx] = schedule(mobile, tick);
+                    }
+                    return true;
+                }
+                idx = (idx + 1) & mask;
+            }
+
+            if (size >= limit) {
+                return false;
+            }
+            mobiles[idx] = mobile;
+            otps[idx] = otp;
+            attempts[idx] = 0;
+            expiries[idx] = expiresAt;
+            wheelTicks[idx] = schedule(mobile, tick);
+            size++;
+            return true;
+        }
+
+        int indexOf(long mobile, long hash) {
+            int idx = (int) hash & mask;
+            while (mobiles[idx] != FREE) {
+                if (mobiles[idx] == mobile) {
+                    return idx;
+                }
+                idx = (idx + 1) & mask;
+            }
+            return -1;
+        }
+
+        // Backward-shift deletion: later entries of the probe run move up, so no tombstones are needed
+        void removeAt(int idx) {
+            int hole = idx;
+            int next = idx;
+            while (true) {
+                next = (next + 1) & mask;
+                long mobile = mobiles[next];
+                if (mobile == FREE) {
+                    break;
+                }
+                int home = (int) mix(mobile) & mask;
+                // Move unless its home lies cyclically in (hole, next]
+                boolean stays = hole <= next
+                        ? home > hole && home <= next
+                        : home > hole || home <= next;
+                if (!stays) {
+                    mobiles[hole] = mobile;
+                    otps[hole] = otps[next];
+                    attempts[hole] = attempts[next];
+                    expiries[hole] = expiries[next];
+                    wheelTicks[hole] = wheelTicks[next];
+                    hole = next;
+                }
+            }
+            mobiles[hole] = FREE;
+            size--;
+        }
+
+        // Rounded up: an entry is never swept before its expiry
+        long tickOf(long epochMillis) {
+            return Math.floorDiv(epochMillis + tickMillis - 1, tickMillis);
+        }
+
+        long schedule(long mobile, long tick) {
+            if (tick <= currentTick) {
+                tick = currentTick + 1;
+            }
+            int slot = (int) (tick & (WHEEL_SLOTS - 1));
+            long[] records = slots[slot];
+            if (records == null) {
+                records = slots[slot] = new long[8];
+            } else if (slotSizes[slot] == records.length) {
+                records = slots[slot] = Arrays.copyOf(records, records.length * 2);
+            }
+            records[slotSizes[slot]++] = mobile;
+            return tick;
+        }
+
+        // Drains every slot between the last advance and nowTick (at most one full turn)
+        int advance(long nowTick, long now) {
+            if (nowTick <= currentTick) {
+                return 0;
+            }
+            int removed = 0;
+            long turns = Math.min(nowTick - currentTick, WHEEL_SLOTS);
+
+            for (long t = nowTick - turns + 1; t <= nowTick; t++) {
+                currentTick = t;
+                int slot = (int) (t & (WHEEL_SLOTS - 1));
+                long[] records = slots[slot];
+                int count = slotSizes[slot];
+                if (count == 0) {
+                    continue;
+                }
+                // Detach first: re-queued records may land in this same slot
+                slots[slot] = null;
+                slotSizes[slot] = 0;
+
+                for (int i = 0; i < count; i++) {
+                    long mobile = records[i];
+                    int idx = indexOf(mobile, mix(mobile));
+                    if (idx < 0 || wheelTicks[idx] % WHEEL_SLOTS != t % WHEEL_SLOTS) {
+                        continue;   // consumed, or superseded by a newer record
+                    }
+                    if (expiries[idx] <= now) {
+                        removeAt(idx);
+                        removed++;
+                    } else if (wheelTicks[idx] <= t) {
+                        // Re-sent with a later expiry (or not due until a later turn): re-queue
+                        wheelTicks[idx] = schedule(mobile, tickOf(expiries[idx]));
+                    } else {
+                        schedule(mobile, wheelTicks[idx]);
+                    }
+                }
+            }
+            currentTick = nowTick;
+            return removed;
+        }
+    }
+}
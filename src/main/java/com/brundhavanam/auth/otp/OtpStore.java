@@ -0,0 +1,33 @@
+package com.brundhavanam.auth.otp;
+
+/**
+ * Storage for pending OTPs, in primitive form:
+ * mobile as long (10 digits), OTP as int, expiry as epoch millis.
+ *
+ * Implementations (selected by otp.store):
+ * - memory (default): InMemoryOtpStore, bounded and swept by a timing wheel
+ * - db: DatabaseOtpStore, shared by every running instance
+ */
+public interface OtpStore {
+
+    enum Verification {
+        MATCHED,     // OTP was correct and has been consumed
+        MISMATCHED,  // an OTP is pending but the value differs (kept for another try)
+        EXHAUSTED,   // value differs and that was the last allowed attempt; OTP invalidated
+        MISSING      // never sent, already used, or expired
+    }
+
+    /**
+     * Stores (or replaces) the OTP for a mobile; a new OTP starts with zero failed attempts.
+     *
+     * @return false if the store is full and the mobile has no pending OTP
+     */
+    boolean put(long mobile, int otp, long expiresAtMillis);
+
+    /**
+     * Checks the OTP and, if it matches, removes it in the same step
+     * (two concurrent verifications cannot both succeed). Each mismatch counts
+     * as a failed attempt; after otp.max-attempts the OTP is removed.
+     */
+    Verification verifyAndConsume(long mobile, int otp, long nowMillis);
+}
@@ -0,0 +1,84 @@
+package com.brundhavanam.auth.otp;
+
+import com.brundhavanam.common.exception.TooManyRequestsException;
+import com.brundhavanam.common.ratelimit.RateLimitStats;
+import com.brundhavanam.common.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limits for the OTP endpoints, per mobile and per client IP.
+ *
+ * - send   : caps SMS cost and OTP floods
+ * - verify : caps guessing (together with otp.max-attempts per OTP)
+ *
+ * A request must pass both its IP and its mobile limit; otherwise
+ * TooManyRequestsException (429 with Retry-After).
+ */
+@Component
+public class OtpThrottle {
+
+    private final RateLimiter sendPerMobile;
+    private final RateLimiter sendPerIp;
+    private final RateLimiter verifyPerMobile;
+    private final RateLimiter verifyPerIp;
+
+    public OtpThrottle(
+            @Value("${ratelimit.otp.window-seconds:900}") long windowSeconds,
+            @Value("${ratelimit.otp.send.per-mobile:5}") int sendPerMobile,
+            @Value("${ratelimit.otp.send.per-ip:30}") int sendPerIp,
+            @Value("${ratelimit.otp.verify.per-mobile:10}") int verifyPerMobile,
+            @Value("${ratelimit.otp.verify.per-ip:60}") int verifyPerIp,
+            @Value("${ratelimit.otp.max-keys:100000}") int maxKeys
+    ) {
+        Duration window = Duration.ofSeconds(windowSeconds);
+        this.sendPerMobile = new RateLimiter(sendPerMobile, window, maxKeys);
+        this.sendPerIp = new RateLimiter(sendPerIp, window, maxKeys);
+        this.verifyPerMobile = new RateLimiter(verifyPerMobile, window, maxKeys);
+        this.verifyPerIp = new RateLimiter(verifyPerIp, window, maxKeys);
+    }
+
+    public void checkSend(String mobile, String clientIp) {
+        check(sendPerIp, clientIp, "Too many OTP requests from this network, please try again later");
+        check(sendPerMobile, mobile, "Too many OTP requests for this number, please try again later");
+    }
+
+    public void checkVerify(String mobile, String clientIp) {
+        check(verifyPerIp, clientIp, "Too many OTP attempts from this network, please try again later");
+        check(verifyPerMobile, mobile, "Too many OTP attempts for this number, please try again later");
+    }
+
+    public Map<String, RateLimitStats> stats() {
+        Map<String, RateLimitStats> stats = new LinkedHashMap<>();
+        stats.put("otpSendPerMobile", sendPerMobile.stats());
+        stats.put("otpSendPerIp", sendPerIp.stats());
+        stats.put("otpVerifyPerMobile", verifyPerMobile.stats());
+        stats.put("otpVerifyPerIp", verifyPerIp.stats());
+        return stats;
+    }
+
+    // Keys that have fully recovered carry no state worth keeping
+    @Scheduled(fixedDelayString = "${ratelimit.otp.evict-interval-ms:60000}")
+    public void evictIdle() {
+        sendPerMobile.evictIdle();
+        sendPerIp.evictIdle();
+        verifyPerMobile.evictIdle();
+        verifyPerIp.evictIdle();
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private static void check(RateLimiter limiter, String key, String message) {
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(message, RateLimiter.retryAfterSeconds(waitNanos));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.brundhavanam.auth.repository;
+
+import com.brundhavanam.auth.entity.OtpCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OtpCodeRepository extends JpaRepository<OtpCode, Long> {
+
+    /**
+     * Consumes the OTP if it matches and has not expired (check and delete in one statement).
+     *
+     * @return 1 if consumed, 0 otherwise
+     */
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.mobile = :mobile AND o.otp = :otp AND o.expiresAt > :now")
+    int consume(@Param("mobile") Long mobile, @Param("otp") Integer otp, @Param("now") Long now);
+
+    // Counts a failed attempt against a live OTP; 0 if there is none
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.attempts = o.attempts + 1 WHERE o.mobile = :mobile AND o.expiresAt > :now")
+    int recordFailedAttempt(@Param("mobile") Long mobile, @Param("now") Long now);
+
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.mobile = :mobile AND o.attempts >= :maxAttempts")
+    int deleteIfAttemptsReached(@Param("mobile") Long mobile, @Param("maxAttempts") Integer maxAttempts);
+
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.expiresAt <= :now")
+    int deleteExpired(@Param("now") Long now);
+}
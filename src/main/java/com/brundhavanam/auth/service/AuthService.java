@@ -4,7 +4,8 @@ import com.brundhavanam.auth.dto.*;
 
 public interface AuthService {
 
-    void sendOtp(String mobile);
+    // clientIp: caller's address, for per-IP rate limits
+    void sendOtp(String mobile, String clientIp);
 
-    AuthResponse loginWithOtp(OtpVerifyRequest request);
+    AuthResponse loginWithOtp(OtpVerifyRequest request, String clientIp);
 }
@@ -1,6 +1,7 @@
 package com.brundhavanam.auth.service.impl;
 
 import com.brundhavanam.auth.dto.*;
+import com.brundhavanam.auth.otp.OtpThrottle;
 import com.brundhavanam.auth.service.AuthService;
 import com.brundhavanam.auth.service.OtpService;
 import com.brundhavanam.common.enums.Role;
@@ -16,16 +17,20 @@ import org.springframework.stereotype.Service;
 public class AuthServiceImpl implements AuthService {
 
     private final OtpService otpService;
+    private final OtpThrottle otpThrottle;
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
 
     @Override
-    public void sendOtp(String mobile) {
+    public void sendOtp(String mobile, String clientIp) {
+        otpThrottle.checkSend(mobile, clientIp);
         otpService.sendOtp(mobile);
     }
 
     @Override
-    public AuthResponse loginWithOtp(OtpVerifyRequest request) {
+    public AuthResponse loginWithOtp(OtpVerifyRequest request, String clientIp) {
+
+        otpThrottle.checkVerify(request.mobile(), clientIp);
 
         otpService.verifyOtp(request.mobile(), request.otp());
 
@@ -39,7 +44,7 @@ public class AuthServiceImpl implements AuthService {
                                 .build()
                 ));
 
-        String token = jwtUtil.generateToken(user.getMobile());
+        String token = jwtUtil.generateToken(user.getMobile(), user.getId(), user.getRole());
 
         return new AuthResponse(token, mapToResponse(user));
     }
@@ -7,14 +7,15 @@ import com.brundhavanam.common.exception.BadRequestException;
 //Service interface for OTP operations
 import com.brundhavanam.auth.service.OtpService;
 
+//Pending OTP storage (in-memory by default, otp.store=db to share across instances)
+import com.brundhavanam.auth.otp.OtpStore;
+
 
 //Marks this class as a Spring Service (business layer component)
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class OtpServiceImpl implements OtpService{
@@ -31,18 +32,18 @@ private static final int OTP_RANGE = 900000;
 
 
  /*
-  * In-memory OTP store
-  * Key   : Mobile number
-  * Value : OtpData (contains OTP value + expiry time)
-  *
-  * ConcurrentHashMap is used to ensure:
-  * - Thread safety
-  * - Non-blocking concurrent access
-  * - High performance in multi-threaded environments
+  * OTP store
+  * Key   : Mobile number (as long)
+  * Value : OTP (int) + expiry (epoch millis)
   *
-  * Suitable for temporary OTP storage in early-stage / MVP systems
+  * Bounded, and expired entries are removed in the background,
+  * so OTPs that are never verified do not accumulate
   */
- private final Map<String, OtpData> otpStore = new ConcurrentHashMap<>();
+ private final OtpStore otpStore;
+
+ public OtpServiceImpl(OtpStore otpStore) {
+     this.otpStore = otpStore;
+ }
 
  /*
   * Generates and sends OTP to the given mobile number
@@ -53,14 +54,17 @@ private static final int OTP_RANGE = 900000;
  public void sendOtp(String mobile) {
 
      // Generate a random 6-digit OTP
-     String otp = generateOtp();
+     int otp = generateOtp();
 
      // Calculate OTP expiry time (current time + 5 minutes)
-     LocalDateTime expiry = LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES);
+     long expiry = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(OTP_EXPIRY_MINUTES);
 
      // Store OTP and expiry against the mobile number
      // If OTP already exists, it will be replaced
-     otpStore.put(mobile, new OtpData(otp, expiry));
+     // A full store refuses new numbers (e.g. during an OTP flood) instead of growing
+     if (!otpStore.put(Long.parseLong(mobile), otp, expiry)) {
+         throw new BadRequestException("Too many pending OTP requests, please try again later");
+     }
 
      // TEMPORARY: Console output for testing
      // In real systems, integrate SMS/Email provider here
@@ -70,41 +74,32 @@ private static final int OTP_RANGE = 900000;
  @Override
  public boolean verifyOtp(String mobile, String otp) {
 
-     // Step 1: Retrieve the OTP data associated with the given mobile number
-     // If no entry exists, it means OTP was never generated or already expired/removed
-     OtpData data = otpStore.get(mobile);
-
-     // Step 2: Validate OTP existence
-     // If data is null, OTP is either not generated or already expired
-     if (data == null) {
-         throw new BadRequestException("OTP expired or not generated");
+     // Step 1: Parse the user-provided OTP (anything but 6 digits can never match)
+     if (otp == null || !otp.matches("\\d{6}")) {
+         throw new BadRequestException("Invalid OTP");
      }
 
-     // Step 3: Check OTP expiry time
-     // If current time is after the stored expiry time, OTP is no longer valid
-     if (LocalDateTime.now().isAfter(data.getExpiry())) {
-
-         // Remove expired OTP from store to prevent memory leak
-         otpStore.remove(mobile);
+     // Step 2: Compare with the stored OTP; on a match it is removed in the same step
+     // (enforces one-time usage, prevents reuse attacks)
+     OtpStore.Verification result =
+             otpStore.verifyAndConsume(Long.parseLong(mobile), Integer.parseInt(otp), System.currentTimeMillis());
 
-         // Inform client that OTP has expired
-         throw new BadRequestException("OTP expired");
-     }
+     switch (result) {
 
-     // Step 4: Validate OTP value
-     // Compare user-provided OTP with stored OTP
-     if (!data.getOtp().equals(otp)) {
+         // OTP was never generated, already used, or expired
+         case MISSING -> throw new BadRequestException("OTP expired or not generated");
 
          // OTP exists and is not expired, but value does not match
-         throw new BadRequestException("Invalid OTP");
-     }
+         case MISMATCHED -> throw new BadRequestException("Invalid OTP");
 
-     // Step 5: OTP is valid and verified successfully
-     // Remove OTP to enforce one-time usage (prevents reuse attacks)
-     otpStore.remove(mobile);
+         // Value did not match and no attempts are left; OTP is invalidated
+         case EXHAUSTED -> throw new BadRequestException("Too many invalid attempts, please request a new OTP");
 
-     // Step 6: Return success status
-     return true;
+         // Step 3: Return success status
+         default -> {
+             return true;
+         }
+     }
  }
 
 
@@ -116,8 +111,8 @@ private static final int OTP_RANGE = 900000;
   * - Adding 100000 ensures minimum value is 100000
   * - Resulting OTP range: 100000 to 999999
   */
- private String generateOtp() {
-	    return String.valueOf(OTP_MIN + secureRandom.nextInt(OTP_RANGE));
+ private int generateOtp() {
+	    return OTP_MIN + secureRandom.nextInt(OTP_RANGE);
 	}
 
 }
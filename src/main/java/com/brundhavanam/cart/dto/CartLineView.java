@@ -0,0 +1,38 @@
+package com.brundhavanam.cart.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat read model of one cart line (cart item + variant + product), loaded in a
+ * single query by CartItemRepository#findLinesByCartId.
+ *
+ * Used for cart responses and the checkout snapshot, so neither walks lazy
+ * variant / product proxies per line.
+ */
+public record CartLineView(
+        Long cartItemId,
+        Long productId,
+        String productName,
+        Long variantId,
+        String variantLabel,
+        Integer quantity,
+        BigDecimal unitPrice
+) {
+
+    public BigDecimal itemTotal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    public CartItemResponse toResponse() {
+        return new CartItemResponse(
+                cartItemId,
+                productId,
+                productName,
+                variantId,
+                variantLabel,
+                quantity,
+                unitPrice,
+                itemTotal()
+        );
+    }
+}
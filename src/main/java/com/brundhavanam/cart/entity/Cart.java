@@ -1,6 +1,7 @@
 package com.brundhavanam.cart.entity;
 
 import com.brundhavanam.common.enums.CartStatus;
+import com.brundhavanam.common.id.TimeOrderedId;
 import com.brundhavanam.user.entity.User;
 import jakarta.persistence.*;
 import lombok.*;
@@ -23,8 +24,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Cart {
 
+	// App-assigned, time-ordered id (see TimeOrderedIds)
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@TimeOrderedId
 	private Long id;
 
 	// ✅ Cart belongs to one user
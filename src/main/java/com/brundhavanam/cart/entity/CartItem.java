@@ -1,5 +1,6 @@
 package com.brundhavanam.cart.entity;
 
+import com.brundhavanam.common.id.TimeOrderedId;
 import com.brundhavanam.product.entity.ProductVariant;
 import jakarta.persistence.*;
 import lombok.*;
@@ -25,8 +26,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class CartItem {
 
+    // App-assigned, time-ordered id (no INSERT needed to learn it, so inserts batch)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     // ✅ Each cart has multiple items
@@ -0,0 +1,209 @@
+package com.brundhavanam.cart.memory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only redo log for in-memory carts.
+ *
+ * Every acknowledged cart mutation is appended (and optionally fsync'ed) before
+ * the response is returned, so a restart can rebuild carts that were not yet
+ * flushed to MySQL.
+ *
+ * The log is split into numbered segments. The flusher rotates to a new segment
+ * before a flush round and deletes older segments once every cart that was dirty
+ * at rotation time has been committed to MySQL.
+ *
+ * Record format: {@code <payload> #<crc32 hex>\n}; records with a bad checksum
+ * (torn write on crash) are skipped during replay.
+ *
+ * Writes are serialized with a ReentrantLock rather than synchronized: an fsync
+ * inside a synchronized block would pin the carrier of a virtual thread.
+ */
+@Slf4j
+public class CartJournal {
+
+    private static final String PREFIX = "cart-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private long segment;
+
+    public CartJournal(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cart journal directory " + dir, e);
+        }
+    }
+
+    /**
+     * Replays every existing segment in order, then opens a fresh segment for writing.
+     * Must be called once, before the first {@link #append(String)}.
+     */
+    public void open(Consumer<String> replay) {
+        lock.lock();
+        try {
+            List<Long> segments = segments();
+            for (long s : segments) {
+                replaySegment(path(s), replay);
+            }
+            segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+            channel = openChannel(segment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void append(String payload) {
+        CRC32 crc = new CRC32();
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        crc.update(body);
+        byte[] record = (payload + " #" + Long.toHexString(crc.getValue()) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        lock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cart journal write failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new segment.
+     *
+     * @return number of the new segment; everything older may be deleted once flushed
+     */
+    public long rotate() {
+        lock.lock();
+        try {
+            closeChannel();
+            segment++;
+            channel = openChannel(segment);
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deleteSegmentsBefore(long keepFrom) {
+        for (long s : segments()) {
+            if (s < keepFrom) {
+                try {
+                    Files.deleteIfExists(path(s));
+                } catch (IOException e) {
+                    log.warn("Could not delete cart journal segment {}", path(s), e);
+                }
+            }
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closeChannel();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private List<Long> segments() {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                 .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                 .forEach(n -> {
+                     try {
+                         result.add(Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+                     } catch (NumberFormatException ignored) {
+                         // not a journal segment
+                     }
+                 });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list cart journal directory " + dir, e);
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private void replaySegment(Path file, Consumer<String> replay) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int hash = line.lastIndexOf(" #");
+                if (hash < 0) {
+                    log.warn("Skipping torn cart journal record in {}", file);
+                    continue;
+                }
+                String payload = line.substring(0, hash);
+                CRC32 crc = new CRC32();
+                crc.update(payload.getBytes(StandardCharsets.UTF_8));
+                if (!Long.toHexString(crc.getValue()).equals(line.substring(hash + 2))) {
+                    log.warn("Skipping corrupt cart journal record in {}", file);
+                    continue;
+                }
+                replay.accept(payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay cart journal segment " + file, e);
+        }
+    }
+
+    private Path path(long s) {
+        return dir.resolve(String.format("%s%08d%s", PREFIX, s, SUFFIX));
+    }
+
+    private FileChannel openChannel(long s) {
+        try {
+            return FileChannel.open(path(s), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cart journal segment " + path(s), e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close cart journal segment", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.brundhavanam.cart.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of a {@link MemoryCart}, used for responses, flushes and the journal.
+ *
+ * Journal form (one line):
+ * {@code <userId> <dbCartId|-> <version> <lineId>:<dbItemId|->:<variantId>:<qty>,...}
+ */
+public record CartSnapshot(Long userId, Long dbCartId, long version, List<LineSnapshot> lines) {
+
+    public record LineSnapshot(long lineId, Long dbItemId, long variantId, int quantity) {
+
+        // Id exposed to clients (cart_items id once known)
+        public long cartItemId() {
+            return dbItemId != null ? dbItemId : lineId;
+        }
+    }
+
+    String encode() {
+        StringBuilder sb = new StringBuilder(32 + lines.size() * 24)
+                .append(userId).append(' ')
+                .append(dbCartId == null ? "-" : dbCartId).append(' ')
+                .append(version).append(' ');
+        for (int i = 0; i < lines.size(); i++) {
+            LineSnapshot l = lines.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(l.lineId()).append(':')
+              .append(l.dbItemId() == null ? "-" : l.dbItemId()).append(':')
+              .append(l.variantId()).append(':')
+              .append(l.quantity());
+        }
+        return sb.toString();
+    }
+
+    static CartSnapshot decode(String text) {
+        String[] parts = text.split(" ", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cart record");
+        }
+        List<LineSnapshot> lines = new ArrayList<>();
+        if (!parts[3].isEmpty()) {
+            for (String line : parts[3].split(",")) {
+                String[] f = line.split(":");
+                lines.add(new LineSnapshot(
+                        Long.parseLong(f[0]),
+                        "-".equals(f[1]) ? null : Long.valueOf(f[1]),
+                        Long.parseLong(f[2]),
+                        Integer.parseInt(f[3])
+                ));
+            }
+        }
+        return new CartSnapshot(
+                Long.valueOf(parts[0]),
+                "-".equals(parts[1]) ? null : Long.valueOf(parts[1]),
+                Long.parseLong(parts[2]),
+                lines
+        );
+    }
+}
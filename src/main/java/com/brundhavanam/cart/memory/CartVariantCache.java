@@ -0,0 +1,95 @@
+package com.brundhavanam.cart.memory;
+
+import com.brundhavanam.common.cache.BoundedTtlCache;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Variant details needed to price and validate in-memory cart lines.
+ *
+ * Misses are loaded in one query (variant + product); entries are dropped when
+ * the owning product changes (price, stock, activation) via {@link CatalogChangedEvent}.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.mode", havingValue = "memory")
+public class CartVariantCache {
+
+    public record VariantInfo(
+            Long variantId,
+            Long productId,
+            String productName,
+            String label,
+            BigDecimal price,
+            Integer stock,
+            boolean active
+    ) {}
+
+    private final ProductVariantRepository variantRepository;
+    private final BoundedTtlCache<Long, VariantInfo> variants;
+
+    public CartVariantCache(
+            ProductVariantRepository variantRepository,
+            @Value("${cart.memory.variant-cache.max-entries:5000}") int maxEntries,
+            @Value("${cart.memory.variant-cache.ttl-seconds:60}") long ttlSeconds
+    ) {
+        this.variantRepository = variantRepository;
+        this.variants = new BoundedTtlCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    public Optional<VariantInfo> get(Long variantId) {
+        return Optional.ofNullable(getAll(List.of(variantId)).get(variantId));
+    }
+
+    /**
+     * @return info for every variant that still exists (missing ids are absent from the map)
+     */
+    public Map<Long, VariantInfo> getAll(Collection<Long> variantIds) {
+        Map<Long, VariantInfo> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : variantIds) {
+            VariantInfo info = variants.get(id);
+            if (info != null) {
+                result.put(id, info);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (ProductVariant v : variantRepository.findWithProductByIdIn(missing)) {
+                VariantInfo info = new VariantInfo(
+                        v.getId(),
+                        v.getProduct().getId(),
+                        v.getProduct().getName(),
+                        v.getLabel(),
+                        v.getPrice(),
+                        v.getStock(),
+                        Boolean.TRUE.equals(v.getActive())
+                );
+                variants.put(v.getId(), info);
+                result.put(v.getId(), info);
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Long productId = event.productId();
+        variants.invalidateIf((id, info) -> info.productId().equals(productId));
+    }
+}
@@ -0,0 +1,183 @@
+package com.brundhavanam.cart.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory state of one user's ACTIVE cart.
+ *
+ * Not thread-safe on its own: every access goes through a stripe lock in
+ * {@link MemoryCartStore}.
+ */
+public final class MemoryCart {
+
+    private final Long userId;
+
+    // carts.id once the cart has been written to MySQL (null until the first flush)
+    private Long dbCartId;
+
+    private final List<Line> lines = new ArrayList<>();
+
+    // Bumped on every mutation; a flush only marks the cart clean if nothing changed meanwhile
+    private long version;
+
+    private long lastAccessMillis = System.currentTimeMillis();
+
+    // Checkout flushes not yet committed (idle eviction skips the cart while > 0)
+    int pendingFlushes;
+
+    // Taken by a background flush round that has not finished yet (checkout waits for it)
+    boolean flushing;
+
+    MemoryCart(Long userId, Long dbCartId) {
+        this.userId = userId;
+        this.dbCartId = dbCartId;
+    }
+
+    /**
+     * One cart line.
+     *
+     * lineId is the id handed to clients: the cart_items id for lines loaded from MySQL,
+     * or a provisional negative id for lines created in memory. Both stay valid after
+     * the line is flushed (see {@link #findLine(Long)}).
+     */
+    public static final class Line {
+
+        private final long lineId;
+        private Long dbItemId;
+        private final long variantId;
+        private int quantity;
+
+        Line(long lineId, Long dbItemId, long variantId, int quantity) {
+            this.lineId = lineId;
+            this.dbItemId = dbItemId;
+            this.variantId = variantId;
+            this.quantity = quantity;
+        }
+
+        public long variantId() {
+            return variantId;
+        }
+
+        public int quantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    public Long userId() {
+        return userId;
+    }
+
+    // Mirrors the DB mode: a cart "exists" once it has been created for the user
+    public boolean exists() {
+        return dbCartId != null || !lines.isEmpty();
+    }
+
+    public Optional<Line> findLine(Long cartItemId) {
+        for (Line line : lines) {
+            if (line.lineId == cartItemId || cartItemId.equals(line.dbItemId)) {
+                return Optional.of(line);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Line> findByVariant(long variantId) {
+        for (Line line : lines) {
+            if (line.variantId == variantId) {
+                return Optional.of(line);
+            }
+        }
+        return Optional.empty();
+    }
+
+    void addLine(long lineId, long variantId, int quantity) {
+        lines.add(new Line(lineId, null, variantId, quantity));
+    }
+
+    public void removeLine(Line line) {
+        lines.remove(line);
+    }
+
+    public void clear() {
+        lines.clear();
+    }
+
+    // =========================================================
+    // Store internals
+    // =========================================================
+
+    long version() {
+        return version;
+    }
+
+    void bumpVersion() {
+        version++;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    long lastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    CartSnapshot snapshot() {
+        List<CartSnapshot.LineSnapshot> copy = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            copy.add(new CartSnapshot.LineSnapshot(line.lineId, line.dbItemId, line.variantId, line.quantity));
+        }
+        return new CartSnapshot(userId, dbCartId, version, copy);
+    }
+
+    static MemoryCart restore(CartSnapshot snapshot) {
+        MemoryCart cart = new MemoryCart(snapshot.userId(), snapshot.dbCartId());
+        cart.revertTo(snapshot);
+        return cart;
+    }
+
+    // Puts lines, DB ids and version back to an earlier snapshot of this cart
+    void revertTo(CartSnapshot snapshot) {
+        dbCartId = snapshot.dbCartId();
+        version = snapshot.version();
+        lines.clear();
+        for (CartSnapshot.LineSnapshot l : snapshot.lines()) {
+            lines.add(new Line(l.lineId(), l.dbItemId(), l.variantId(), l.quantity()));
+        }
+    }
+
+    /**
+     * Records the ids assigned by a committed flush.
+     *
+     * @param itemIdsByVariant cart_items ids keyed by variant id
+     */
+    void applyFlush(Long cartId, Map<Long, Long> itemIdsByVariant) {
+        if (cartId != null) {
+            dbCartId = cartId;
+        }
+        for (Line line : lines) {
+            Long itemId = itemIdsByVariant.get(line.variantId);
+            if (itemId != null) {
+                line.dbItemId = itemId;
+            }
+        }
+    }
+
+    /**
+     * Forgets the DB identity after the DB cart was checked out while the
+     * in-memory cart kept changing: the remaining lines become a new cart.
+     */
+    void detachFromDb() {
+        dbCartId = null;
+        for (Line line : lines) {
+            line.dbItemId = null;
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.brundhavanam.cart.memory;
+
+import com.brundhavanam.cart.entity.Cart;
+import com.brundhavanam.cart.entity.CartItem;
+import com.brundhavanam.cart.repository.CartItemRepository;
+import com.brundhavanam.cart.repository.CartRepository;
+import com.brundhavanam.common.enums.CartStatus;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind store for ACTIVE carts (enabled with {@code cart.mode=memory}).
+ *
+ * - Carts live in memory, one per user, guarded by striped locks
+ * - Each mutation is appended to the {@link CartJournal} before it is acknowledged
+ *   (a failed append rolls the in-memory cart back)
+ * - Dirty carts are written to carts / cart_items in batches on an interval,
+ *   at checkout ({@link #flushForCheckout(Long)}) and on shutdown; checkout waits
+ *   for a background flush of the same cart that is still in flight
+ * - On startup the journal is replayed, so acknowledged changes survive a restart
+ *
+ * Carts not in memory are loaded lazily from MySQL; clean carts idle for
+ * {@code cart.memory.idle-evict-minutes} are dropped again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.mode", havingValue = "memory")
+public class MemoryCartStore {
+
+    private static final int STRIPES = 64; // power of two
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductVariantRepository variantRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartJournal journal;
+
+    private final int batchSize;
+    private final long idleEvictMillis;
+
+    private final ConcurrentHashMap<Long, MemoryCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    // Signalled when a background flush of a cart in the stripe finishes
+    private final Condition[] flushed = new Condition[STRIPES];
+
+    // Provisional (negative) line ids for lines created in memory
+    private final AtomicLong provisionalIds = new AtomicLong(-System.currentTimeMillis());
+
+    /*
+     * Checkout flushes hold the read side until their transaction completes;
+     * journal segments are only deleted under the write side, so a segment is
+     * never dropped while a cart it covers is half-way into MySQL.
+     */
+    private final ReentrantReadWriteLock flushGate = new ReentrantReadWriteLock();
+
+    // One flush round at a time (a lock, not synchronized: the round blocks on MySQL,
+    // which would pin a virtual thread's carrier)
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public MemoryCartStore(
+            CartRepository cartRepository,
+            CartItemRepository cartItemRepository,
+            ProductVariantRepository variantRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.memory.journal-dir:data/cart-journal}") String journalDir,
+            @Value("${cart.memory.journal-fsync:true}") boolean journalFsync,
+            @Value("${cart.memory.flush-batch-size:100}") int batchSize,
+            @Value("${cart.memory.idle-evict-minutes:30}") long idleEvictMinutes
+    ) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.variantRepository = variantRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new CartJournal(Path.of(journalDir), journalFsync);
+        this.batchSize = batchSize;
+        this.idleEvictMillis = TimeUnit.MINUTES.toMillis(idleEvictMinutes);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+            flushed[i] = stripes[i].newCondition();
+        }
+    }
+
+    // =========================================================
+    // Lifecycle
+    // =========================================================
+
+    @PostConstruct
+    void recover() {
+        journal.open(this::replay);
+        if (!dirty.isEmpty()) {
+            log.info("Recovered {} unflushed cart(s) from journal", dirty.size());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            flushDirty();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void replay(String record) {
+        try {
+            if (record.startsWith("S ")) {
+                CartSnapshot snapshot = CartSnapshot.decode(record.substring(2));
+                carts.put(snapshot.userId(), MemoryCart.restore(snapshot));
+                dirty.add(snapshot.userId());
+            } else if (record.startsWith("E ")) {
+                Long userId = Long.valueOf(record.substring(2));
+                carts.remove(userId);
+                dirty.remove(userId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Skipping unreadable cart journal record: {}", record, e);
+        }
+    }
+
+    // =========================================================
+    // Access
+    // =========================================================
+
+    public CartSnapshot snapshot(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = load(userId);
+            cart.touch();
+            return cart.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a change to the user's cart and journals it before returning.
+     * If the change or the journal append throws, the cart is rolled back, so
+     * memory never holds a change a restart would lose.
+     *
+     * @return state after the change
+     */
+    public CartSnapshot mutate(Long userId, Consumer<MemoryCart> change) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = load(userId);
+            CartSnapshot before = cart.snapshot();
+            CartSnapshot snapshot;
+            try {
+                change.accept(cart);
+                cart.bumpVersion();
+                snapshot = cart.snapshot();
+                journal.append("S " + snapshot.encode());
+            } catch (RuntimeException e) {
+                cart.revertTo(before);
+                throw e;
+            }
+            cart.touch();
+            dirty.add(userId);
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Only valid inside mutate()
+    public void addLine(MemoryCart cart, long variantId, int quantity) {
+        cart.addLine(provisionalIds.decrementAndGet(), variantId, quantity);
+    }
+
+    private MemoryCart load(Long userId) {
+        MemoryCart cart = carts.get(userId);
+        if (cart != null) {
+            return cart;
+        }
+
+        Cart dbCart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE).orElse(null);
+        MemoryCart loaded = MemoryCart.restore(new CartSnapshot(
+                userId,
+                dbCart == null ? null : dbCart.getId(),
+                0,
+                dbCart == null ? List.of() : cartItemRepository.findLinesByCartId(dbCart.getId()).stream()
+                        .map(l -> new CartSnapshot.LineSnapshot(l.cartItemId(), l.cartItemId(), l.variantId(), l.quantity()))
+                        .toList()
+        ));
+        carts.put(userId, loaded);
+        return loaded;
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return stripes[stripeIndex(userId)];
+    }
+
+    private static int stripeIndex(Long userId) {
+        return Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (STRIPES - 1);
+    }
+
+    // =========================================================
+    // Write-behind flush
+    // =========================================================
+
+    @Scheduled(
+            fixedDelayString = "${cart.memory.flush-interval-ms:5000}",
+            initialDelayString = "${cart.memory.flush-interval-ms:5000}"
+    )
+    public void flushDirty() {
+        flushLock.lock();
+        try {
+            flushRound();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushRound() {
+
+        // Everything journaled before this point is in older segments
+        long keepFrom = journal.rotate();
+
+        List<Long> users = new ArrayList<>(dirty);
+        boolean allFlushed = true;
+
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<CartSnapshot> batch = new ArrayList<>();
+            for (Long userId : users.subList(from, Math.min(from + batchSize, users.size()))) {
+                CartSnapshot snapshot = takeDirtySnapshot(userId);
+                if (snapshot != null) {
+                    batch.add(snapshot);
+                }
+            }
+            if (!batch.isEmpty()) {
+                allFlushed &= flushBatch(batch);
+            }
+        }
+
+        if (allFlushed) {
+            flushGate.writeLock().lock();
+            try {
+                journal.deleteSegmentsBefore(keepFrom);
+            } finally {
+                flushGate.writeLock().unlock();
+            }
+        }
+
+        evictIdle();
+    }
+
+    /**
+     * Writes the user's cart to MySQL inside the caller's transaction (checkout),
+     * so the order is built from up-to-date cart rows.
+     *
+     * After commit the in-memory cart is dropped (the DB cart is now CHECKED_OUT);
+     * on rollback it is marked dirty again.
+     */
+    public void flushForCheckout(Long userId) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("flushForCheckout requires an active transaction");
+        }
+
+        flushGate.readLock().lock();
+        boolean registered = false;
+        try {
+            CartSnapshot snapshot;
+            boolean wasDirty;
+
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                MemoryCart cart = carts.get(userId);
+
+                // A background round may hold an uncommitted write of this cart:
+                // wait for it, or the order would be built from older rows
+                while (cart != null && cart.flushing) {
+                    flushed[stripeIndex(userId)].awaitUninterruptibly();
+                    cart = carts.get(userId);
+                }
+                if (cart == null) {
+                    return; // not in memory -> MySQL is already authoritative
+                }
+                wasDirty = dirty.remove(userId);
+                snapshot = cart.snapshot();
+                cart.pendingFlushes++;
+            } finally {
+                lock.unlock();
+            }
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAfterCheckout(snapshot);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        finishPending(userId);
+                        if (status != STATUS_COMMITTED && wasDirty) {
+                            redirty(userId);
+                        }
+                    } finally {
+                        flushGate.readLock().unlock();
+                    }
+                }
+            });
+            registered = true;
+
+            if (wasDirty) {
+                write(snapshot, existingVariantIds(List.of(snapshot)));
+            }
+        } finally {
+            if (!registered) {
+                flushGate.readLock().unlock();
+            }
+        }
+    }
+
+    // Marks the cart as flushing until applyResults / redirty clears it
+    private CartSnapshot takeDirtySnapshot(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = carts.get(userId);
+            if (cart == null || !dirty.remove(userId)) {
+                return null;
+            }
+            cart.flushing = true;
+            return cart.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One transaction per batch; if it fails, carts are retried one by one so a
+     * single bad cart cannot hold back the rest.
+     */
+    private boolean flushBatch(List<CartSnapshot> batch) {
+        try {
+            Map<Long, FlushResult> results = transactionTemplate.execute(status -> writeAll(batch));
+            applyResults(batch, results);
+            return true;
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                log.warn("Cart flush failed for user {}", batch.get(0).userId(), batchFailure);
+                redirty(batch.get(0).userId());
+                return false;
+            }
+            boolean allFlushed = true;
+            for (CartSnapshot snapshot : batch) {
+                allFlushed &= flushBatch(List.of(snapshot));
+            }
+            return allFlushed;
+        }
+    }
+
+    private Map<Long, FlushResult> writeAll(List<CartSnapshot> batch) {
+        Set<Long> existingVariants = existingVariantIds(batch);
+        Map<Long, FlushResult> results = new HashMap<>();
+        for (CartSnapshot snapshot : batch) {
+            results.put(snapshot.userId(), write(snapshot, existingVariants));
+        }
+        return results;
+    }
+
+    private record FlushResult(Long cartId, Map<Long, Long> itemIdsByVariant) {}
+
+    /**
+     * Makes carts / cart_items match the snapshot. Lines are matched by variant
+     * (unique per cart), so replaying a snapshot without DB ids is idempotent.
+     */
+    private FlushResult write(CartSnapshot snapshot, Set<Long> existingVariants) {
+
+        Cart cart = null;
+        if (snapshot.dbCartId() != null) {
+            cart = cartRepository.findById(snapshot.dbCartId())
+                    .filter(c -> c.getStatus() == CartStatus.ACTIVE)
+                    .orElse(null);
+        }
+        if (cart == null) {
+            cart = cartRepository.findByUserIdAndStatus(snapshot.userId(), CartStatus.ACTIVE).orElse(null);
+        }
+        if (cart == null) {
+            if (snapshot.lines().isEmpty()) {
+                return new FlushResult(null, Map.of());
+            }
+            cart = cartRepository.save(Cart.builder()
+                    .user(userRepository.getReferenceById(snapshot.userId()))
+                    .status(CartStatus.ACTIVE)
+                    .build());
+        }
+
+        Map<Long, CartItem> existing = new HashMap<>();
+        for (CartItem item : cartItemRepository.findByCartId(cart.getId())) {
+            existing.put(item.getVariant().getId(), item);
+        }
+
+        Map<Long, CartItem> kept = new HashMap<>();
+        List<CartItem> created = new ArrayList<>();
+        for (CartSnapshot.LineSnapshot line : snapshot.lines()) {
+            if (!existingVariants.contains(line.variantId())) {
+                continue; // variant deleted since it was added
+            }
+            CartItem item = existing.remove(line.variantId());
+            if (item == null) {
+                item = CartItem.builder()
+                        .cart(cart)
+                        .variant(variantRepository.getReferenceById(line.variantId()))
+                        .quantity(line.quantity())
+                        .build();
+                created.add(item);
+            } else if (item.getQuantity() != line.quantity()) {
+                item.setQuantity(line.quantity());
+            }
+            kept.put(line.variantId(), item);
+        }
+
+        // New lines go out as one JDBC batch; @TimeOrderedId assigns ids in memory before the INSERT
+        cartItemRepository.saveAll(created);
+        cartItemRepository.deleteAll(existing.values());
+
+        Map<Long, Long> itemIds = new HashMap<>();
+        kept.forEach((variantId, item) -> itemIds.put(variantId, item.getId()));
+
+        return new FlushResult(cart.getId(), itemIds);
+    }
+
+    private void applyResults(List<CartSnapshot> batch, Map<Long, FlushResult> results) {
+        for (CartSnapshot snapshot : batch) {
+            FlushResult result = results.get(snapshot.userId());
+            ReentrantLock lock = lockFor(snapshot.userId());
+            lock.lock();
+            try {
+                MemoryCart cart = carts.get(snapshot.userId());
+                if (cart != null && result != null) {
+                    cart.applyFlush(result.cartId(), result.itemIdsByVariant());
+                }
+                finishFlushing(cart, snapshot.userId());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void evictAfterCheckout(CartSnapshot checkedOut) {
+        Long userId = checkedOut.userId();
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = carts.get(userId);
+            if (cart == null) {
+                return;
+            }
+            if (cart.version() == checkedOut.version()) {
+                journal.append("E " + userId);
+                carts.remove(userId);
+                dirty.remove(userId);
+            } else {
+                // Changed during checkout: keep the newer lines as a fresh cart
+                cart.detachFromDb();
+                journal.append("S " + cart.snapshot().encode());
+                dirty.add(userId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finishPending(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = carts.get(userId);
+            if (cart != null && cart.pendingFlushes > 0) {
+                cart.pendingFlushes--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Flush failed: mark dirty again and re-journal into the current segment
+    private void redirty(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = carts.get(userId);
+            if (cart != null) {
+                dirty.add(userId);
+                try {
+                    journal.append("S " + cart.snapshot().encode());
+                } finally {
+                    finishFlushing(cart, userId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the user's stripe lock
+    private void finishFlushing(MemoryCart cart, Long userId) {
+        if (cart != null && cart.flushing) {
+            cart.flushing = false;
+            flushed[stripeIndex(userId)].signalAll();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMillis;
+        for (Map.Entry<Long, MemoryCart> entry : carts.entrySet()) {
+            Long userId = entry.getKey();
+            if (entry.getValue().lastAccessMillis() >= cutoff || dirty.contains(userId)) {
+                continue;
+            }
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                MemoryCart cart = carts.get(userId);
+                if (cart != null && cart.lastAccessMillis() < cutoff && cart.pendingFlushes == 0
+                        && !cart.flushing && !dirty.contains(userId)) {
+                    carts.remove(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Set<Long> existingVariantIds(List<CartSnapshot> snapshots) {
+        Set<Long> ids = new HashSet<>();
+        for (CartSnapshot snapshot : snapshots) {
+            for (CartSnapshot.LineSnapshot line : snapshot.lines()) {
+                ids.add(line.variantId());
+            }
+        }
+        return ids.isEmpty() ? ids : new HashSet<>(variantRepository.findExistingIds(ids));
+    }
+}
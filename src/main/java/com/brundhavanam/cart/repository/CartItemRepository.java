@@ -1,7 +1,10 @@
 package com.brundhavanam.cart.repository;
 
+import com.brundhavanam.cart.dto.CartLineView;
 import com.brundhavanam.cart.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,5 +15,13 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     List<CartItem> findByCartId(Long cartId);
 
+    // Every field needed for the cart response / checkout snapshot in one statement
+    @Query("SELECT new com.brundhavanam.cart.dto.CartLineView("
+            + "i.id, p.id, p.name, v.id, v.label, i.quantity, v.price) "
+            + "FROM CartItem i JOIN i.variant v JOIN v.product p "
+            + "WHERE i.cart.id = :cartId "
+            + "ORDER BY i.id")
+    List<CartLineView> findLinesByCartId(@Param("cartId") Long cartId);
+
     void deleteByCartId(Long cartId);
 }
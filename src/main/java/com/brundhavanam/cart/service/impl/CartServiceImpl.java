@@ -8,36 +8,40 @@ import com.brundhavanam.cart.repository.CartRepository;
 import com.brundhavanam.common.enums.CartStatus;
 import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.config.security.AuthenticatedUser;
 import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.inventory.InventoryReservationEngine;
 import com.brundhavanam.product.repository.ProductVariantRepository;
-import com.brundhavanam.user.entity.User;
 import com.brundhavanam.user.repository.UserRepository;
 import com.brundhavanam.cart.service.CartService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
+// Default cart mode: every operation reads / writes MySQL directly (see MemoryCartServiceImpl for cart.mode=memory)
 @Service
 @RequiredArgsConstructor
 @Transactional
+@ConditionalOnProperty(name = "cart.mode", havingValue = "db", matchIfMissing = true)
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductVariantRepository productVariantRepository;
     private final UserRepository userRepository;
+    private final InventoryReservationEngine inventory;
 
     @Override
     @Transactional(readOnly = true)
     public CartResponse getMyCart() {
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
-        Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+        Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
                 .orElse(null);
 
         if (cart == null) {
@@ -49,12 +53,12 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartResponse addItem(AddToCartRequest request) {
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
-        Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+        Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
                 .orElseGet(() -> cartRepository.save(
                         Cart.builder()
-                                .user(user)
+                                .user(userRepository.getReferenceById(userId))
                                 .status(CartStatus.ACTIVE)
                                 .build()
                 ));
@@ -87,9 +91,9 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartResponse updateItem(Long cartItemId, UpdateCartItemRequest request) {
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
-        Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+        Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
                 .orElseThrow(() -> new ResourceNotFoundException("Active cart not found"));
 
         CartItem item = cartItemRepository.findById(cartItemId)
@@ -111,9 +115,9 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartResponse removeItem(Long cartItemId) {
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
-        Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+        Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
                 .orElseThrow(() -> new ResourceNotFoundException("Active cart not found"));
 
         CartItem item = cartItemRepository.findById(cartItemId)
@@ -129,9 +133,9 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartResponse clearCart() {
-        User user = getLoggedInUser();
+        Long userId = getLoggedInUserId();
 
-        Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+        Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
                 .orElseThrow(() -> new ResourceNotFoundException("Active cart not found"));
 
         cartItemRepository.deleteByCartId(cart.getId());
@@ -143,34 +147,20 @@ public class CartServiceImpl implements CartService {
     // Helpers
     // =========================================================
 
+    // One projection query for all lines; totals computed in the same pass
     private CartResponse buildCartResponse(Cart cart) {
-        List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
-
-        List<CartItemResponse> responseItems = items.stream().map(item -> {
-            ProductVariant v = item.getVariant();
-
-            BigDecimal unitPrice = v.getPrice();
-            BigDecimal itemTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-
-            return new CartItemResponse(
-                    item.getId(),
-                    v.getProduct().getId(),
-                    v.getProduct().getName(),
-                    v.getId(),
-                    v.getLabel(),
-                    item.getQuantity(),
-                    unitPrice,
-                    itemTotal
-            );
-        }).toList();
+        List<CartLineView> lines = cartItemRepository.findLinesByCartId(cart.getId());
 
-        int totalItems = items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        List<CartItemResponse> responseItems = new ArrayList<>(lines.size());
+        int totalItems = 0;
+        BigDecimal grandTotal = BigDecimal.ZERO;
 
-        BigDecimal grandTotal = responseItems.stream()
-                .map(CartItemResponse::itemTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (CartLineView line : lines) {
+            CartItemResponse item = line.toResponse();
+            responseItems.add(item);
+            totalItems += item.quantity();
+            grandTotal = grandTotal.add(item.itemTotal());
+        }
 
         return new CartResponse(cart.getId(), totalItems, grandTotal, responseItems);
     }
@@ -183,23 +173,18 @@ public class CartServiceImpl implements CartService {
             );
         }
 
-        if (variant.getStock() < requiredQty) {
+        // Available-to-sell: stock minus pending deductions and live checkout reservations
+        int available = inventory.available(variant.getId());
+        if (available < requiredQty) {
             throw new BadRequestException(
-                    "Only " + variant.getStock() + " available for variant: " + variant.getLabel()
+                    "Only " + Math.max(available, 0) + " available for variant: " + variant.getLabel()
             );
         }
     }
 
 
-    private User getLoggedInUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getPrincipal() == null) {
-            throw new BadRequestException("Unauthorized");
-        }
-
-        String mobile = auth.getPrincipal().toString();
-
-        return userRepository.findByMobile(mobile)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with mobile: " + mobile));
+    // Principal is resolved once by JwtAuthorizationFilter (no users-table lookup here)
+    private Long getLoggedInUserId() {
+        return AuthenticatedUser.current().id();
     }
 }
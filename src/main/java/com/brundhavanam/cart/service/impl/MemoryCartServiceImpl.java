@@ -0,0 +1,175 @@
+package com.brundhavanam.cart.service.impl;
+
+import com.brundhavanam.cart.dto.*;
+import com.brundhavanam.cart.memory.CartSnapshot;
+import com.brundhavanam.cart.memory.CartVariantCache;
+import com.brundhavanam.cart.memory.CartVariantCache.VariantInfo;
+import com.brundhavanam.cart.memory.MemoryCart;
+import com.brundhavanam.cart.memory.MemoryCartStore;
+import com.brundhavanam.cart.service.CartService;
+import com.brundhavanam.common.exception.BadRequestException;
+import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.config.security.AuthenticatedUser;
+import com.brundhavanam.product.inventory.InventoryReservationEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cart operations served from {@link MemoryCartStore} (cart.mode=memory).
+ *
+ * Same contract as {@link CartServiceImpl}; MySQL is written behind by the store.
+ * Lines created in memory carry a provisional (negative) cartItemId until the
+ * first flush; both ids keep working afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.mode", havingValue = "memory")
+public class MemoryCartServiceImpl implements CartService {
+
+    private final MemoryCartStore store;
+    private final CartVariantCache variants;
+    private final InventoryReservationEngine inventory;
+
+    @Override
+    public CartResponse getMyCart() {
+        return buildCartResponse(store.snapshot(getLoggedInUserId()));
+    }
+
+    @Override
+    public CartResponse addItem(AddToCartRequest request) {
+
+        VariantInfo variant = variants.get(request.variantId())
+                .filter(VariantInfo::active)
+                .orElseThrow(() -> new ResourceNotFoundException("Variant not found or inactive: " + request.variantId()));
+
+        // ✅ stock validation
+        validateStock(variant, request.quantity());
+
+        CartSnapshot cart = store.mutate(getLoggedInUserId(), c -> {
+            MemoryCart.Line line = c.findByVariant(variant.variantId()).orElse(null);
+            if (line == null) {
+                store.addLine(c, variant.variantId(), request.quantity());
+            } else {
+                int updatedQty = line.quantity() + request.quantity();
+                validateStock(variant, updatedQty);
+                line.setQuantity(updatedQty);
+            }
+        });
+
+        return buildCartResponse(cart);
+    }
+
+    @Override
+    public CartResponse updateItem(Long cartItemId, UpdateCartItemRequest request) {
+
+        CartSnapshot cart = store.mutate(getLoggedInUserId(), c -> {
+            MemoryCart.Line line = findLine(c, cartItemId);
+
+            VariantInfo variant = variants.get(line.variantId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Variant not found: " + line.variantId()));
+
+            validateStock(variant, request.quantity());
+            line.setQuantity(request.quantity());
+        });
+
+        return buildCartResponse(cart);
+    }
+
+    @Override
+    public CartResponse removeItem(Long cartItemId) {
+
+        CartSnapshot cart = store.mutate(getLoggedInUserId(), c -> c.removeLine(findLine(c, cartItemId)));
+
+        return buildCartResponse(cart);
+    }
+
+    @Override
+    public CartResponse clearCart() {
+
+        CartSnapshot cart = store.mutate(getLoggedInUserId(), c -> {
+            if (!c.exists()) {
+                throw new ResourceNotFoundException("Active cart not found");
+            }
+            c.clear();
+        });
+
+        return new CartResponse(cart.dbCartId(), 0, BigDecimal.ZERO, List.of());
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private MemoryCart.Line findLine(MemoryCart cart, Long cartItemId) {
+        if (!cart.exists()) {
+            throw new ResourceNotFoundException("Active cart not found");
+        }
+        return cart.findLine(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found: " + cartItemId));
+    }
+
+    private CartResponse buildCartResponse(CartSnapshot cart) {
+
+        if (!cart.lines().isEmpty() || cart.dbCartId() != null) {
+            Map<Long, VariantInfo> info = variants.getAll(
+                    cart.lines().stream().map(CartSnapshot.LineSnapshot::variantId).toList());
+
+            List<CartItemResponse> items = new ArrayList<>(cart.lines().size());
+            int totalItems = 0;
+            BigDecimal grandTotal = BigDecimal.ZERO;
+
+            for (CartSnapshot.LineSnapshot line : cart.lines()) {
+                VariantInfo v = info.get(line.variantId());
+                if (v == null) {
+                    continue; // variant deleted; dropped from the cart on the next flush
+                }
+
+                BigDecimal itemTotal = v.price().multiply(BigDecimal.valueOf(line.quantity()));
+
+                items.add(new CartItemResponse(
+                        line.cartItemId(),
+                        v.productId(),
+                        v.productName(),
+                        v.variantId(),
+                        v.label(),
+                        line.quantity(),
+                        v.price(),
+                        itemTotal
+                ));
+                totalItems += line.quantity();
+                grandTotal = grandTotal.add(itemTotal);
+            }
+
+            return new CartResponse(cart.dbCartId(), totalItems, grandTotal, items);
+        }
+
+        return new CartResponse(null, 0, BigDecimal.ZERO, List.of());
+    }
+
+    private void validateStock(VariantInfo variant, int requiredQty) {
+
+        if (variant.stock() == null) {
+            throw new BadRequestException(
+                    "Stock not initialized for variant: " + variant.label()
+            );
+        }
+
+        // Available-to-sell: stock minus pending deductions and live checkout reservations
+        int available = inventory.available(variant.variantId());
+        if (available < requiredQty) {
+            throw new BadRequestException(
+                    "Only " + Math.max(available, 0) + " available for variant: " + variant.label()
+            );
+        }
+    }
+
+    private Long getLoggedInUserId() {
+        return AuthenticatedUser.current().id();
+    }
+}
@@ -0,0 +1,176 @@
+package com.brundhavanam.common.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Small in-process cache bounded by entry count and time-to-live.
+ *
+ * - Reads take a shared lock only (map is kept in insertion order, so get() does not mutate it)
+ * - When full, the oldest inserted entry is evicted
+ * - Expired entries are treated as misses and dropped from the old end on the next write
+ *
+ * Meant for read-heavy data that changes rarely (catalog, auth lookups).
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final Map<K, Entry<V>> entries;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public BoundedTtlCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxEntries and ttlMillis must be > 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value or null when absent / expired.
+     */
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.value;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value, or loads it with the given loader and caches it.
+     * Loader exceptions are propagated and nothing is cached.
+     */
+    public V getOrLoad(K key, Supplier<V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.get();
+        if (loaded != null) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Caches a value until the given absolute time (epoch millis), capped by the cache TTL.
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(expiresAtMillis, now + ttlMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            purgeExpired(now);
+            // remove first so a refreshed key moves to the "newest" end
+            entries.remove(key);
+            entries.put(key, new Entry<>(value, expiresAt));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.writeLock().lock();
+        try {
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry matching the predicate (e.g. cached lists containing a product).
+     */
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        lock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (predicate.test(e.getKey(), e.getValue().value)) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            invalidations.add(entries.size());
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        lock.readLock().lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    // Caller must hold the write lock.
+    // Walks from the oldest entry and stops at the first live one, so a put stays O(expired).
+    private void purgeExpired(long now) {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt > now) {
+                return;
+            }
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
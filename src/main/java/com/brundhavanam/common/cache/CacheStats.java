@@ -0,0 +1,15 @@
+package com.brundhavanam.common.cache;
+
+/**
+ * Point-in-time counters of a {@link BoundedTtlCache}.
+ *
+ * - evictions     : entries dropped because of size limit or TTL expiry
+ * - invalidations : entries removed explicitly (e.g. after admin updates)
+ */
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations,
+        int size
+) {}
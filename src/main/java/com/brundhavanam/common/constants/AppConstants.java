@@ -2,4 +2,10 @@ package com.brundhavanam.common.constants;
 
 public class AppConstants {
 
+    // Cursor (keyset) pagination
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private AppConstants() {
+    }
 }
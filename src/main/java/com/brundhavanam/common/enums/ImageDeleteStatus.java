@@ -0,0 +1,7 @@
+package com.brundhavanam.common.enums;
+
+public enum ImageDeleteStatus {
+
+    PENDING,    // waiting for (or between) delete attempts; the row is removed once deleted
+    FAILED      // gave up after max attempts (kept for inspection)
+}
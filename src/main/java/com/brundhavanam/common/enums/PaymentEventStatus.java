@@ -0,0 +1,8 @@
+package com.brundhavanam.common.enums;
+
+public enum PaymentEventStatus {
+
+    PENDING,    // accepted, waiting for (or between) processing attempts
+    DONE,       // payment recorded and order confirmed
+    FAILED      // gave up (non-retryable error or attempts exhausted)
+}
@@ -4,5 +4,6 @@ public enum PaymentStatus {
 
     PENDING,
     SUCCESS,
-    FAILED
+    FAILED,
+    REFUNDED
 }
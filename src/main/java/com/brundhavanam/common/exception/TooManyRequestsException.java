@@ -0,0 +1,16 @@
+package com.brundhavanam.common.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    // Seconds the client should wait before retrying (Retry-After header)
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
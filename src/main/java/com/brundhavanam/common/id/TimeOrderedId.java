@@ -0,0 +1,19 @@
+package com.brundhavanam.common.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Put on an @Id field (instead of @GeneratedValue) to assign a {@link TimeOrderedIds}
+ * id in the application before INSERT. Unlike IDENTITY, the row does not have to be
+ * inserted to learn its id, so inserts can be batched and no auto-increment lock is taken.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,44 @@
+package com.brundhavanam.common.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Hibernate side of {@link TimeOrderedId}.
+ *
+ * The node id comes from the Hibernate setting {@value #NODE_ID_SETTING}
+ * (spring.jpa.properties.brundhavanam.id.node-id); every instance of the app
+ * sharing a database needs a different one.
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String NODE_ID_SETTING = "brundhavanam.id.node-id";
+
+    private final TimeOrderedIds ids;
+
+    // Signature Hibernate looks up reflectively for @IdGeneratorType (the exact context type matters)
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object nodeId = context.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(NODE_ID_SETTING);
+        this.ids = TimeOrderedIds.forNode(nodeId == null ? 0 : Integer.parseInt(nodeId.toString().trim()));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return ids.next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,434 @@
+package com.brundhavanam.common.idempotency;
+
+import com.brundhavanam.common.exception.ErrorResponse;
+import com.brundhavanam.config.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key support for mutating endpoints (POST / PUT / PATCH / DELETE).
+ *
+ * A request carrying the header runs at most once per user and key:
+ * - repeats get the stored response (status + body) with Idempotent-Replayed: true
+ * - a repeat arriving while the first is still running waits for it and gets
+ *   the same response (one execution, not two)
+ * - the same key with a different method / path / body is rejected (422)
+ * - 5xx responses and exceptions are not stored, so a retry runs again
+ * - a response over max-response-bytes is not kept; repeats get a 409 saying
+ *   the request was already processed (it never runs twice)
+ *
+ * Runs in the security chain right after JwtAuthorizationFilter (keys are
+ * scoped per user). Requests without the header, unauthenticated requests (no
+ * user to scope the key to) and multipart uploads pass through.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> MUTATING = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Carries an async request's claim to its async dispatch
+    private static final String CLAIM_ATTRIBUTE = IdempotencyFilter.class.getName() + ".claim";
+
+    private final IdempotencyStore store;
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final boolean persist;
+    private final long ttlMillis;
+    private final long waitTimeoutMillis;
+    private final int maxResponseBytes;
+
+    public IdempotencyFilter(
+            IdempotencyRecordRepository recordRepository,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.enabled:true}") boolean enabled,
+            @Value("${idempotency.persist:false}") boolean persist,
+            @Value("${idempotency.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis,
+            @Value("${idempotency.max-response-bytes:65536}") int maxResponseBytes
+    ) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.persist = persist;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.maxResponseBytes = maxResponseBytes;
+        this.store = new IdempotencyStore(maxEntries, ttlMillis);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return !enabled
+                || !MUTATING.contains(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    // The async dispatch of a CompletableFuture controller must capture the response too
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (isAsyncDispatch(request)) {
+            try {
+                filterChain.doFilter(request, response);
+                finish(request, response);
+            } finally {
+                abandon(request);
+            }
+            return;
+        }
+
+        // One shared scope would let any caller replay another caller's response
+        String scope = currentScope();
+        if (scope == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpServletRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        String scopedKey = scope + ":" + key;
+        String fingerprint = fingerprint(request, body);
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(scopedKey, fingerprint);
+
+            switch (claim.outcome()) {
+                case MISMATCH -> {
+                    writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            HEADER + " was already used for a different request");
+                    return;
+                }
+                case REPLAY -> {
+                    writeReplay(response, claim.response());
+                    return;
+                }
+                case EXECUTE -> {
+                    execute(cachedRequest, response, filterChain, scopedKey, fingerprint, claim.pending());
+                    return;
+                }
+                case WAIT -> {
+                    StoredResponse stored = await(claim.pending(), deadline);
+                    if (stored != null) {
+                        writeReplay(response, stored);
+                        return;
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        writeError(request, response, HttpStatus.CONFLICT,
+                                "A request with this " + HEADER + " is still being processed");
+                        return;
+                    }
+                    // First attempt stored nothing (failed); claim again and run it ourselves
+                }
+            }
+        }
+    }
+
+    // Expired persisted keys (memory entries are bounded by the LRU)
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:600000}")
+    public void purgeExpiredRecords() {
+        if (persist) {
+            int deleted = recordRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                log.debug("Deleted {} expired idempotency key(s)", deleted);
+            }
+        }
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private void execute(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain,
+            String scopedKey,
+            String fingerprint,
+            CompletableFuture<StoredResponse> pending
+    ) throws ServletException, IOException {
+
+        String keyHash = sha256Hex(scopedKey.getBytes(StandardCharsets.UTF_8));
+
+        // Another instance (or this one before a restart) may have completed it
+        if (persist) {
+            IdempotencyRecord record = recordRepository.findById(keyHash)
+                    .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .orElse(null);
+            if (record != null) {
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    store.complete(scopedKey, pending, null);
+                    writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            HEADER + " was already used for a different request");
+                    return;
+                }
+                StoredResponse stored = new StoredResponse(record.getStatus(), record.getContentType(), record.getBody());
+                store.complete(scopedKey, pending, stored);
+                writeReplay(response, stored);
+                return;
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        PendingClaim claim = new PendingClaim(scopedKey, keyHash, fingerprint, pending);
+        request.setAttribute(CLAIM_ATTRIBUTE, claim);
+
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (!request.isAsyncStarted()) {
+                finish(request, wrapper);
+            }
+        } finally {
+            if (!request.isAsyncStarted()) {
+                abandon(request);
+            }
+        }
+    }
+
+    // Exception before finish(): nothing stored, so a retry runs the request again
+    private void abandon(HttpServletRequest request) {
+        PendingClaim claim = (PendingClaim) request.getAttribute(CLAIM_ATTRIBUTE);
+        if (claim != null) {
+            request.removeAttribute(CLAIM_ATTRIBUTE);
+            store.complete(claim.scopedKey(), claim.pending(), null);
+        }
+    }
+
+    // Stores the response (if cacheable) and writes the buffered body to the client
+    private void finish(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        PendingClaim claim = (PendingClaim) request.getAttribute(CLAIM_ATTRIBUTE);
+        if (wrapper == null || claim == null) {
+            return;
+        }
+        request.removeAttribute(CLAIM_ATTRIBUTE);
+
+        StoredResponse stored = null;
+        if (wrapper.getStatus() < 500 && wrapper.getContentSize() <= maxResponseBytes) {
+            stored = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+        } else if (wrapper.getStatus() < 500) {
+            // Completed all the same: waiting and later repeats must not run it again
+            stored = new StoredResponse(HttpStatus.CONFLICT.value(), MediaType.APPLICATION_JSON_VALUE,
+                    errorBody(request, HttpStatus.CONFLICT, "A request with this " + HEADER
+                            + " was already processed (status " + wrapper.getStatus()
+                            + "); its response is too large to replay"));
+        }
+        store.complete(claim.scopedKey(), claim.pending(), stored);
+
+        if (stored != null && persist) {
+            try {
+                recordRepository.save(IdempotencyRecord.builder()
+                        .keyHash(claim.keyHash())
+                        .fingerprint(claim.fingerprint())
+                        .status(stored.status())
+                        .contentType(stored.contentType())
+                        .body(stored.body())
+                        .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(ttlMillis)))
+                        .build());
+            } catch (RuntimeException e) {
+                log.warn("Could not persist idempotency key: {}", e.getMessage());
+            }
+        }
+
+        wrapper.copyBodyToResponse();
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> pending, long deadline) throws ServletException {
+        try {
+            return pending.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for an in-flight request", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void writeReplay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(errorBody(request, status, message));
+    }
+
+    private byte[] errorBody(HttpServletRequest request, HttpStatus status, String message) throws IOException {
+        return objectMapper.writeValueAsBytes(new ErrorResponse(
+                LocalDateTime.now(ZoneId.systemDefault()),
+                status.value(),
+                status.getReasonPhrase(),
+                message,
+                request.getRequestURI(),
+                null
+        ));
+    }
+
+    // null when the request is not authenticated
+    private static String currentScope() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return "u" + user.id();
+        }
+        return null;
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest digest = sha256();
+        digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ' ');
+        digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        if (request.getQueryString() != null) {
+            digest.update((byte) '?');
+            digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) '\n');
+        digest.update(body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(sha256().digest(data));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record PendingClaim(String scopedKey, String keyHash, String fingerprint,
+                                CompletableFuture<StoredResponse> pending) {}
+
+    // Request whose body was read up front (fingerprint), replayable for the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.brundhavanam.common.idempotency;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/*
+ Completed idempotent request, persisted when idempotency.persist=true
+ so replays survive restarts and work across instances.
+*/
+
+@Entity
+@Table(
+        name = "idempotency_keys",
+        indexes = {
+                @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    // SHA-256 (hex) of the scoped key: user + Idempotency-Key header
+    @Id
+    @Column(length = 64)
+    private String keyHash;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private Integer status;
+
+    private String contentType;
+
+    @Lob
+    @Column(length = 65535)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
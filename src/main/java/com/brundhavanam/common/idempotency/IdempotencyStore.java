@@ -0,0 +1,170 @@
+package com.brundhavanam.common.idempotency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Memory-bounded idempotency-key store.
+ *
+ * - Keys are spread over {@code STRIPES} independently locked LRU maps, so
+ *   unrelated requests never contend on one lock
+ * - Each stripe holds at most maxEntries / STRIPES keys; the least recently
+ *   used key is evicted first
+ * - A key is either in flight (the first request is executing; later ones wait
+ *   on its future) or completed (response kept until its TTL runs out)
+ */
+public class IdempotencyStore {
+
+    private static final int STRIPES = 16;
+
+    public enum Outcome {
+        EXECUTE,    // caller runs the request, then calls complete()
+        REPLAY,     // response is available
+        WAIT,       // same request in flight elsewhere; wait on pending
+        MISMATCH    // key reused for a different request
+    }
+
+    /**
+     * @param response set for REPLAY
+     * @param pending  set for EXECUTE (complete it via complete()) and WAIT
+     *                 (completes with the response, or null if nothing was stored)
+     */
+    public record Claim(Outcome outcome, StoredResponse response, CompletableFuture<StoredResponse> pending) {}
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    public IdempotencyStore(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    // clock: epoch millis (tests pass a controllable one)
+    IdempotencyStore(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries < STRIPES || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxEntries must be >= " + STRIPES + " and ttlMillis > 0");
+        }
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxEntries / STRIPES);
+        }
+    }
+
+    /**
+     * @param fingerprint identifies the request (method, path, body); a key
+     *                    seen with another fingerprint is a MISMATCH
+     */
+    public Claim claim(String key, String fingerprint) {
+        Stripe stripe = stripeFor(key);
+        long now = clock.getAsLong();
+
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && entry.response != null && entry.expiresAt <= now) {
+                stripe.entries.remove(key);
+                entry = null;
+            }
+
+            if (entry == null) {
+                Entry created = new Entry(fingerprint, new CompletableFuture<>());
+                stripe.entries.put(key, created);
+                return new Claim(Outcome.EXECUTE, null, created.pending);
+            }
+            if (!entry.fingerprint.equals(fingerprint)) {
+                return new Claim(Outcome.MISMATCH, null, null);
+            }
+            if (entry.response != null) {
+                return new Claim(Outcome.REPLAY, entry.response, null);
+            }
+            return new Claim(Outcome.WAIT, null, entry.pending);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Finishes an EXECUTE claim. A null response (failure, not cacheable) drops
+     * the key so the next attempt runs the request again.
+     */
+    public void complete(String key, CompletableFuture<StoredResponse> pending, StoredResponse response) {
+        Stripe stripe = stripeFor(key);
+
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && entry.pending == pending) {
+                if (response == null) {
+                    stripe.entries.remove(key);
+                } else {
+                    entry.response = response;
+                    entry.expiresAt = clock.getAsLong() + ttlMillis;
+                    entry.pending = null;
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // Waiters resume outside the stripe lock
+        pending.complete(response);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private Stripe stripeFor(String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    static int stripeIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        CompletableFuture<StoredResponse> pending;
+        StoredResponse response;
+        long expiresAt;
+
+        Entry(String fingerprint, CompletableFuture<StoredResponse> pending) {
+            this.fingerprint = fingerprint;
+            this.pending = pending;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries;
+
+        Stripe(int capacity) {
+            // access order: claim() on a key makes it most recently used
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    // An evicted in-flight key still completes its own waiters
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.brundhavanam.common.idempotency;
+
+/**
+ * Response kept for an idempotency key and replayed for repeats of the request.
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,13 @@
+package com.brundhavanam.common.ratelimit;
+
+/**
+ * Point-in-time counters of a {@link RateLimiter}.
+ *
+ * - throttled : requests refused (over the limit, or key table full)
+ * - keys      : keys currently tracked (idle ones are evicted periodically)
+ */
+public record RateLimitStats(
+        long allowed,
+        long throttled,
+        int keys
+) {}
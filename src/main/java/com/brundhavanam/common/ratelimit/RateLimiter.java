@@ -0,0 +1,108 @@
+package com.brundhavanam.common.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free per-key rate limiter (GCRA, the generic cell rate algorithm:
+ * a token bucket kept as a single timestamp).
+ *
+ * - Allows {@code limit} requests per {@code period}, all of them as a burst
+ *   if the key has been idle
+ * - State per key is one AtomicLong: the "theoretical arrival time" (TAT);
+ *   a request is admitted by one CAS, no locks
+ * - A key whose TAT has passed is indistinguishable from a new key, so
+ *   evictIdle() can drop it without changing any decision
+ * - At most maxKeys keys are tracked; requests for new keys beyond that are
+ *   refused until idle keys are evicted (fails closed under a key flood)
+ */
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+
+    // Time between requests at the sustained rate
+    private final long intervalNanos;
+
+    // How far ahead of now the TAT may run (limit - 1 intervals of burst)
+    private final long toleranceNanos;
+
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public RateLimiter(int limit, Duration period, int maxKeys) {
+        this(limit, period, maxKeys, System::nanoTime);
+    }
+
+    // nanoClock: System.nanoTime() in production, a controllable source in tests
+    RateLimiter(int limit, Duration period, int maxKeys, LongSupplier nanoClock) {
+        if (limit <= 0 || period.isZero() || period.isNegative() || maxKeys <= 0) {
+            throw new IllegalArgumentException("limit, period and maxKeys must be positive");
+        }
+        this.intervalNanos = period.toNanos() / limit;
+        this.toleranceNanos = intervalNanos * (limit - 1);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Retry-After value for a tryAcquire() wait: whole seconds, rounded up, at least 1.
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * @return 0 if the request is allowed, otherwise nanoseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+
+        AtomicLong tat = arrivals.get(key);
+        if (tat == null) {
+            if (arrivals.size() >= maxKeys) {
+                throttled.increment();
+                return intervalNanos;
+            }
+            tat = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = tat.get();
+            long start = Math.max(current, now);
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                throttled.increment();
+                return wait;
+            }
+            if (tat.compareAndSet(current, start + intervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops keys that have fully recovered (their next request would start a
+     * fresh burst anyway). A request racing with its key's removal may be
+     * counted against a fresh entry, i.e. at most one extra request.
+     *
+     * @return number of keys removed
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = arrivals.size();
+        arrivals.values().removeIf(tat -> tat.get() - now <= 0);
+        return Math.max(0, before - arrivals.size());
+    }
+
+    public RateLimitStats stats() {
+        return new RateLimitStats(allowed.sum(), throttled.sum(), arrivals.size());
+    }
+}
@@ -0,0 +1,17 @@
+package com.brundhavanam.common.response;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ *
+ * - nextCursor    : opaque token for the next page, null on the last page
+ * - totalElements : only filled when the client asked for it (?includeTotal=true),
+ *                   because it costs an extra COUNT(*) query
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasNext,
+        Long totalElements
+) {}
@@ -0,0 +1,70 @@
+package com.brundhavanam.common.util;
+
+import com.brundhavanam.common.constants.AppConstants;
+import com.brundhavanam.common.exception.BadRequestException;
+import com.brundhavanam.common.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Helpers for keyset pagination.
+ *
+ * Listings are ordered by id descending (newest first; ids grow with createdAt),
+ * and the cursor is the last id of the previous page, encoded so clients treat it as opaque.
+ * Each page is one "WHERE id < :cursor ORDER BY id DESC LIMIT :size + 1" query:
+ * cost stays flat no matter how deep the client pages.
+ */
+public final class CursorUtil {
+
+    private static final String PREFIX = "id:";
+
+    private CursorUtil() {
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the id after which the next page starts, or null for the first page
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static int clampSize(int size) {
+        if (size <= 0) {
+            return AppConstants.DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, AppConstants.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds the page from a query that fetched size + 1 rows (the extra row only tells us hasNext).
+     *
+     * @param mapper maps the rows of this page in one go (allows bulk loading of children)
+     */
+    public static <E, T> CursorPage<T> toPage(List<E> rows, int size, ToLongFunction<E> idOf,
+                                              Function<List<E>, List<T>> mapper, Long total) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? encode(idOf.applyAsLong(pageRows.get(size - 1))) : null;
+        return new CursorPage<>(mapper.apply(pageRows), next, hasNext, total);
+    }
+}
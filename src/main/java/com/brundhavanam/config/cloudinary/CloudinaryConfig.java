@@ -2,6 +2,7 @@ package com.brundhavanam.config.cloudinary;
 
 import com.cloudinary.Cloudinary;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,8 +12,10 @@ import java.util.Map;
 /**
  * Cloudinary configuration.
  * Creates a Cloudinary bean which can be injected anywhere.
+ * Not needed (no credentials required) with image.storage=local.
  */
 @Configuration
+@ConditionalOnProperty(name = "image.storage", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryConfig {
 
     @Value("${cloudinary.cloud_name}")
@@ -10,6 +10,10 @@ public class JwtProperties {
     private String secret;
     private long expiration;
 
+    // Verified-token cache (skips signature checks for hot clients)
+    private int cacheMaxEntries = 10_000;
+    private long cacheTtlSeconds = 300;
+
     public String getSecret() {
         return secret;
     }
@@ -25,4 +29,20 @@ public class JwtProperties {
     public void setExpiration(long expiration) {
         this.expiration = expiration;
     }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
 }
@@ -1,14 +1,21 @@
 package com.brundhavanam.config.jwt;
 
+import com.brundhavanam.common.cache.BoundedTtlCache;
+import com.brundhavanam.common.enums.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 
 /**
@@ -19,6 +26,8 @@ import java.util.Date;
  *
  * ✅ Uses Base64 encoded secret key and a secure HMAC SHA key (HS256).
  * ✅ Fixes weak secret key issues (must be >= 256 bits for HS256).
+ * ✅ Signing key and parser are built once (both are immutable and thread-safe).
+ * ✅ Recently verified tokens are cached until their "exp", so hot clients skip re-verification.
  */
 @Component
 public class JwtUtil {
@@ -29,8 +38,39 @@ public class JwtUtil {
      */
     private final JwtProperties jwtProperties;
 
+    // Custom claims carrying the principal, so requests resolve the user without a DB lookup
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+
+    // Built once from the Base64 secret (previously rebuilt on every call)
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    /**
+     * Cache of verified tokens.
+     * Key   : SHA-256 of the token (fixed size, the raw token is never kept)
+     * Value : verified claims, kept no longer than the token's own expiry
+     */
+    private final BoundedTtlCache<String, Claims> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
     public JwtUtil(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
+        this.signingKey = buildSigningKey(jwtProperties.getSecret());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey) // validates signature
+                .build();
+        this.verifiedTokens = new BoundedTtlCache<>(
+                jwtProperties.getCacheMaxEntries(),
+                jwtProperties.getCacheTtlSeconds() * 1000
+        );
     }
 
     /**
@@ -41,10 +81,10 @@ public class JwtUtil {
      *
      * ✅ Keys.hmacShaKeyFor() ensures key is strong enough for HS256.
      */
-    private Key getSigningKey() {
+    private static Key buildSigningKey(String secret) {
 
         // Decode BASE64 secret from application.yml
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
 
         // Create secure signing key (prevents "key size not secure enough" error)
         return Keys.hmacShaKeyFor(keyBytes);
@@ -65,18 +105,67 @@ public class JwtUtil {
      * @return signed JWT token
      */
     public String generateToken(String subject) {
+        return generateToken(subject, null, null);
+    }
+
+    /**
+     * Generates a JWT token that also carries the user's id and role
+     * ("uid" / "role" claims), read back by AuthenticatedUserResolver.
+     */
+    public String generateToken(String subject, Long userId, Role role) {
 
         Date now = new Date(); // current time
         Date expiryDate = new Date(now.getTime() + jwtProperties.getExpiration()); // expiry time
 
-        return Jwts.builder()
+        var builder = Jwts.builder();
+        if (userId != null && role != null) {
+            builder.claim(CLAIM_USER_ID, userId)     // "uid" claim -> user id
+                   .claim(CLAIM_ROLE, role.name()); // "role" claim -> USER / ADMIN
+        }
+
+        return builder
                 .setSubject(subject)                 // "sub" claim -> user identity (mobile)
                 .setIssuedAt(now)                    // "iat" claim -> token issued time
                 .setExpiration(expiryDate)           // "exp" claim -> token expiry time
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // signature with secure key
+                .signWith(signingKey, SignatureAlgorithm.HS256) // signature with secure key
                 .compact();                          // final JWT string
     }
 
+    /**
+     * Parses and verifies a token once.
+     *
+     * Use this on the request path instead of validateToken() + extractSubject(),
+     * which would verify the signature twice.
+     *
+     * @param token JWT token
+     * @return verified claims, or null if the token is malformed / tampered / expired
+     */
+    public Claims parseToken(String token) {
+
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        String cacheKey = hash(token);
+
+        Claims cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            return cached; // entries never outlive the token's "exp"
+        }
+
+        try {
+            Claims claims = getClaims(token);
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(cacheKey, claims, claims.getExpiration().getTime());
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            // JwtException -> malformed / expired / unsupported / invalid signature
+            // IllegalArgumentException -> blank/empty token
+            return null;
+        }
+    }
+
     /**
      * Extracts the subject (mobile) from token.
      *
@@ -84,7 +173,11 @@ public class JwtUtil {
      * @return subject stored in token ("sub")
      */
     public String extractSubject(String token) {
-        return getClaims(token).getSubject();
+        Claims claims = parseToken(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return claims.getSubject();
     }
 
     /**
@@ -99,15 +192,7 @@ public class JwtUtil {
      * @return true if valid else false
      */
     public boolean validateToken(String token) {
-        try {
-            // If token is invalid, parsing will throw exception
-            getClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            // JwtException -> malformed / expired / unsupported / invalid signature
-            // IllegalArgumentException -> blank/empty token
-            return false;
-        }
+        return parseToken(token) != null;
     }
 
     /**
@@ -126,10 +211,14 @@ public class JwtUtil {
      */
     private Claims getClaims(String token) {
 
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey()) // validates signature
-                .build()
+        return parser
                 .parseClaimsJws(token)          // parse & validate token
                 .getBody();                     // return token body (claims)
     }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
 }
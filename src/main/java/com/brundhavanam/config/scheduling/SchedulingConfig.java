@@ -0,0 +1,17 @@
+package com.brundhavanam.config.scheduling;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (cart write-behind flush, etc.).
+ *
+ * scheduling.enabled=false turns them all off (tests that count SQL statements
+ * must not see the pollers' queries).
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,34 @@
+package com.brundhavanam.config.security;
+
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.common.exception.BadRequestException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Lightweight principal stored in the SecurityContext by JwtAuthorizationFilter.
+ *
+ * Services read the logged-in user's id / role from here instead of
+ * looking the user up by mobile on every call.
+ */
+public record AuthenticatedUser(Long id, String mobile, Role role) {
+
+    /**
+     * Principal of the current request.
+     *
+     * @throws BadRequestException if the request is not authenticated
+     */
+    public static AuthenticatedUser current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new BadRequestException("Unauthorized");
+        }
+        return principal;
+    }
+
+    // Keeps log lines / auth.getName() readable (principal used to be the plain mobile string)
+    @Override
+    public String toString() {
+        return mobile;
+    }
+}
@@ -0,0 +1,81 @@
+package com.brundhavanam.config.security;
+
+import com.brundhavanam.common.cache.BoundedTtlCache;
+import com.brundhavanam.config.jwt.JwtUtil;
+import com.brundhavanam.user.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Builds the request principal from verified JWT claims.
+ *
+ * - Tokens issued with "uid" + "role" claims are checked against the users table
+ *   at most once per user per auth.principal-cache.verify-ttl-seconds: the cached
+ *   row gives the current role, and a deleted (or unknown) user resolves to null;
+ *   that miss is cached for the same TTL, so replayed tokens of a deleted user
+ *   do not reach the DB on every request
+ * - Older tokens (subject only) fall back to a mobile → user lookup,
+ *   cached for auth.principal-cache.ttl-seconds
+ *
+ * Deleting a user through UserService evicts both caches, so it takes effect
+ * immediately on this instance. Changes made elsewhere (other instances, direct
+ * DB edits, role changes) are seen once the cached entry expires.
+ */
+@Component
+public class AuthenticatedUserResolver {
+
+    private final UserRepository userRepository;
+
+    // user id → principal as stored in the DB (claim tokens); empty when no such user
+    private final BoundedTtlCache<Long, Optional<AuthenticatedUser>> byId;
+
+    // mobile → principal (fallback path only)
+    private final BoundedTtlCache<String, AuthenticatedUser> byMobile;
+
+    public AuthenticatedUserResolver(
+            UserRepository userRepository,
+            @Value("${auth.principal-cache.max-entries:10000}") int maxEntries,
+            @Value("${auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${auth.principal-cache.verify-ttl-seconds:30}") long verifyTtlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.byId = new BoundedTtlCache<>(maxEntries, verifyTtlSeconds * 1000);
+        this.byMobile = new BoundedTtlCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    /**
+     * @return principal for the token, or null if the user no longer exists
+     */
+    public AuthenticatedUser resolve(Claims claims) {
+
+        String mobile = claims.getSubject();
+        if (mobile == null) {
+            return null;
+        }
+
+        Object uid = claims.get(JwtUtil.CLAIM_USER_ID);
+        String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+
+        if (uid instanceof Number id && role != null) {
+            // Role comes from the DB row, not the claim, so a demotion applies within the TTL
+            return byId.getOrLoad(id.longValue(), () -> userRepository.findById(id.longValue())
+                    .map(u -> new AuthenticatedUser(u.getId(), u.getMobile(), u.getRole())))
+                    .orElse(null);
+        }
+
+        return byMobile.getOrLoad(mobile, () -> userRepository.findByMobile(mobile)
+                .map(u -> new AuthenticatedUser(u.getId(), u.getMobile(), u.getRole()))
+                .orElse(null));
+    }
+
+    /**
+     * Drops cached principals of a user (e.g. after the user is deleted).
+     */
+    public void evict(Long userId) {
+        byId.invalidate(userId);
+        byMobile.invalidateIf((mobile, principal) -> principal.id().equals(userId));
+    }
+}
@@ -1,35 +1,41 @@
 package com.brundhavanam.config.security;
 
 import com.brundhavanam.config.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
 
 /**
  * JWT Authorization Filter
  *
  * Runs on every request.
  * - Reads JWT token from Authorization header (Bearer token)
- * - Validates token
- * - Extracts user identity (mobile)
+ * - Validates token and extracts user identity (mobile) in a single parse
+ *   (JwtUtil caches recently verified tokens)
+ * - Resolves a lightweight principal (id, mobile, role) once, so services
+ *   never look the user up again (see AuthenticatedUser.current())
  * - Sets authenticated user into Spring SecurityContext
  */
 @Component
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final AuthenticatedUserResolver userResolver;
 
-    public JwtAuthorizationFilter(JwtUtil jwtUtil) {
+    public JwtAuthorizationFilter(JwtUtil jwtUtil, AuthenticatedUserResolver userResolver) {
         this.jwtUtil = jwtUtil;
+        this.userResolver = userResolver;
     }
 
     @Override
@@ -48,18 +54,22 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
             // Extract token string (remove "Bearer ")
             String token = header.substring(7);
 
-            // Validate token (signature + expiry)
-            if (jwtUtil.validateToken(token)) {
+            // Validate token (signature + expiry) and read its claims in one pass
+            Claims claims = jwtUtil.parseToken(token);
 
-                // Extract user identity (mobile number) from token subject
-                String mobile = jwtUtil.extractSubject(token);
+            // Resolve principal from claims ("uid"/"role"), falling back to a cached lookup by mobile
+            AuthenticatedUser principal = claims != null ? userResolver.resolve(claims) : null;
+
+            if (principal != null) {
 
                 // Create Authentication object for Spring Security
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                mobile,                  // principal (logged-in user)
+                                principal,               // principal (logged-in user)
                                 null,                    // no password required
-                                Collections.emptyList()  // authorities/roles can be added later
+                                principal.role() == null
+                                        ? List.of()
+                                        : List.of(new SimpleGrantedAuthority(principal.role().name()))
                         );
 
                 // Attach additional request details (IP, session, etc.)
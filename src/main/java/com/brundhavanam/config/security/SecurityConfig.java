@@ -1,7 +1,11 @@
 package com.brundhavanam.config.security;
 
+import com.brundhavanam.common.idempotency.IdempotencyFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,8 +17,12 @@ public class SecurityConfig {
     // Custom JWT filter that validates token on every request
     private final JwtAuthorizationFilter jwtAuthorizationFilter;
 
-    public SecurityConfig(JwtAuthorizationFilter jwtAuthorizationFilter) {
+    // Idempotency-Key replay; needs the authenticated user, so it runs after the JWT filter
+    private final IdempotencyFilter idempotencyFilter;
+
+    public SecurityConfig(JwtAuthorizationFilter jwtAuthorizationFilter, IdempotencyFilter idempotencyFilter) {
         this.jwtAuthorizationFilter = jwtAuthorizationFilter;
+        this.idempotencyFilter = idempotencyFilter;
     }
 
     @Bean
@@ -26,17 +34,27 @@ public class SecurityConfig {
 
             // Authorization rules: allow public endpoints, protect others
             .authorizeHttpRequests(auth -> auth
+                // Async controller results (CompletableFuture) were authorized on the original dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                // Moves money: ADMIN only, even while the rest of /api/v1/admin is open
+                .requestMatchers(HttpMethod.POST, "/api/v1/admin/payments/*/refund").hasAuthority("ADMIN")
+
                 .requestMatchers(
                     "/api/v1/users/otp/**",   // OTP APIs should be public
                     "/api/v1/users/**",          // user creation (temporary public)
 
                     "/api/v1/products/**",    // temporary public for development
+                    "/api/v1/images/**",      // product images (image.storage=local)
                     "/api/v1/admin/**",       // temp (later secure with ADMIN role)
 
                     "/swagger-ui/**",         // Swagger UI public
                     "/v3/api-docs/**",         // Swagger docs public
                     "/swagger-ui.html",
-                    "/api/v1/auth/**"
+                    "/api/v1/auth/**",
+
+                    "/api/v1/payments/webhook/**", // provider webhooks (HMAC-signed, no JWT)
+                    "/sim/razorpay/**"             // local gateway simulator (only when enabled)
                 ).permitAll()
                 
                 // 🔒 Admin APIs (PROTECTED)
@@ -50,11 +68,20 @@ public class SecurityConfig {
             .addFilterBefore(
                 jwtAuthorizationFilter,
                 org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class
-            );
+            )
+            .addFilterAfter(idempotencyFilter, JwtAuthorizationFilter.class);
 
         return http.build();
     }
 
+    // Only inside the security chain (a plain servlet registration would run before authentication)
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration(IdempotencyFilter filter) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     // Bean used for hashing passwords (BCrypt is secure and industry standard)
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -0,0 +1,33 @@
+package com.brundhavanam.diagnostics.controller;
+
+import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.diagnostics.dto.PinningReport;
+import com.brundhavanam.diagnostics.pinning.VirtualThreadPinningMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * AdminDiagnosticsController
+ *
+ * Runtime diagnostics for operators.
+ * Base URL: /api/v1/admin/diagnostics
+ */
+@RestController
+@RequestMapping("/api/v1/admin/diagnostics")
+@RequiredArgsConstructor
+public class AdminDiagnosticsController {
+
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    /**
+     * Virtual thread carrier pinning recorded since startup (most frequent sites first).
+     * Endpoint: GET /api/v1/admin/diagnostics/virtual-threads
+     */
+    @GetMapping("/virtual-threads")
+    public ResponseEntity<ApiResponse<PinningReport>> virtualThreads() {
+        return ResponseEntity.ok(ApiResponse.success(pinningMonitor.report()));
+    }
+}
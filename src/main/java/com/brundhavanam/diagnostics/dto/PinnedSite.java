@@ -0,0 +1,13 @@
+package com.brundhavanam.diagnostics.dto;
+
+/**
+ * Code location where virtual threads were pinned to their carrier.
+ *
+ * @param stack innermost application / driver frames, innermost first
+ */
+public record PinnedSite(
+        String stack,
+        long count,
+        long totalMillis,
+        long maxMillis
+) {}
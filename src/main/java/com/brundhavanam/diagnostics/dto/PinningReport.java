@@ -0,0 +1,21 @@
+package com.brundhavanam.diagnostics.dto;
+
+import java.util.List;
+
+/**
+ * Carrier-thread pinning recorded since startup.
+ *
+ * - monitoring   : false when diagnostics.pinning.enabled=false or JFR is unavailable
+ * - thresholdMs  : shorter pins are not recorded
+ * - droppedSites : events whose site was not tracked (site table full); still in totals
+ * - sites        : most frequent sites first
+ */
+public record PinningReport(
+        boolean virtualThreadsEnabled,
+        boolean monitoring,
+        long thresholdMs,
+        long pinnedEvents,
+        long pinnedTotalMillis,
+        long droppedSites,
+        List<PinnedSite> sites
+) {}
@@ -0,0 +1,185 @@
+package com.brundhavanam.diagnostics.pinning;
+
+import com.brundhavanam.diagnostics.dto.PinnedSite;
+import com.brundhavanam.diagnostics.dto.PinningReport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records virtual threads pinned to their carrier thread.
+ *
+ * A virtual thread that blocks inside a synchronized block (or a native frame)
+ * cannot unmount, so it holds one of the few carrier threads for the whole wait;
+ * JDBC drivers and HTTP clients are the usual suspects. The JVM reports each such
+ * wait as a JFR jdk.VirtualThreadPinned event; this component streams those
+ * events in-process and aggregates them per call site.
+ *
+ * Memory is bounded: at most {@code MAX_SITES} distinct sites are tracked.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 200;
+    private static final int STACK_DEPTH = 6;
+    private static final int REPORT_SITES = 20;
+
+    private final boolean virtualThreadsEnabled;
+    private final boolean enabled;
+    private final Duration threshold;
+
+    private final ConcurrentHashMap<String, SiteCounter> sites = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder droppedSites = new LongAdder();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+            @Value("${diagnostics.pinning.enabled:false}") boolean enabled,
+            @Value("${diagnostics.pinning.threshold-ms:20}") long thresholdMs
+    ) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            rs.onEvent(PINNED_EVENT, this::record);
+            rs.startAsync();
+            stream = rs;
+            log.info("Recording virtual thread pinning (threshold {} ms)", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR disabled or unsupported in this runtime; the endpoint reports monitoring=false
+            log.warn("Virtual thread pinning monitor not started: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        RecordingStream rs = stream;
+        if (rs != null) {
+            stream = null;
+            rs.close();
+        }
+    }
+
+    public PinningReport report() {
+        List<PinnedSite> top = sites.entrySet().stream()
+                .map(e -> e.getValue().toSite(e.getKey()))
+                .sorted(Comparator.comparingLong(PinnedSite::count).reversed())
+                .limit(REPORT_SITES)
+                .toList();
+
+        return new PinningReport(
+                virtualThreadsEnabled,
+                stream != null,
+                threshold.toMillis(),
+                events.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()),
+                droppedSites.sum(),
+                top
+        );
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        events.increment();
+        totalNanos.add(nanos);
+
+        String site = describe(event.getStackTrace());
+        SiteCounter counter = sites.get(site);
+        if (counter == null) {
+            if (sites.size() >= MAX_SITES) {
+                droppedSites.increment();
+                return;
+            }
+            counter = sites.computeIfAbsent(site, s -> new SiteCounter());
+        }
+        counter.add(nanos);
+    }
+
+    // Innermost frames below the JDK's own parking / locking machinery
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack trace)";
+        }
+        StringBuilder site = new StringBuilder();
+        int kept = 0;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (kept == 0 && isJdkInternal(type)) {
+                continue;
+            }
+            if (kept > 0) {
+                site.append(" <- ");
+            }
+            site.append(type).append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber());
+            if (++kept == STACK_DEPTH) {
+                break;
+            }
+        }
+        return kept == 0 ? "(jdk internal)" : site.toString();
+    }
+
+    private static boolean isJdkInternal(String type) {
+        return type.startsWith("java.lang.VirtualThread")
+                || type.startsWith("java.lang.Thread")
+                || type.startsWith("java.util.concurrent.locks.")
+                || type.startsWith("jdk.internal.")
+                || type.startsWith("sun.nio.ch.");
+    }
+
+    private static final class SiteCounter {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long n) {
+            count.increment();
+            nanos.add(n);
+            maxNanos.accumulateAndGet(n, Math::max);
+        }
+
+        PinnedSite toSite(String stack) {
+            return new PinnedSite(
+                    stack,
+                    count.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos.sum()),
+                    TimeUnit.NANOSECONDS.toMillis(maxNanos.get())
+            );
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.brundhavanam.order.entity;
 
 import com.brundhavanam.common.enums.OrderStatus;
+import com.brundhavanam.common.id.TimeOrderedId;
 import com.brundhavanam.user.entity.User;
 import jakarta.persistence.*;
 import lombok.*;
@@ -10,7 +11,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(
+        name = "orders",
+        indexes = {
+                // Stock reconciler: confirmed orders whose stock is not yet deducted
+                @Index(name = "idx_orders_stock_pending", columnList = "stock_deducted,status"),
+                // Reservation rebuild on startup: open (CREATED) orders
+                @Index(name = "idx_orders_status_created", columnList = "status,created_at")
+        }
+)
 @Getter
 @Setter
 @Builder
@@ -18,8 +27,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Order {
 
+    // App-assigned, time-ordered id (see TimeOrderedIds)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,6 +47,12 @@ public class Order {
     @Builder.Default
     private Boolean stockDeducted = false;
 
+    // Set when stock could not be deducted (e.g. stock lowered by an admin); StockReconciler skips it until then
+    private LocalDateTime stockRetryAt;
+
+    // Payment provider order this order is paid against (set on first payment attempt)
+    private String gatewayOrderId;
+
     // 📍 Address snapshot (text + GPS)
 
     private String fullName;
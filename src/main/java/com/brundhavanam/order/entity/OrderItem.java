@@ -1,5 +1,6 @@
 package com.brundhavanam.order.entity;
 
+import com.brundhavanam.common.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -11,7 +12,12 @@ import java.math.BigDecimal;
 */
 
 @Entity
-@Table(name = "order_items")
+@Table(
+        name = "order_items",
+        indexes = {
+                @Index(name = "idx_order_items_variant", columnList = "product_variant_id")
+        }
+)
 @Getter
 @Setter
 @Builder
@@ -19,8 +25,9 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderItem {
 
+    // App-assigned, time-ordered id (no INSERT needed to learn it, so inserts batch)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -2,11 +2,20 @@ package com.brundhavanam.order.repository;
 
 import com.brundhavanam.order.entity.OrderItem;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 	
 	List<OrderItem> findByOrderId(Long orderId);
+
+	List<OrderItem> findByOrderIdIn(Collection<Long> orderIds);
+
+	// Lines of orders still holding a reservation. Rows: [orderId, createdAt, variantId, quantity]
+	@Query("SELECT oi.order.id, oi.order.createdAt, oi.productVariantId, oi.quantity FROM OrderItem oi "
+			+ "WHERE oi.order.status = com.brundhavanam.common.enums.OrderStatus.CREATED")
+	List<Object[]> findOpenReservationLines();
 }
@@ -1,7 +1,51 @@
 package com.brundhavanam.order.repository;
 
 import com.brundhavanam.order.entity.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // Serializes confirm / cancel / reconcile on one order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Orders past checkout whose stock has not been deducted yet (oldest first),
+     * except those parked until a later retry. Rows locked by a concurrent confirm / cancel are skipped, not waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("SELECT o FROM Order o WHERE o.stockDeducted = false "
+            + "AND o.status NOT IN (com.brundhavanam.common.enums.OrderStatus.CREATED, "
+            + "com.brundhavanam.common.enums.OrderStatus.CANCELLED) "
+            + "AND (o.stockRetryAt IS NULL OR o.stockRetryAt <= :now) "
+            + "ORDER BY o.id")
+    List<Order> findPendingStockDeductions(@Param("now") LocalDateTime now, Limit limit);
+
+    // Expired reservations: cancel only orders nobody confirmed meanwhile
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.brundhavanam.common.enums.OrderStatus.CANCELLED "
+            + "WHERE o.id IN :ids AND o.status = com.brundhavanam.common.enums.OrderStatus.CREATED")
+    int cancelCreated(@Param("ids") Collection<Long> ids);
+
+    // First gateway order wins when two payment attempts race
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.gatewayOrderId = :gatewayOrderId WHERE o.id = :id AND o.gatewayOrderId IS NULL")
+    int setGatewayOrderId(@Param("id") Long id, @Param("gatewayOrderId") String gatewayOrderId);
 }
@@ -1,30 +1,41 @@
 package com.brundhavanam.order.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.brundhavanam.address.entity.Address;
 import com.brundhavanam.address.repository.AddressRepository;
 import com.brundhavanam.cart.entity.Cart;
-import com.brundhavanam.cart.entity.CartItem;
+import com.brundhavanam.cart.dto.CartLineView;
+import com.brundhavanam.cart.memory.MemoryCartStore;
 import com.brundhavanam.cart.repository.CartItemRepository;
 import com.brundhavanam.cart.repository.CartRepository;
 import com.brundhavanam.common.enums.CartStatus;
 import com.brundhavanam.common.enums.OrderStatus;
 import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.config.security.AuthenticatedUser;
 import com.brundhavanam.order.entity.Order;
 import com.brundhavanam.order.entity.OrderItem;
 import com.brundhavanam.order.repository.OrderItemRepository;
 import com.brundhavanam.order.repository.OrderRepository;
 import com.brundhavanam.order.service.OrderService;
-import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.inventory.InventoryReservationEngine;
 import com.brundhavanam.product.repository.ProductVariantRepository;
-import com.brundhavanam.user.entity.User;
 import com.brundhavanam.user.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -41,32 +52,42 @@ public class OrderServiceImpl implements OrderService {
 	private final OrderItemRepository orderItemRepository;
 	private final ProductVariantRepository variantRepository;
 	private final UserRepository userRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectProvider<MemoryCartStore> memoryCartStore; // present only with cart.mode=memory
+	private final InventoryReservationEngine inventory;
 
 	// ================= CHECKOUT =================
-	// ONLY creates order + snapshots (NO STOCK DEDUCTION)
+	// Creates order + snapshots and reserves stock in memory (NO STOCK DEDUCTION)
 
 	@Override
 	public Long checkout(Long addressId) {
 
-		User user = getLoggedInUser();
+		Long userId = AuthenticatedUser.current().id();
 
-		Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+		// In-memory carts are written to MySQL (same transaction) before the order is built
+		MemoryCartStore memoryCarts = memoryCartStore.getIfAvailable();
+		if (memoryCarts != null) {
+			memoryCarts.flushForCheckout(userId);
+		}
+
+		Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
 				.orElseThrow(() -> new ResourceNotFoundException("Cart is empty"));
 
-		List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
+		// Lines with variant + product details in one query (no per-line proxy loads)
+		List<CartLineView> items = cartItemRepository.findLinesByCartId(cart.getId());
 
 		if (items.isEmpty()) {
 			throw new ResourceNotFoundException("No items in cart");
 		}
 
 		BigDecimal totalAmount = items.stream()
-				.map(i -> i.getVariant().getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
+				.map(CartLineView::itemTotal)
 				.reduce(BigDecimal.ZERO, BigDecimal::add);
 
 		Address address = addressRepository.findById(addressId)
 				.orElseThrow(() -> new ResourceNotFoundException("Address not found"));
 
-		Order order = Order.builder().user(user).totalAmount(totalAmount).status(OrderStatus.CREATED)
+		Order order = Order.builder().user(userRepository.getReferenceById(userId)).totalAmount(totalAmount).status(OrderStatus.CREATED)
 
 				.fullName(address.getFullName()).mobile(address.getMobile()).street(address.getStreet())
 				.area(address.getArea()).city(address.getCity()).state(address.getState()).pincode(address.getPincode())
@@ -75,17 +96,26 @@ public class OrderServiceImpl implements OrderService {
 
 		orderRepository.save(order);
 
-		for (CartItem item : items) {
-
-			ProductVariant variant = item.getVariant();
+		// One batched INSERT for all lines (@TimeOrderedId ids, hibernate.jdbc.batch_size)
+		List<OrderItem> orderItems = new ArrayList<>(items.size());
+		for (CartLineView item : items) {
 
-			OrderItem orderItem = OrderItem.builder().order(order).productVariantId(variant.getId())
-					.productName(variant.getProduct().getName()).variantLabel(variant.getLabel())
-					.unitPrice(variant.getPrice()).quantity(item.getQuantity())
-					.itemTotal(variant.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))).build();
-
-			orderItemRepository.save(orderItem);
+			orderItems.add(OrderItem.builder().order(order).productVariantId(item.variantId())
+					.productName(item.productName()).variantLabel(item.variantLabel())
+					.unitPrice(item.unitPrice()).quantity(item.quantity())
+					.itemTotal(item.itemTotal()).build());
+		}
+		orderItemRepository.saveAll(orderItems);
+
+		// Time-limited hold; released on cancel, expiry or if this transaction rolls back
+		SortedMap<Long, Integer> quantities = new TreeMap<>();
+		Map<Long, String> labels = new HashMap<>();
+		for (CartLineView item : items) {
+			quantities.merge(item.variantId(), item.quantity(), Integer::sum);
+			labels.put(item.variantId(), item.variantLabel());
 		}
+		inventory.reserve(order.getId(), quantities, labels);
+		afterRollback(() -> inventory.release(order.getId()));
 
 		cart.setStatus(CartStatus.CHECKED_OUT);
 		cartRepository.save(cart);
@@ -94,38 +124,38 @@ public class OrderServiceImpl implements OrderService {
 	}
 
 	// ================= CONFIRM ORDER =================
-	// SINGLE SOURCE OF TRUTH FOR STOCK
+	// Turns the reservation into a pending deduction; StockReconciler deducts the stock column in batches
 
 	@Override
 	public void confirmOrder(Long orderId) {
 
-		Order order = orderRepository.findById(orderId)
+		Order order = orderRepository.findByIdForUpdate(orderId)
 				.orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-		if (Boolean.TRUE.equals(order.getStockDeducted())) {
+		if (Boolean.TRUE.equals(order.getStockDeducted()) || order.getStatus() == OrderStatus.CONFIRMED) {
 		    return; // HARD SAFETY GUARD
 		}
-		
-		order.setStockDeducted(true);
-		order.setStatus(OrderStatus.CONFIRMED);
-
-		List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
-
-		for (OrderItem item : items) {
 
-			ProductVariant variant = variantRepository.findByIdForUpdate(item.getProductVariantId())
-					.orElseThrow(() -> new ResourceNotFoundException("Variant not found"));
+		if (order.getStatus() == OrderStatus.CANCELLED) {
+			throw new BadRequestException("Cancelled order cannot be confirmed");
+		}
 
-			if (variant.getStock() < item.getQuantity()) {
-				throw new BadRequestException("Insufficient stock for " + item.getVariantLabel());
-			}
+		List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
+		SortedMap<Long, Integer> quantities = quantitiesByVariant(items);
 
-			variant.setStock(variant.getStock() - item.getQuantity());
-			variantRepository.save(variant);
+		// Hold just expired (sweeper has not cancelled the order yet) or was not rebuilt: reserve again, all or nothing
+		if (!inventory.hasReservation(orderId)) {
+			inventory.reserve(orderId, quantities, labelsByVariant(items));
+			afterRollback(() -> inventory.release(orderId));
 		}
 
+		// stockDeducted stays false until the reconciler applies the deduction
 		order.setStatus(OrderStatus.CONFIRMED);
 		orderRepository.save(order);
+
+		inventory.beginCommit(orderId);
+		afterRollback(() -> inventory.abortCommit(orderId));
+		afterCommit(() -> inventory.commit(orderId, quantities.keySet()));
 	}
 
 	// ================= CANCEL ORDER =================
@@ -134,7 +164,7 @@ public class OrderServiceImpl implements OrderService {
 	@Override
 	public void cancelOrder(Long orderId) {
 
-	    Order order = orderRepository.findById(orderId)
+	    Order order = orderRepository.findByIdForUpdate(orderId)
 	            .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
 	    // ✅ IDEMPOTENT GUARD
@@ -148,33 +178,79 @@ public class OrderServiceImpl implements OrderService {
 	        throw new BadRequestException("Order cannot be cancelled at this stage");
 	    }
 
+	    SortedMap<Long, Integer> quantities = quantitiesByVariant(orderItemRepository.findByOrderId(orderId));
+
 	    // ✅ RESTORE STOCK ONLY IF DEDUCTED
+	    // (a confirmed order still pending deduction simply stops counting once CANCELLED)
 	    if (Boolean.TRUE.equals(order.getStockDeducted())) {
 
-	        List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
-
-	        for (OrderItem item : items) {
-
-	            ProductVariant variant = variantRepository
-	                    .findByIdForUpdate(item.getProductVariantId())
-	                    .orElseThrow(() -> new ResourceNotFoundException("Variant not found"));
-
-	            variant.setStock(variant.getStock() + item.getQuantity());
-	            variantRepository.save(variant);
+	        // Canonical (ascending id) order, same as the reconciler
+	        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+	            if (variantRepository.restoreStock(line.getKey(), line.getValue()) == 0) {
+	                throw new ResourceNotFoundException("Variant not found");
+	            }
 	        }
 
+	        publishStockChanged(quantities.keySet());
+
 	        order.setStockDeducted(false); // optional but clean
 	    }
 
 	    order.setStatus(OrderStatus.CANCELLED);
 	    orderRepository.save(order);
+
+	    afterCommit(() -> {
+	        inventory.release(orderId);
+	        inventory.refresh(quantities.keySet());
+	    });
 	}
 
 
-	private User getLoggedInUser() {
-		String mobile = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
+	// Order lines aggregated per variant, sorted by variant id (lock order)
+	private SortedMap<Long, Integer> quantitiesByVariant(List<OrderItem> items) {
+		SortedMap<Long, Integer> quantities = new TreeMap<>();
+		for (OrderItem item : items) {
+			quantities.merge(item.getProductVariantId(), item.getQuantity(), Integer::sum);
+		}
+		return quantities;
+	}
+
+	private Map<Long, String> labelsByVariant(List<OrderItem> items) {
+		Map<Long, String> labels = new HashMap<>();
+		for (OrderItem item : items) {
+			labels.putIfAbsent(item.getProductVariantId(), item.getVariantLabel());
+		}
+		return labels;
+	}
 
-		return userRepository.findByMobile(mobile).orElseThrow(() -> new ResourceNotFoundException("User not found"));
+	private void afterCommit(Runnable action) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private void afterRollback(Runnable action) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_ROLLED_BACK) {
+					action.run();
+				}
+			}
+		});
+	}
+
+	// Catalog cache drops only the affected products once the stock change commits
+	private void publishStockChanged(Set<Long> variantIds) {
+		if (variantIds.isEmpty()) {
+			return;
+		}
+		for (Long productId : variantRepository.findProductIdsByIdIn(variantIds)) {
+			eventPublisher.publishEvent(CatalogChangedEvent.of(productId, CatalogChangedEvent.Type.STOCK_CHANGED));
+		}
 	}
 }
 
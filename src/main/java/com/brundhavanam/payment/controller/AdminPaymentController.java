@@ -0,0 +1,31 @@
+package com.brundhavanam.payment.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.payment.gateway.PaymentGateway.GatewayRefund;
+import com.brundhavanam.payment.service.PaymentService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/admin/payments")
+@RequiredArgsConstructor
+public class AdminPaymentController {
+
+    private final PaymentService paymentService;
+
+    // Full refund of a captured gateway payment
+    //POST "http://localhost:8080/api/v1/admin/payments/5/refund"
+    @PostMapping("/{paymentId}/refund")
+    public CompletableFuture<ResponseEntity<ApiResponse<GatewayRefund>>> refund(@PathVariable Long paymentId) {
+        return paymentService.refund(paymentId)
+                .thenApply(refund -> ResponseEntity.ok(ApiResponse.success(refund)));
+    }
+}
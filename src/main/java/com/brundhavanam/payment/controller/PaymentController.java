@@ -1,13 +1,19 @@
 package com.brundhavanam.payment.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.brundhavanam.common.enums.PaymentMethod;
+import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.payment.gateway.PaymentGateway.GatewayOrder;
 import com.brundhavanam.payment.service.PaymentService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,21 +28,40 @@ public class PaymentController {
     
     //POST "http://localhost:8080/api/v1/payments/success/101?method=UPI"
     
+    // 202: the payment is queued; the order is confirmed shortly after by PaymentOutboxWorker
     @PostMapping("/success/{orderId}")
     public ResponseEntity<Void> success(
             @PathVariable Long orderId,
             @RequestParam PaymentMethod method
     ) {
         paymentService.simulateSuccess(orderId, method);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.accepted().build();
     }
     
+    // Gateway order to open the payment form with (async: no request thread waits on the gateway)
+    //POST "http://localhost:8080/api/v1/payments/orders/101"
+    @PostMapping("/orders/{orderId}")
+    public CompletableFuture<ResponseEntity<ApiResponse<GatewayOrder>>> createGatewayOrder(@PathVariable Long orderId) {
+        return paymentService.createGatewayOrder(orderId)
+                .thenApply(order -> ResponseEntity.ok(ApiResponse.success(order)));
+    }
+
+    // Razorpay webhook (public; authenticated by the HMAC signature over the raw body)
+    @PostMapping("/webhook/razorpay")
+    public ResponseEntity<Void> razorpayWebhook(
+            @RequestBody byte[] payload,
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature
+    ) {
+        paymentService.acceptWebhook(payload, signature);
+        return ResponseEntity.ok().build();
+    }
+
   //QUICK FLOW====
     //
     //Payment success
-    //→ fetch Order
-    //→ save Payment
+    //→ write payment_outbox row (deduped by idempotency key), respond 202
+    //→ worker: save Payment
     //→ confirm Order
-    //→ deduct stock
+    //→ deduct stock (StockReconciler)
 }
 
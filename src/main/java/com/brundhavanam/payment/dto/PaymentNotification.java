@@ -0,0 +1,18 @@
+package com.brundhavanam.payment.dto;
+
+import com.brundhavanam.common.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * A "payment succeeded" notification (gateway webhook or simulator).
+ * idempotencyKey identifies the payment: redeliveries carry the same key.
+ * amount is the captured amount, or null if the source does not report one (simulator).
+ */
+public record PaymentNotification(
+        Long orderId,
+        PaymentMethod method,
+        String idempotencyKey,
+        String transactionId,
+        BigDecimal amount
+) {}
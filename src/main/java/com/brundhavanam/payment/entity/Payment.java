@@ -2,6 +2,7 @@ package com.brundhavanam.payment.entity;
 
 import com.brundhavanam.common.enums.PaymentMethod;
 import com.brundhavanam.common.enums.PaymentStatus;
+import com.brundhavanam.common.id.TimeOrderedId;
 import com.brundhavanam.order.entity.Order;
 import jakarta.persistence.*;
 import lombok.*;
@@ -17,8 +18,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Payment {
 
+    // App-assigned, time-ordered id (see TimeOrderedIds)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @ManyToOne
@@ -28,6 +30,7 @@ public class Payment {
     private PaymentMethod method;
 
 
+    // REFUNDED was added later: ddl-auto=update does not widen an existing MySQL ENUM column
     @Enumerated(EnumType.STRING)
     private PaymentStatus status;
     
@@ -38,5 +41,9 @@ public class Payment {
     @Column(unique = true, nullable = false)
     private String paymentIdempotencyKey;
 
+    // Money was captured but the order could not be confirmed with it (cancelled, out of stock, wrong amount)
+    @Builder.Default
+    private Boolean refundRequired = false;
+
 
 }
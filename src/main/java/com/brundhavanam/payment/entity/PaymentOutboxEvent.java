@@ -0,0 +1,74 @@
+package com.brundhavanam.payment.entity;
+
+import com.brundhavanam.common.enums.PaymentEventStatus;
+import com.brundhavanam.common.enums.PaymentMethod;
+import com.brundhavanam.common.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/*
+ Payment notification accepted but not yet applied.
+ Written in the request, processed by PaymentOutboxWorker.
+*/
+
+@Entity
+@Table(
+        name = "payment_outbox",
+        uniqueConstraints = {
+                // Redelivered notifications are dropped on insert
+                @UniqueConstraint(name = "uk_payment_outbox_key", columnNames = "idempotency_key")
+        },
+        indexes = {
+                // Worker poll: due PENDING events
+                @Index(name = "idx_payment_outbox_due", columnList = "status,next_attempt_at")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentOutboxEvent {
+
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod method;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    private String transactionId;
+
+    // Captured amount reported by the gateway; null if not reported (simulator)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentEventStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // Next processing attempt; also the lease end while a worker holds the event
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+}
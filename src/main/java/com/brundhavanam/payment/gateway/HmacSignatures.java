@@ -0,0 +1,61 @@
+package com.brundhavanam.payment.gateway;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 signatures in lowercase hex (Razorpay webhook format).
+ *
+ * - One initialized Mac per thread: no Mac.getInstance / key setup per call,
+ *   and no lock between request threads
+ * - verify() compares with MessageDigest.isEqual, whose running time does not
+ *   depend on where the first mismatching byte is
+ */
+public final class HmacSignatures {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> mac;
+
+    public HmacSignatures(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("HMAC secret must not be empty");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    public String sign(byte[] payload) {
+        return HexFormat.of().formatHex(digest(payload));
+    }
+
+    public boolean verify(byte[] payload, String signatureHex) {
+        if (payload == null || signatureHex == null || signatureHex.length() != 64) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(signatureHex);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(digest(payload), expected);
+    }
+
+    // doFinal() resets the Mac, so the thread's instance is ready for the next call
+    private byte[] digest(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+}
@@ -0,0 +1,89 @@
+package com.brundhavanam.payment.gateway;
+
+import com.brundhavanam.common.enums.PaymentMethod;
+import com.brundhavanam.payment.dto.PaymentNotification;
+import com.brundhavanam.payment.service.PaymentService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a payment gateway (tests / load runs, no network).
+ *
+ * Like a real gateway it delivers "payment captured" webhooks at least once:
+ * replayStorm() sends every notification several times, shuffled and from many
+ * threads at once, straight into {@link PaymentService#accept}.
+ */
+public class LocalPaymentGateway {
+
+    private final PaymentService paymentService;
+
+    public LocalPaymentGateway(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    /**
+     * One captured payment for an order, with a gateway-style id as idempotency key.
+     */
+    public PaymentNotification capture(Long orderId, PaymentMethod method) {
+        String paymentId = "pay_local_" + UUID.randomUUID().toString().replace("-", "");
+        return new PaymentNotification(orderId, method, paymentId, paymentId, null);
+    }
+
+    /**
+     * Captures one payment per order and delivers each webhook {@code deliveries} times.
+     */
+    public StormResult replayStorm(List<Long> orderIds, int deliveries, int threads) throws InterruptedException {
+
+        List<PaymentNotification> webhooks = new ArrayList<>(orderIds.size() * deliveries);
+        for (Long orderId : orderIds) {
+            PaymentNotification payment = capture(orderId, PaymentMethod.UPI);
+            for (int i = 0; i < deliveries; i++) {
+                webhooks.add(payment);
+            }
+        }
+        Collections.shuffle(webhooks);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (PaymentNotification webhook : webhooks) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        if (paymentService.accept(webhook)) {
+                            accepted.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(60, TimeUnit.SECONDS);
+        }
+
+        int delivered = webhooks.size();
+        return new StormResult(delivered, accepted.get(), delivered - accepted.get() - failed.get(), failed.get());
+    }
+
+    /**
+     * @param duplicates deliveries rejected as already accepted
+     * @param failed     deliveries that threw (a real gateway would redeliver them)
+     */
+    public record StormResult(int delivered, int accepted, int duplicates, int failed) {}
+}
@@ -0,0 +1,45 @@
+package com.brundhavanam.payment.gateway;
+
+import com.brundhavanam.payment.dto.PaymentNotification;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Payment provider operations used by the payment module.
+ *
+ * Calls that go over the network return futures and never block the caller;
+ * failures complete the future with {@link PaymentGatewayException}.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Creates the provider-side order a customer pays against.
+     *
+     * @param receipt our order id
+     */
+    CompletableFuture<GatewayOrder> createOrder(Long receipt, BigDecimal amount, String currency);
+
+    /**
+     * Refunds (part of) a captured payment.
+     */
+    CompletableFuture<GatewayRefund> refund(String gatewayPaymentId, BigDecimal amount);
+
+    /**
+     * @param signature signature header sent with the webhook
+     * @return true only if the payload was signed with our webhook secret
+     */
+    boolean verifyWebhook(byte[] payload, String signature);
+
+    /**
+     * Reads a verified webhook payload.
+     *
+     * @return the captured payment, or empty for events we do not act on
+     */
+    Optional<PaymentNotification> parseCapturedPayment(byte[] payload);
+
+    record GatewayOrder(String id, BigDecimal amount, String currency, String receipt, String status) {}
+
+    record GatewayRefund(String id, String paymentId, BigDecimal amount, String status) {}
+}
@@ -0,0 +1,32 @@
+package com.brundhavanam.payment.gateway;
+
+/**
+ * The payment provider could not be reached or rejected a request.
+ * retryable is true for timeouts, throttling and 5xx responses.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private final int status;
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, int status, boolean retryable) {
+        super(message);
+        this.status = status;
+        this.retryable = retryable;
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+        this.retryable = true;
+    }
+
+    // HTTP status from the provider (0 when no response was received)
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
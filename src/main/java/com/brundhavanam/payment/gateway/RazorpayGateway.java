@@ -1,5 +1,236 @@
 package com.brundhavanam.payment.gateway;
 
-public class RazorpayGateway {
+import com.brundhavanam.common.enums.PaymentMethod;
+import com.brundhavanam.payment.dto.PaymentNotification;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Razorpay REST client (orders, refunds) and webhook verification.
+ *
+ * - One shared java.net.http.HttpClient: keep-alive connections are pooled and
+ *   reused, requests are sent asynchronously (no request thread waits on the network)
+ * - In-flight requests are capped; beyond the cap calls fail fast as retryable
+ * - Point payment.razorpay.base-url at the in-process simulator for local load tests
+ *
+ * Amounts are sent in paise, as the API expects.
+ */
+@Slf4j
+@Component
+public class RazorpayGateway implements PaymentGateway {
+
+    private final HttpClient httpClient;
+    private final ExecutorService callbackExecutor;
+    private final ObjectMapper objectMapper;
+    private final Semaphore inFlight;
+
+    private final String baseUrl;
+    private final String authorization;
+    private final Duration requestTimeout;
+    private final HmacSignatures webhookSignatures; // null when no webhook secret is configured
+
+    public RazorpayGateway(
+            ObjectMapper objectMapper,
+            @Value("${payment.razorpay.base-url:https://api.razorpay.com}") String baseUrl,
+            @Value("${payment.razorpay.key-id:}") String keyId,
+            @Value("${payment.razorpay.key-secret:}") String keySecret,
+            @Value("${payment.razorpay.webhook-secret:}") String webhookSecret,
+            @Value("${payment.razorpay.connect-timeout-ms:2000}") long connectTimeoutMillis,
+            @Value("${payment.razorpay.request-timeout-ms:10000}") long requestTimeoutMillis,
+            @Value("${payment.razorpay.max-in-flight:64}") int maxInFlight
+    ) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.authorization = keyId.isBlank() ? null : "Basic " + Base64.getEncoder()
+                .encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.webhookSignatures = webhookSecret.isBlank() ? null : new HmacSignatures(webhookSecret);
+
+        // Response parsing runs here, not on the common fork-join pool
+        AtomicInteger threadNo = new AtomicInteger();
+        this.callbackExecutor = Executors.newFixedThreadPool(4, task -> {
+            Thread thread = new Thread(task, "razorpay-http-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(callbackExecutor)
+                .build();
+
+        if (webhookSignatures == null) {
+            log.warn("payment.razorpay.webhook-secret is not set; all webhooks will be rejected");
+        }
+    }
+
+    @Override
+    public CompletableFuture<GatewayOrder> createOrder(Long receipt, BigDecimal amount, String currency) {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("amount", toPaise(amount));
+        body.put("currency", currency);
+        body.put("receipt", String.valueOf(receipt));
+        body.put("notes", Map.of("order_id", String.valueOf(receipt))); // copied onto the payment
+
+        return post("/v1/orders", body).thenApply(json -> new GatewayOrder(
+                json.path("id").asText(),
+                fromPaise(json.path("amount").asLong()),
+                json.path("currency").asText(),
+                json.path("receipt").asText(),
+                json.path("status").asText()
+        ));
+    }
+
+    @Override
+    public CompletableFuture<GatewayRefund> refund(String gatewayPaymentId, BigDecimal amount) {
+        return post("/v1/payments/" + gatewayPaymentId + "/refund", Map.of("amount", toPaise(amount)))
+                .thenApply(json -> new GatewayRefund(
+                        json.path("id").asText(),
+                        json.path("payment_id").asText(),
+                        fromPaise(json.path("amount").asLong()),
+                        json.path("status").asText()
+                ));
+    }
+
+    @Override
+    public boolean verifyWebhook(byte[] payload, String signature) {
+        return webhookSignatures != null && webhookSignatures.verify(payload, signature);
+    }
+
+    /**
+     * payment.captured -> notification keyed by the Razorpay payment id
+     * (the same id on every redelivery). Our order id travels in notes.order_id.
+     * The captured amount is passed on; PaymentOutboxWorker checks it against the order total.
+     */
+    @Override
+    public Optional<PaymentNotification> parseCapturedPayment(byte[] payload) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(payload);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (!"payment.captured".equals(event.path("event").asText())) {
+            return Optional.empty();
+        }
+
+        JsonNode payment = event.path("payload").path("payment").path("entity");
+        String paymentId = payment.path("id").asText(null);
+        String orderId = payment.path("notes").path("order_id").asText(null);
+        JsonNode amount = payment.path("amount");
+        if (paymentId == null || orderId == null || !amount.canConvertToLong()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new PaymentNotification(
+                    Long.valueOf(orderId),
+                    toMethod(payment.path("method").asText()),
+                    paymentId,
+                    paymentId,
+                    fromPaise(amount.asLong())
+            ));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        callbackExecutor.shutdown();
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private CompletableFuture<JsonNode> post(String path, Object body) {
+
+        if (authorization == null) {
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayException("Razorpay credentials are not configured", 0, false));
+        }
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayException("Too many in-flight gateway requests", 0, true));
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Authorization", authorization)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException | IllegalArgumentException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(new PaymentGatewayException("Invalid gateway request", e));
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> inFlight.release())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new PaymentGatewayException("Razorpay unreachable: " + error.getMessage(), error);
+                    }
+                    return read(path, response);
+                });
+    }
+
+    private JsonNode read(String path, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new PaymentGatewayException("Unreadable Razorpay response (" + status + ")", status, status >= 500);
+        }
+        if (status / 100 != 2) {
+            String description = json.path("error").path("description").asText("HTTP " + status);
+            boolean retryable = status == 429 || status >= 500;
+            throw new PaymentGatewayException("Razorpay " + path + " failed: " + description, status, retryable);
+        }
+        return json;
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static PaymentMethod toMethod(String method) {
+        return switch (method) {
+            case "upi" -> PaymentMethod.UPI;
+            case "card" -> PaymentMethod.CARD;
+            default -> PaymentMethod.ONLINE;
+        };
+    }
 }
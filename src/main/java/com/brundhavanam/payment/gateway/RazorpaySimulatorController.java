@@ -0,0 +1,236 @@
+package com.brundhavanam.payment.gateway;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process Razorpay stand-in (payment.simulator.enabled=true), for load-testing
+ * checkout -> payment on one machine.
+ *
+ * Serves the subset of the Razorpay HTTP contract RazorpayGateway uses, under
+ * /sim/razorpay (set payment.razorpay.base-url to it):
+ * - POST /v1/orders
+ * - POST /v1/payments/{id}/refund
+ * plus POST /v1/orders/{id}/pay, which plays the customer paying: the payment is
+ * captured and a signed payment.captured webhook is sent to payment.simulator.webhook-url
+ * (several times if webhook-deliveries > 1, like a provider retrying).
+ *
+ * Every call waits latency-ms +/- latency-jitter-ms (without holding a request
+ * thread) and fails with 503 at failure-rate.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/sim/razorpay")
+@ConditionalOnProperty(name = "payment.simulator.enabled", havingValue = "true")
+public class RazorpaySimulatorController {
+
+    private final ObjectMapper objectMapper;
+    private final HmacSignatures webhookSignatures;
+    private final HttpClient webhookClient = HttpClient.newHttpClient();
+    private final ExecutorService webhookExecutor = Executors.newFixedThreadPool(4);
+
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double failureRate;
+    private final int webhookDeliveries;
+    private final URI webhookUrl;
+
+    private final Map<String, JsonNode> orders = new ConcurrentHashMap<>();
+    private final Map<String, Long> capturedAmounts = new ConcurrentHashMap<>();
+
+    public RazorpaySimulatorController(
+            ObjectMapper objectMapper,
+            @Value("${payment.razorpay.webhook-secret}") String webhookSecret,
+            @Value("${payment.simulator.latency-ms:50}") long latencyMillis,
+            @Value("${payment.simulator.latency-jitter-ms:50}") long latencyJitterMillis,
+            @Value("${payment.simulator.failure-rate:0.0}") double failureRate,
+            @Value("${payment.simulator.webhook-deliveries:1}") int webhookDeliveries,
+            @Value("${payment.simulator.webhook-url}") String webhookUrl
+    ) {
+        this.objectMapper = objectMapper;
+        this.webhookSignatures = new HmacSignatures(webhookSecret);
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.failureRate = failureRate;
+        this.webhookDeliveries = webhookDeliveries;
+        this.webhookUrl = URI.create(webhookUrl);
+        log.warn("Razorpay simulator enabled (latency {}±{} ms, failure rate {})",
+                latencyMillis, latencyJitterMillis, failureRate);
+    }
+
+    @PostMapping("/v1/orders")
+    public CompletableFuture<ResponseEntity<Object>> createOrder(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody JsonNode request
+    ) {
+        return simulate(() -> {
+            if (authorization == null || !authorization.startsWith("Basic ")) {
+                return error(HttpStatus.UNAUTHORIZED, "Authentication failed");
+            }
+            if (request.path("amount").asLong() <= 0) {
+                return error(HttpStatus.BAD_REQUEST, "The amount must be at least INR 1.00");
+            }
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("id", "order_sim_" + shortId());
+            order.put("entity", "order");
+            order.put("amount", request.path("amount").asLong());
+            order.put("currency", request.path("currency").asText("INR"));
+            order.put("receipt", request.path("receipt").asText());
+            order.put("status", "created");
+            order.put("notes", request.path("notes"));
+            orders.put((String) order.get("id"), objectMapper.valueToTree(order));
+            return ResponseEntity.ok(order);
+        });
+    }
+
+    @PostMapping("/v1/payments/{paymentId}/refund")
+    public CompletableFuture<ResponseEntity<Object>> refund(
+            @PathVariable String paymentId,
+            @RequestBody JsonNode request
+    ) {
+        return simulate(() -> {
+            Long captured = capturedAmounts.get(paymentId);
+            if (captured == null) {
+                return error(HttpStatus.BAD_REQUEST, "The id provided does not exist");
+            }
+            long amount = request.path("amount").asLong(captured);
+            if (amount <= 0 || amount > captured) {
+                return error(HttpStatus.BAD_REQUEST, "The refund amount is invalid");
+            }
+            Map<String, Object> refund = new LinkedHashMap<>();
+            refund.put("id", "rfnd_sim_" + shortId());
+            refund.put("entity", "refund");
+            refund.put("payment_id", paymentId);
+            refund.put("amount", amount);
+            refund.put("status", "processed");
+            return ResponseEntity.ok(refund);
+        });
+    }
+
+    // Simulator only: the customer completes payment for a gateway order
+    @PostMapping("/v1/orders/{orderId}/pay")
+    public CompletableFuture<ResponseEntity<Object>> pay(
+            @PathVariable String orderId,
+            @RequestParam(defaultValue = "upi") String method
+    ) {
+        return simulate(() -> {
+            JsonNode order = orders.get(orderId);
+            if (order == null) {
+                return error(HttpStatus.BAD_REQUEST, "The id provided does not exist");
+            }
+
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("id", "pay_sim_" + shortId());
+            payment.put("entity", "payment");
+            payment.put("amount", order.path("amount").asLong());
+            payment.put("currency", order.path("currency").asText());
+            payment.put("status", "captured");
+            payment.put("order_id", orderId);
+            payment.put("method", method);
+            payment.put("notes", order.path("notes"));
+            capturedAmounts.put((String) payment.get("id"), order.path("amount").asLong());
+
+            sendWebhooks(Map.of(
+                    "entity", "event",
+                    "event", "payment.captured",
+                    "payload", Map.of("payment", Map.of("entity", payment)),
+                    "created_at", System.currentTimeMillis() / 1000
+            ));
+            return ResponseEntity.ok(payment);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        webhookExecutor.shutdown();
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private CompletableFuture<ResponseEntity<Object>> simulate(Supplier<ResponseEntity<Object>> handler) {
+        long delay = Math.max(0, latencyMillis
+                + (latencyJitterMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(-latencyJitterMillis, latencyJitterMillis + 1)));
+        Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "Simulated gateway failure");
+            }
+            return handler.get();
+        }, delayed);
+    }
+
+    private void sendWebhooks(Map<String, Object> event) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        String signature = webhookSignatures.sign(body);
+
+        for (int i = 0; i < webhookDeliveries; i++) {
+            HttpRequest request = HttpRequest.newBuilder(webhookUrl)
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .header("X-Razorpay-Signature", signature)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            webhookExecutor.execute(() -> {
+                try {
+                    HttpResponse<Void> response = webhookClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 != 2) {
+                        log.warn("Simulated webhook rejected with {}", response.statusCode());
+                    }
+                } catch (IOException e) {
+                    log.warn("Simulated webhook delivery failed: {}", e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    private static ResponseEntity<Object> error(HttpStatus status, String description) {
+        return ResponseEntity.status(status).body(Map.of("error", Map.of(
+                "code", status.is5xxServerError() ? "SERVER_ERROR" : "BAD_REQUEST_ERROR",
+                "description", description)));
+    }
+
+    private static String shortId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+    }
+}
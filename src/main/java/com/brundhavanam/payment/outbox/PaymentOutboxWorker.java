@@ -0,0 +1,288 @@
+package com.brundhavanam.payment.outbox;
+
+import com.brundhavanam.common.enums.PaymentEventStatus;
+import com.brundhavanam.common.enums.PaymentStatus;
+import com.brundhavanam.common.exception.BadRequestException;
+import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.order.entity.Order;
+import com.brundhavanam.order.repository.OrderRepository;
+import com.brundhavanam.order.service.OrderService;
+import com.brundhavanam.payment.entity.Payment;
+import com.brundhavanam.payment.entity.PaymentOutboxEvent;
+import com.brundhavanam.payment.repository.PaymentOutboxRepository;
+import com.brundhavanam.payment.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies accepted payment notifications (payment_outbox) off the request thread.
+ *
+ * - The poller claims due events with SKIP LOCKED and leases them (nextAttemptAt
+ *   moves past the lease), so several instances can poll the same table
+ * - Claimed events are grouped per order; one task per order records the
+ *   payments not seen before (by idempotency key) and confirms the order once
+ * - Payments are recorded in their own transaction, so captured money is never
+ *   lost with a failed confirmation; a payment whose order cannot be confirmed
+ *   (or whose captured amount differs from the order total) is flagged refundRequired
+ * - Tasks run on a bounded pool; the poller never claims more than the queue can take
+ * - Failures are retried with exponential backoff and jitter; business errors
+ *   (order missing / cancelled / out of stock) fail the event right away
+ * - A crashed worker's events come back when their lease runs out
+ */
+@Slf4j
+@Component
+public class PaymentOutboxWorker {
+
+    private final PaymentOutboxRepository outboxRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long leaseSeconds;
+
+    public PaymentOutboxWorker(
+            PaymentOutboxRepository outboxRepository,
+            PaymentRepository paymentRepository,
+            OrderRepository orderRepository,
+            OrderService orderService,
+            PlatformTransactionManager transactionManager,
+            @Value("${payment.outbox.workers:4}") int workers,
+            @Value("${payment.outbox.queue-capacity:100}") int queueCapacity,
+            @Value("${payment.outbox.batch-size:100}") int batchSize,
+            @Value("${payment.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${payment.outbox.backoff-base-ms:1000}") long backoffBaseMillis,
+            @Value("${payment.outbox.backoff-max-ms:300000}") long backoffMaxMillis,
+            @Value("${payment.outbox.lease-seconds:60}") long leaseSeconds
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.leaseSeconds = leaseSeconds;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "payment-outbox-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:200}")
+    public void poll() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return; // workers are behind; leave events in the table
+        }
+
+        Map<Long, List<Long>> claimed = claim(Math.min(batchSize, capacity));
+        if (claimed == null) {
+            return;
+        }
+
+        claimed.forEach((orderId, eventIds) -> {
+            try {
+                executor.execute(() -> process(orderId, eventIds));
+            } catch (RejectedExecutionException e) {
+                // Lease runs out and the events are picked up again
+                log.warn("Payment outbox queue full, {} event(s) for order {} deferred", eventIds.size(), orderId);
+            }
+        });
+    }
+
+    /**
+     * True when no claimed group is queued or running (tests / shutdown).
+     */
+    public boolean isIdle() {
+        return executor.getActiveCount() == 0 && executor.getQueue().isEmpty();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    // orderId -> event ids, leased until now + leaseSeconds
+    private Map<Long, List<Long>> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, List<Long>> byOrder = new LinkedHashMap<>();
+            for (PaymentOutboxEvent event : outboxRepository.findDue(now, Limit.of(limit))) {
+                event.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+                byOrder.computeIfAbsent(event.getOrderId(), id -> new ArrayList<>()).add(event.getId());
+            }
+            return byOrder;
+        });
+    }
+
+    private void process(Long orderId, List<Long> eventIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> record(orderId, eventIds));
+            transactionTemplate.executeWithoutResult(status -> confirm(orderId, eventIds));
+        } catch (RuntimeException e) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> scheduleRetry(eventIds, e));
+            } catch (RuntimeException retryFailure) {
+                log.error("Could not record failure for payment events {}", eventIds, retryFailure);
+            }
+        }
+    }
+
+    // Payments not seen before; committed whatever happens to the confirmation
+    private void record(Long orderId, List<Long> eventIds) {
+
+        List<PaymentOutboxEvent> events = pendingEvents(eventIds);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        // Dedup on paymentIdempotencyKey (events processed before a crash, legacy payments)
+        Set<String> recorded = new HashSet<>(paymentRepository.findExistingKeys(
+                events.stream().map(PaymentOutboxEvent::getIdempotencyKey).toList()));
+
+        List<Payment> payments = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (PaymentOutboxEvent event : events) {
+            boolean wrongAmount = event.getAmount() != null
+                    && event.getAmount().compareTo(order.getTotalAmount()) != 0;
+
+            if (recorded.add(event.getIdempotencyKey())) {
+                payments.add(Payment.builder()
+                        .order(order)
+                        .method(event.getMethod())
+                        .status(PaymentStatus.SUCCESS)
+                        .paymentIdempotencyKey(event.getIdempotencyKey())
+                        .transactionId(event.getTransactionId())
+                        .paidAt(event.getCreatedAt())
+                        .refundRequired(wrongAmount)
+                        .build());
+            }
+
+            // Never confirms the order; the payment is kept for a refund
+            if (wrongAmount) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setStatus(PaymentEventStatus.FAILED);
+                event.setProcessedAt(now);
+                event.setLastError("Captured " + event.getAmount() + " but order total is " + order.getTotalAmount());
+                log.warn("Payment {} for order {} captured {} instead of {}; needs a refund",
+                        event.getIdempotencyKey(), orderId, event.getAmount(), order.getTotalAmount());
+            }
+        }
+        paymentRepository.saveAll(payments);
+    }
+
+    // Order confirmation + event status; a failure here leaves the recorded payments in place
+    private void confirm(Long orderId, List<Long> eventIds) {
+
+        List<PaymentOutboxEvent> events = pendingEvents(eventIds);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Once per order, however many notifications arrived (no-op if already confirmed)
+        orderService.confirmOrder(orderId);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (PaymentOutboxEvent event : events) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setStatus(PaymentEventStatus.DONE);
+            event.setProcessedAt(now);
+            event.setLastError(null);
+        }
+    }
+
+    private List<PaymentOutboxEvent> pendingEvents(List<Long> eventIds) {
+        return outboxRepository.findAllById(eventIds).stream()
+                .filter(e -> e.getStatus() == PaymentEventStatus.PENDING)
+                .toList();
+    }
+
+    private void scheduleRetry(List<Long> eventIds, RuntimeException cause) {
+
+        boolean retryable = !(cause instanceof BadRequestException || cause instanceof ResourceNotFoundException);
+        LocalDateTime now = LocalDateTime.now();
+        List<String> failedKeys = new ArrayList<>();
+
+        for (PaymentOutboxEvent event : outboxRepository.findAllById(eventIds)) {
+            if (event.getStatus() != PaymentEventStatus.PENDING) {
+                continue;
+            }
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+
+            if (!retryable || attempts >= maxAttempts) {
+                event.setStatus(PaymentEventStatus.FAILED);
+                event.setProcessedAt(now);
+                failedKeys.add(event.getIdempotencyKey());
+                log.warn("Payment event {} for order {} failed after {} attempt(s): {}",
+                        event.getIdempotencyKey(), event.getOrderId(), attempts, cause.getMessage());
+            } else {
+                event.setNextAttemptAt(now.plusNanos(backoffMillis(attempts) * 1_000_000L));
+            }
+        }
+
+        // The money was captured but will never confirm the order
+        if (!failedKeys.isEmpty()) {
+            for (Payment payment : paymentRepository.findByPaymentIdempotencyKeyIn(failedKeys)) {
+                if (payment.getStatus() == PaymentStatus.SUCCESS) {
+                    payment.setRefundRequired(true);
+                    log.warn("Payment {} of order {} needs a refund", payment.getId(), payment.getOrder().getId());
+                }
+            }
+        }
+    }
+
+    // base * 2^(attempts-1), capped; jittered between 50% and 100% so retries of a storm spread out
+    private long backoffMillis(int attempts) {
+        long exponential = backoffBaseMillis << Math.min(attempts - 1, 30);
+        long capped = Math.min(backoffMaxMillis, exponential < 0 ? backoffMaxMillis : exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
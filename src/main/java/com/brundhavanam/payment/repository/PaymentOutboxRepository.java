@@ -0,0 +1,30 @@
+package com.brundhavanam.payment.repository;
+
+import com.brundhavanam.payment.entity.PaymentOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEvent, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * PENDING events whose next attempt is due (oldest first).
+     * Rows claimed by another instance are skipped, not waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("SELECT e FROM PaymentOutboxEvent e "
+            + "WHERE e.status = com.brundhavanam.common.enums.PaymentEventStatus.PENDING "
+            + "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<PaymentOutboxEvent> findDue(@Param("now") LocalDateTime now, Limit limit);
+}
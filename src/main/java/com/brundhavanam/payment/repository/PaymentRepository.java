@@ -2,6 +2,29 @@ package com.brundhavanam.payment.repository;
 
 import com.brundhavanam.payment.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    // Idempotency keys already recorded (outbox dedup)
+    @Query("SELECT p.paymentIdempotencyKey FROM Payment p WHERE p.paymentIdempotencyKey IN :keys")
+    List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+
+    List<Payment> findByPaymentIdempotencyKeyIn(Collection<String> keys);
+
+    /**
+     * @return 1 if the payment moved from SUCCESS to REFUNDED, 0 if it was no longer SUCCESS
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.brundhavanam.common.enums.PaymentStatus.REFUNDED, "
+            + "p.refundRequired = false "
+            + "WHERE p.id = :id AND p.status = com.brundhavanam.common.enums.PaymentStatus.SUCCESS")
+    int markRefunded(@Param("id") Long id);
 }
@@ -1,7 +1,31 @@
 package com.brundhavanam.payment.service;
 
 import com.brundhavanam.common.enums.PaymentMethod;
+import com.brundhavanam.payment.dto.PaymentNotification;
+import com.brundhavanam.payment.gateway.PaymentGateway.GatewayOrder;
+import com.brundhavanam.payment.gateway.PaymentGateway.GatewayRefund;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface PaymentService {
     void simulateSuccess(Long orderId, PaymentMethod method);
+
+    /**
+     * Stores a payment notification for asynchronous processing.
+     *
+     * @return false if a notification with the same idempotency key was already accepted
+     */
+    boolean accept(PaymentNotification notification);
+
+    // Gateway order for one of the caller's CREATED orders (reused on repeat calls)
+    CompletableFuture<GatewayOrder> createGatewayOrder(Long orderId);
+
+    /**
+     * Verifies and queues a gateway webhook.
+     *
+     * @throws com.brundhavanam.common.exception.BadRequestException if the signature is invalid
+     */
+    void acceptWebhook(byte[] payload, String signature);
+
+    CompletableFuture<GatewayRefund> refund(Long paymentId);
 }
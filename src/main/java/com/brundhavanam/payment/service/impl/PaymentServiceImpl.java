@@ -1,55 +1,141 @@
 package com.brundhavanam.payment.service.impl;
 
-import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
 
+import com.brundhavanam.common.enums.OrderStatus;
+import com.brundhavanam.common.enums.PaymentEventStatus;
 import com.brundhavanam.common.enums.PaymentMethod;
 import com.brundhavanam.common.enums.PaymentStatus;
-import com.brundhavanam.common.enums.OrderStatus;
+import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.config.security.AuthenticatedUser;
 import com.brundhavanam.order.entity.Order;
 import com.brundhavanam.order.repository.OrderRepository;
-import com.brundhavanam.order.service.OrderService;
+import com.brundhavanam.payment.dto.PaymentNotification;
 import com.brundhavanam.payment.entity.Payment;
+import com.brundhavanam.payment.entity.PaymentOutboxEvent;
+import com.brundhavanam.payment.gateway.PaymentGateway;
+import com.brundhavanam.payment.gateway.PaymentGateway.GatewayOrder;
+import com.brundhavanam.payment.gateway.PaymentGateway.GatewayRefund;
+import com.brundhavanam.payment.repository.PaymentOutboxRepository;
 import com.brundhavanam.payment.repository.PaymentRepository;
 import com.brundhavanam.payment.service.PaymentService;
 
 import lombok.RequiredArgsConstructor;
 
+// Accepts payment notifications into the outbox; PaymentOutboxWorker records payments and confirms orders
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class PaymentServiceImpl implements PaymentService {
 
-    private final PaymentRepository paymentRepository;
+    private final PaymentOutboxRepository outboxRepository;
     private final OrderRepository orderRepository;
-    private final OrderService orderService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway paymentGateway;
+
+    private static final String CURRENCY = "INR";
 
     @Override
     public void simulateSuccess(Long orderId, PaymentMethod method) {
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-
-        if (order.getStatus() == OrderStatus.CONFIRMED) {
-            return; // IDEMPOTENT
+        if (!orderRepository.existsById(orderId)) {
+            throw new ResourceNotFoundException("Order not found");
         }
-        
+
         // ✅ Deterministic idempotency key
         String key = "SIM-PAY-" + orderId;
 
-        Payment payment = Payment.builder()
-                .order(order)
-                .method(method)
-                .status(PaymentStatus.SUCCESS)
-                .paymentIdempotencyKey(key)
-                .transactionId("SIM-" + System.currentTimeMillis())
+        accept(new PaymentNotification(orderId, method, key, "SIM-" + System.currentTimeMillis(), null));
+    }
+
+    // Single short insert; no order / stock locks on the request thread
+    @Override
+    public boolean accept(PaymentNotification notification) {
+
+        if (outboxRepository.existsByIdempotencyKey(notification.idempotencyKey())) {
+            return false; // redelivery
+        }
+
+        PaymentOutboxEvent event = PaymentOutboxEvent.builder()
+                .orderId(notification.orderId())
+                .method(notification.method())
+                .idempotencyKey(notification.idempotencyKey())
+                .transactionId(notification.transactionId())
+                .amount(notification.amount())
+                .status(PaymentEventStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
                 .build();
 
-        paymentRepository.save(payment);
+        try {
+            outboxRepository.saveAndFlush(event);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false; // concurrent redelivery inserted the same key first
+        }
+    }
+
+    // Lookups run on the request thread; the gateway call does not hold it
+    @Override
+    public CompletableFuture<GatewayOrder> createGatewayOrder(Long orderId) {
+
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        if (!order.getUser().getId().equals(AuthenticatedUser.current().id())) {
+            throw new ResourceNotFoundException("Order not found");
+        }
+        if (order.getStatus() != OrderStatus.CREATED) {
+            throw new BadRequestException("Order is not awaiting payment");
+        }
+
+        if (order.getGatewayOrderId() != null) {
+            return CompletableFuture.completedFuture(new GatewayOrder(
+                    order.getGatewayOrderId(), order.getTotalAmount(), CURRENCY, String.valueOf(orderId), "created"));
+        }
+
+        return paymentGateway.createOrder(orderId, order.getTotalAmount(), CURRENCY)
+                .thenApply(created -> {
+                    if (orderRepository.setGatewayOrderId(orderId, created.id()) == 0) {
+                        // A concurrent attempt stored its gateway order first; pay against that one
+                        String winner = orderRepository.findById(orderId).map(Order::getGatewayOrderId).orElse(created.id());
+                        return new GatewayOrder(winner, created.amount(), created.currency(), created.receipt(), created.status());
+                    }
+                    return created;
+                });
+    }
+
+    @Override
+    public void acceptWebhook(byte[] payload, String signature) {
+
+        if (!paymentGateway.verifyWebhook(payload, signature)) {
+            throw new BadRequestException("Invalid webhook signature");
+        }
+
+        // Other event types are acknowledged and ignored
+        paymentGateway.parseCapturedPayment(payload).ifPresent(this::accept);
+    }
+
+    @Override
+    public CompletableFuture<GatewayRefund> refund(Long paymentId) {
+
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+
+        if (payment.getStatus() != PaymentStatus.SUCCESS || payment.getTransactionId() == null) {
+            throw new BadRequestException("Payment cannot be refunded");
+        }
 
-        orderService.confirmOrder(orderId);
+        // A concurrent second refund is turned down by the gateway (amount exceeds what is left)
+        return paymentGateway.refund(payment.getTransactionId(), payment.getOrder().getTotalAmount())
+                .thenApply(refund -> {
+                    paymentRepository.markRefunded(paymentId);
+                    return refund;
+                });
     }
 }
 
@@ -0,0 +1,40 @@
+package com.brundhavanam.product.cache;
+
+import java.util.Set;
+
+/**
+ * Pre-encoded JSON body of a product listing, ready to be written to the response as-is.
+ *
+ * @param body       UTF-8 JSON of ApiResponse<List<ProductResponse>>
+ * @param etag       strong ETag (quoted) derived from the body bytes
+ * @param productIds products contained in the listing (used for precise invalidation)
+ */
+public record CatalogSnapshot(
+        byte[] body,
+        String etag,
+        Set<Long> productIds
+) {
+
+    /**
+     * True when an If-None-Match header value matches this snapshot.
+     * Handles lists ("a", "b"), "*" and weak validators (W/"a").
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+package com.brundhavanam.product.cache;
+
+import com.brundhavanam.common.cache.BoundedTtlCache;
+import com.brundhavanam.common.cache.CacheStats;
+import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.product.dto.ProductResponse;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of assembled user-facing {@link ProductResponse}s.
+ *
+ * Keys:
+ * - product id                 -> single product (GET /api/v1/products/{id})
+ * - "category:<name>" / "all"  -> active listings
+ *
+ * Listings are additionally kept as pre-serialized JSON {@link CatalogSnapshot}s
+ * (with ETag) so the busiest endpoints skip Jackson entirely.
+ *
+ * Entries are invalidated by {@link CatalogChangedEvent}s once the admin / stock
+ * transaction commits. Only entries that contain the changed product are dropped;
+ * the rest of the cache stays warm.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String ALL_KEY = "all";
+    private static final String CATEGORY_PREFIX = "category:";
+
+    private final BoundedTtlCache<Long, ProductResponse> products;
+    private final BoundedTtlCache<String, List<ProductResponse>> listings;
+    private final BoundedTtlCache<String, CatalogSnapshot> snapshots;
+
+    private final ObjectMapper objectMapper;
+
+    // Bumped on every change; a load that overlaps a change is returned but not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCatalogCache(
+            ObjectMapper objectMapper,
+            @Value("${catalog.cache.max-entries:1000}") int maxEntries,
+            @Value("${catalog.cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.objectMapper = objectMapper;
+        this.products = new BoundedTtlCache<>(maxEntries, ttlSeconds * 1000);
+        this.listings = new BoundedTtlCache<>(maxEntries, ttlSeconds * 1000);
+        this.snapshots = new BoundedTtlCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    public ProductResponse getProduct(Long id, Supplier<ProductResponse> loader) {
+        return readThrough(products, id, loader);
+    }
+
+    public List<ProductResponse> getAll(Supplier<List<ProductResponse>> loader) {
+        return readThrough(listings, ALL_KEY, loader);
+    }
+
+    public List<ProductResponse> getByCategory(String category, Supplier<List<ProductResponse>> loader) {
+        return readThrough(listings, categoryKey(category), loader);
+    }
+
+    public CatalogSnapshot getAllSnapshot(Supplier<List<ProductResponse>> loader) {
+        return readThrough(snapshots, ALL_KEY, () -> encode(loader.get()));
+    }
+
+    public CatalogSnapshot getCategorySnapshot(String category, Supplier<List<ProductResponse>> loader) {
+        return readThrough(snapshots, categoryKey(category), () -> encode(loader.get()));
+    }
+
+    public Map<String, CacheStats> stats() {
+        return Map.of(
+                "products", products.stats(),
+                "listings", listings.stats(),
+                "snapshots", snapshots.stats()
+        );
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+
+        Long productId = event.productId();
+
+        generation.incrementAndGet();
+        products.invalidate(productId);
+
+        // Drop only the listings that currently contain this product
+        listings.invalidateIf((key, list) -> containsProduct(list, productId));
+        snapshots.invalidateIf((key, snapshot) -> snapshot.productIds().contains(productId));
+
+        // A created / re-categorised / re-activated product may join listings it is not in yet
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT_UPSERTED) {
+            listings.invalidate(ALL_KEY);
+            snapshots.invalidate(ALL_KEY);
+            if (event.category() != null) {
+                listings.invalidate(categoryKey(event.category()));
+                snapshots.invalidate(categoryKey(event.category()));
+            }
+        }
+    }
+
+    private <K, V> V readThrough(BoundedTtlCache<K, V> cache, K key, Supplier<V> loader) {
+        V cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = generation.get();
+        V loaded = loader.get();
+        if (loaded != null && generation.get() == seen) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    // Serializes exactly what the controller used to return: ApiResponse<List<ProductResponse>>
+    private CatalogSnapshot encode(List<ProductResponse> list) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.success(list));
+            Set<Long> ids = list.stream().map(ProductResponse::id).collect(Collectors.toUnmodifiableSet());
+            return new CatalogSnapshot(body, etagOf(body), ids);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize catalog snapshot", e);
+        }
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            // 128 bits are plenty for a validator and keep the header short
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean containsProduct(List<ProductResponse> list, Long productId) {
+        for (ProductResponse p : list) {
+            if (p.id().equals(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Category lookup is case-insensitive (findByActiveTrueAndCategoryIgnoreCase)
+    private static String categoryKey(String category) {
+        return CATEGORY_PREFIX + category.toLowerCase(Locale.ROOT);
+    }
+}
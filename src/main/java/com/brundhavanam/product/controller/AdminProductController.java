@@ -1,6 +1,9 @@
 package com.brundhavanam.product.controller;
 
+import com.brundhavanam.common.cache.CacheStats;
 import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.common.response.CursorPage;
+import com.brundhavanam.product.cache.ProductCatalogCache;
 import com.brundhavanam.product.dto.ProductRequest;
 import com.brundhavanam.product.dto.ProductResponse;
 import com.brundhavanam.product.service.ProductService;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * AdminProductController
@@ -30,6 +34,8 @@ public class AdminProductController {
     // Service layer handles business logic and DB operations
     private final ProductService productService;
 
+    private final ProductCatalogCache catalogCache;
+
     /**
      * Create a new product (Admin).-----
      * Endpoint: POST /api/v1/admin/products
@@ -73,6 +79,21 @@ public class AdminProductController {
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getAllForAdmin() {
         return ResponseEntity.ok(ApiResponse.success(productService.getAllForAdmin()));
     }
+
+    /**
+     * Cursor-paginated admin listing (newest first).
+     * Endpoint: GET /api/v1/admin/products/page?cursor=&size=20&includeTotal=false
+     *
+     * Pass nextCursor from the previous response to get the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPage<ProductResponse>>> getPageForAdmin(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getPageForAdmin(cursor, size, includeTotal)));
+    }
     
     //------------------search API-------------------
     /**
@@ -90,4 +111,13 @@ public class AdminProductController {
         return ResponseEntity.ok(ApiResponse.success(productService.searchForAdmin(query, page, size)));
     }
 
+    /**
+     * Catalog cache counters (hits / misses / evictions) for monitoring.
+     * Endpoint: GET /api/v1/admin/products/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, CacheStats>>> cacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(catalogCache.stats()));
+    }
+
 }
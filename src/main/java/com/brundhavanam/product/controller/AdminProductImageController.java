@@ -1,6 +1,8 @@
 package com.brundhavanam.product.controller;
 
 import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.product.dto.ImageCleanupStats;
+import com.brundhavanam.product.image.OrphanImageReconciler;
 import com.brundhavanam.product.service.ProductImageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +20,7 @@ import java.util.List;
 public class AdminProductImageController {
 
     private final ProductImageService productImageService;
+    private final OrphanImageReconciler orphanImageReconciler;
 
     /**
      * Upload multiple images for a product.
@@ -56,4 +59,25 @@ public class AdminProductImageController {
         productImageService.deleteProductImage(productId, imageId);
         return ResponseEntity.ok(ApiResponse.success("Image deleted successfully"));
     }
+
+    // ---------------- Background deletes ----------------
+
+    /**
+     * Delete queue and orphan scan counters for monitoring.
+     * Endpoint: GET /api/v1/admin/products/images/cleanup/stats
+     */
+    @GetMapping("/images/cleanup/stats")
+    public ResponseEntity<ApiResponse<ImageCleanupStats>> cleanupStats() {
+        return ResponseEntity.ok(ApiResponse.success(orphanImageReconciler.stats()));
+    }
+
+    /**
+     * Scans storage for orphaned images now and returns how many were found;
+     * they are queued for deletion only with product.images.reconcile.delete-orphans.
+     * Endpoint: POST /api/v1/admin/products/images/cleanup/reconcile
+     */
+    @PostMapping("/images/cleanup/reconcile")
+    public ResponseEntity<ApiResponse<Integer>> reconcileImages() {
+        return ResponseEntity.ok(ApiResponse.success(orphanImageReconciler.reconcile()));
+    }
 }
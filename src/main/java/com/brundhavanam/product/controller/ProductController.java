@@ -1,11 +1,17 @@
 package com.brundhavanam.product.controller;
 
 import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.product.cache.CatalogSnapshot;
 import com.brundhavanam.product.dto.ProductResponse;
+import com.brundhavanam.product.dto.VariantAvailabilityResponse;
 import com.brundhavanam.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -37,11 +43,14 @@ public class ProductController {
      * GET /api/v1/products
      *
      * Response:
-     * - List of active products
+     * - List of active products (pre-serialized JSON, same shape as ApiResponse<List<ProductResponse>>)
+     * - ETag header; send it back in If-None-Match to get 304 Not Modified
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getAllProducts() {
-        return ResponseEntity.ok(ApiResponse.success(productService.getAllForUser()));
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return snapshotResponse(productService.getAllForUserSnapshot(), ifNoneMatch);
     }
 
     /**
@@ -61,6 +70,18 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(productService.getByIdForUser(id)));
     }
 
+    /**
+     * Live available-to-sell per variant (stock minus confirmed-but-undeducted
+     * orders minus checkout reservations). Not cached; call before checkout.
+     *
+     * Endpoint:
+     * GET /api/v1/products/{id}/availability
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<ApiResponse<List<VariantAvailabilityResponse>>> getAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getAvailability(id)));
+    }
+
     /**
      * Get all active products by category (User).
      *
@@ -71,11 +92,14 @@ public class ProductController {
      * - category : product category name (example: Milk, Fruits, etc.)
      *
      * Response:
-     * - List of active products matching the category
+     * - List of active products matching the category (pre-serialized JSON with ETag)
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(ApiResponse.success(productService.getByCategory(category)));
+    public ResponseEntity<byte[]> getByCategory(
+            @PathVariable String category,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return snapshotResponse(productService.getByCategorySnapshot(category), ifNoneMatch);
     }
     
     //------------Search API------------------
@@ -93,6 +117,37 @@ public class ProductController {
     ) {
         return ResponseEntity.ok(ApiResponse.success(productService.searchForUser(query, page, size)));
     }
-    
-    
+
+    /**
+     * Typeahead suggestions for the search box (product names, categories, variant labels).
+     * Served from memory, safe to call on every keystroke.
+     *
+     * Example:
+     * GET /api/v1/products/suggest?q=gh&limit=5
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<String>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(productService.suggest(q, limit)));
+    }
+
+    /**
+     * Writes a catalog snapshot as-is, or 304 when the client already has this version.
+     * "no-cache" lets clients store the body but forces revalidation on every use.
+     */
+    private ResponseEntity<byte[]> snapshotResponse(CatalogSnapshot snapshot, String ifNoneMatch) {
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.body());
+    }
 }
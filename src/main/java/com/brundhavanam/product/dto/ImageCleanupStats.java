@@ -0,0 +1,22 @@
+package com.brundhavanam.product.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background image deletion counters (since startup, except the task counts).
+ *
+ * - pendingTasks / failedTasks : rows in image_delete_tasks
+ * - deleted / retried          : tasks completed / rescheduled by this instance
+ * - lastReconcileAt            : last orphan scan (null if none yet)
+ * - lastScanned / lastOrphans  : stored images checked / orphans found by that scan
+ *                                (queued only with product.images.reconcile.delete-orphans)
+ */
+public record ImageCleanupStats(
+        long pendingTasks,
+        long failedTasks,
+        long deleted,
+        long retried,
+        LocalDateTime lastReconcileAt,
+        int lastScanned,
+        int lastOrphans
+) {}
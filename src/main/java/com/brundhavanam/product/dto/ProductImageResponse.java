@@ -0,0 +1,17 @@
+package com.brundhavanam.product.dto;
+
+/**
+ * One product image in every size; clients pick the one that fits the view.
+ *
+ * - thumbnailUrl : ~160 px (cart lines, suggestions)
+ * - cardUrl      : ~480 px (catalog listings)
+ * - detailUrl    : ~1280 px (product page)
+ *
+ * Images uploaded before renditions existed return the original in all three.
+ */
+public record ProductImageResponse(
+        Long id,
+        String thumbnailUrl,
+        String cardUrl,
+        String detailUrl
+) {}
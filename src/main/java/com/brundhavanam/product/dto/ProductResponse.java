@@ -9,8 +9,14 @@ public record ProductResponse(
         String description,
         String category,
 
+        // First image, card size (listings)
         String mainImageUrl,
+        // First image, thumbnail size
+        String thumbnailUrl,
+        // All images, detail size (gallery)
         List<String> imageUrls,
+        // All images in every size
+        List<ProductImageResponse> images,
 
         Boolean active,
 
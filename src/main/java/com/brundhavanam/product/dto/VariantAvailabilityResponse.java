@@ -0,0 +1,7 @@
+package com.brundhavanam.product.dto;
+
+public record VariantAvailabilityResponse(
+        Long variantId,
+        String label,
+        int availableToSell
+) {}
@@ -0,0 +1,58 @@
+package com.brundhavanam.product.entity;
+
+import com.brundhavanam.common.enums.ImageDeleteStatus;
+import com.brundhavanam.common.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/*
+ Stored image (any rendition) waiting to be deleted from image storage.
+ Written in the same transaction that drops its last reference,
+ processed by ImageDeleteWorker.
+*/
+
+@Entity
+@Table(
+        name = "image_delete_tasks",
+        indexes = {
+                // Worker poll: due PENDING tasks
+                @Index(name = "idx_image_delete_due", columnList = "status,next_attempt_at"),
+                // Reconciler: skip ids that are already queued
+                @Index(name = "idx_image_delete_public_id", columnList = "public_id")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageDeleteTask {
+
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(nullable = false)
+    private String publicId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImageDeleteStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // Next delete attempt; also the lease end while a worker holds the task
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
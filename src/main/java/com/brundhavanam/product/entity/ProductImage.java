@@ -1,5 +1,6 @@
 package com.brundhavanam.product.entity;
 
+import com.brundhavanam.common.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,11 +13,12 @@ import lombok.*;
 @AllArgsConstructor
 public class ProductImage {
 
+    // App-assigned, time-ordered id (no INSERT needed to learn it, so inserts batch)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
-    // Store Cloudinary secure_url
+    // Store Cloudinary secure_url (DETAIL rendition; the original for older images)
     @Column(nullable = false, length = 2000)
     private String imageUrl;
 
@@ -24,6 +26,19 @@ public class ProductImage {
     @Column(nullable = false, length = 500)
     private String publicId;
 
+    // Smaller renditions (null for images uploaded before they existed; fall back to imageUrl)
+    @Column(length = 2000)
+    private String cardUrl;
+
+    @Column(length = 500)
+    private String cardPublicId;
+
+    @Column(length = 2000)
+    private String thumbnailUrl;
+
+    @Column(length = 500)
+    private String thumbnailPublicId;
+
     private Integer sortOrder;
 
     @Builder.Default
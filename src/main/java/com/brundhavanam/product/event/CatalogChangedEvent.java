@@ -0,0 +1,34 @@
+package com.brundhavanam.product.event;
+
+/**
+ * Published by admin write paths (and stock changes) whenever a product's
+ * public representation may have changed.
+ *
+ * Listeners (catalog cache etc.) react after the surrounding transaction commits.
+ *
+ * @param productId affected product
+ * @param category  current category of the product (only set for PRODUCT_UPSERTED)
+ * @param type      what changed
+ */
+public record CatalogChangedEvent(
+        Long productId,
+        String category,
+        Type type
+) {
+
+    public enum Type {
+        PRODUCT_UPSERTED,   // created / name, category or active flag changed
+        PRODUCT_DELETED,
+        VARIANTS_CHANGED,
+        IMAGES_CHANGED,
+        STOCK_CHANGED
+    }
+
+    public static CatalogChangedEvent upserted(Long productId, String category) {
+        return new CatalogChangedEvent(productId, category, Type.PRODUCT_UPSERTED);
+    }
+
+    public static CatalogChangedEvent of(Long productId, Type type) {
+        return new CatalogChangedEvent(productId, null, type);
+    }
+}
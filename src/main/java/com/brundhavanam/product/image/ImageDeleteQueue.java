@@ -0,0 +1,47 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.common.enums.ImageDeleteStatus;
+import com.brundhavanam.product.entity.ImageDeleteTask;
+import com.brundhavanam.product.repository.ImageDeleteTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Queues stored images for deletion (image_delete_tasks); ImageDeleteWorker
+ * deletes them from storage in the background.
+ *
+ * Call it in the transaction that removes the last reference to the images:
+ * the tasks commit (or roll back) together with that change, and the request
+ * never waits on the storage service.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageDeleteQueue {
+
+    private final ImageDeleteTaskRepository taskRepository;
+
+    @Transactional
+    public void enqueue(Collection<String> publicIds) {
+        if (publicIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageDeleteTask> tasks = new ArrayList<>(publicIds.size());
+        for (String publicId : new LinkedHashSet<>(publicIds)) {
+            tasks.add(ImageDeleteTask.builder()
+                    .publicId(publicId)
+                    .status(ImageDeleteStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(now)
+                    .build());
+        }
+        taskRepository.saveAll(tasks);
+    }
+}
@@ -0,0 +1,161 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.common.enums.ImageDeleteStatus;
+import com.brundhavanam.product.entity.ImageDeleteTask;
+import com.brundhavanam.product.repository.ImageDeleteTaskRepository;
+import com.brundhavanam.product.service.ImageUploadService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes queued images (image_delete_tasks) from storage off the request thread.
+ *
+ * - Claims due tasks with SKIP LOCKED and leases them (nextAttemptAt moves past
+ *   the lease), so several instances can poll the same table
+ * - One storage call per claimed batch (ImageUploadService.deleteImages);
+ *   no database transaction is open during that call
+ * - Deleted tasks are removed; a failed batch is retried with exponential
+ *   backoff and jitter, and marked FAILED after max-attempts
+ * - A crashed worker's tasks come back when their lease runs out
+ */
+@Slf4j
+@Component
+public class ImageDeleteWorker {
+
+    private final ImageDeleteTaskRepository taskRepository;
+    private final ImageUploadService imageUploadService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long leaseSeconds;
+
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+
+    public ImageDeleteWorker(
+            ImageDeleteTaskRepository taskRepository,
+            ImageUploadService imageUploadService,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.images.delete.batch-size:100}") int batchSize,
+            @Value("${product.images.delete.max-attempts:10}") int maxAttempts,
+            @Value("${product.images.delete.backoff-base-ms:5000}") long backoffBaseMillis,
+            @Value("${product.images.delete.backoff-max-ms:3600000}") long backoffMaxMillis,
+            @Value("${product.images.delete.lease-seconds:120}") long leaseSeconds
+    ) {
+        this.taskRepository = taskRepository;
+        this.imageUploadService = imageUploadService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${product.images.delete.poll-interval-ms:2000}")
+    public void poll() {
+        Map<Long, String> claimed;
+        do {
+            claimed = claim();
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+            if (!process(claimed)) {
+                return; // storage is failing; wait for the next poll
+            }
+        } while (claimed.size() == batchSize); // a full batch: more may be due
+    }
+
+    public long deletedCount() {
+        return deleted.get();
+    }
+
+    public long retriedCount() {
+        return retried.get();
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    // taskId -> publicId, leased until now + leaseSeconds
+    private Map<Long, String> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, String> tasks = new LinkedHashMap<>();
+            for (ImageDeleteTask task : taskRepository.findDue(now, Limit.of(batchSize))) {
+                task.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+                tasks.put(task.getId(), task.getPublicId());
+            }
+            return tasks;
+        });
+    }
+
+    private boolean process(Map<Long, String> tasks) {
+        List<Long> taskIds = List.copyOf(tasks.keySet());
+        try {
+            imageUploadService.deleteImages(tasks.values().stream().distinct().toList());
+        } catch (RuntimeException e) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> scheduleRetry(taskIds, e));
+            } catch (RuntimeException retryFailure) {
+                log.error("Could not record failure for image delete tasks {}", taskIds, retryFailure);
+            }
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> taskRepository.deleteAllByIdInBatch(taskIds));
+            deleted.addAndGet(taskIds.size());
+        } catch (RuntimeException e) {
+            // Lease runs out and the (idempotent) deletes are repeated
+            log.warn("Could not remove {} completed image delete task(s): {}", taskIds.size(), e.getMessage());
+        }
+        return true;
+    }
+
+    private void scheduleRetry(List<Long> taskIds, RuntimeException cause) {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ImageDeleteTask task : taskRepository.findAllById(taskIds)) {
+            int attempts = task.getAttempts() + 1;
+            task.setAttempts(attempts);
+            task.setLastError(truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+
+            if (attempts >= maxAttempts) {
+                task.setStatus(ImageDeleteStatus.FAILED);
+                log.warn("Gave up deleting image {} after {} attempt(s): {}",
+                        task.getPublicId(), attempts, cause.getMessage());
+            } else {
+                task.setNextAttemptAt(now.plusNanos(backoffMillis(attempts) * 1_000_000L));
+                retried.incrementAndGet();
+            }
+        }
+    }
+
+    // base * 2^(attempts-1), capped; jittered between 50% and 100% so retries spread out
+    private long backoffMillis(int attempts) {
+        long exponential = backoffBaseMillis << Math.min(attempts - 1, 30);
+        long capped = Math.min(backoffMaxMillis, exponential < 0 ? backoffMaxMillis : exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
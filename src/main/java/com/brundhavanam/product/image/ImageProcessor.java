@@ -0,0 +1,177 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.common.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Decodes an uploaded image once and encodes every {@link RenditionSize} as JPEG.
+ *
+ * Memory per job is bounded regardless of the original's resolution:
+ * - the image is decoded with source subsampling, so the decoded bitmap is at
+ *   most about twice the DETAIL edge on its longest side
+ * - originals beyond max-edge pixels are rejected before decoding
+ * - at most max-concurrent jobs decode / encode at the same time; the rest wait
+ *
+ * (JPEG is the compressed output format: the JDK has no WebP encoder.)
+ */
+@Component
+public class ImageProcessor {
+
+    private static final String JPEG = "image/jpeg";
+
+    private final Semaphore permits;
+    private final int maxSourceEdge;
+    private final float jpegQuality;
+
+    public ImageProcessor(
+            @Value("${product.images.processing.max-concurrent:2}") int maxConcurrent,
+            @Value("${product.images.processing.max-edge:12000}") int maxSourceEdge,
+            @Value("${product.images.processing.jpeg-quality:0.82}") float jpegQuality
+    ) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxSourceEdge = maxSourceEdge;
+        this.jpegQuality = jpegQuality;
+
+        // Decode / encode in memory; no ImageIO cache files in java.io.tmpdir
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * @return one rendition per size, largest first
+     * @throws BadRequestException if the file is not a readable image or is too large
+     */
+    public List<ImageRendition> process(Path source) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to process image", e);
+        }
+        try {
+            BufferedImage image = decode(source);
+
+            RenditionSize[] sizes = RenditionSize.values();
+            List<ImageRendition> renditions = new ArrayList<>(sizes.length);
+            // Largest first, each scaled from the previous one (cheaper, and sharper than one big step)
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                image = scaleToFit(image, sizes[i].maxEdge());
+                renditions.add(new ImageRendition(sizes[i], image.getWidth(), image.getHeight(), JPEG, encode(image)));
+            }
+            return renditions;
+        } finally {
+            permits.release();
+        }
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private BufferedImage decode(Path source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new BadRequestException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int longest = Math.max(width, height);
+                if (longest > maxSourceEdge) {
+                    throw new BadRequestException("Image is too large (max " + maxSourceEdge + " px per side)");
+                }
+
+                // Every n-th pixel: the decoded image stays >= DETAIL size but never far above it
+                int step = Math.max(1, longest / RenditionSize.DETAIL.maxEdge());
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                return toRgb(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Image could not be read: " + e.getMessage());
+        }
+    }
+
+    private static BufferedImage scaleToFit(BufferedImage image, int maxEdge) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= maxEdge) {
+            return image;
+        }
+        double scale = (double) maxEdge / longest;
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // JPEG has no alpha: transparent areas (PNG / GIF) become white
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByMIMEType(JPEG).next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException("JPEG encoding failed", e);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,14 @@
+package com.brundhavanam.product.image;
+
+/**
+ * One encoded size of an uploaded image.
+ *
+ * @param data JPEG bytes (a few hundred KB at most for DETAIL)
+ */
+public record ImageRendition(
+        RenditionSize size,
+        int width,
+        int height,
+        String contentType,
+        byte[] data
+) {}
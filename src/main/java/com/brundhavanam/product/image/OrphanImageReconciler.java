@@ -0,0 +1,169 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.common.enums.ImageDeleteStatus;
+import com.brundhavanam.product.dto.ImageCleanupStats;
+import com.brundhavanam.product.repository.ImageDeleteTaskRepository;
+import com.brundhavanam.product.repository.ProductImageRepository;
+import com.brundhavanam.product.service.ImageUploadService;
+import com.brundhavanam.product.service.ProductImageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Finds stored images that no product image references (left behind by a
+ * crash between upload and insert, by deletes made before image_delete_tasks
+ * existed, or by manual edits).
+ *
+ * Report-only unless product.images.reconcile.delete-orphans is set; only then
+ * are orphans queued on ImageDeleteQueue. An instance whose database does not
+ * own every image in the storage folder (a dev or staging copy sharing the
+ * production account) must never turn deletes on. The scheduled scan is off
+ * unless product.images.reconcile.enabled is set.
+ *
+ * Only images uploaded more than min-age ago are considered, so uploads whose
+ * rows are still being inserted are never taken for orphans.
+ */
+@Slf4j
+@Component
+public class OrphanImageReconciler {
+
+    // publicIds checked against the database per query
+    private static final int CHUNK = 500;
+
+    private final ImageUploadService imageUploadService;
+    private final ProductImageRepository productImageRepository;
+    private final ImageDeleteTaskRepository taskRepository;
+    private final ImageDeleteQueue deleteQueue;
+    private final ImageDeleteWorker deleteWorker;
+
+    private final boolean enabled;
+    private final boolean deleteOrphans;
+    private final Duration minAge;
+
+    // One scan at a time (scheduled and admin-triggered runs)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile LocalDateTime lastReconcileAt;
+    private volatile int lastScanned;
+    private volatile int lastOrphans;
+
+    public OrphanImageReconciler(
+            ImageUploadService imageUploadService,
+            ProductImageRepository productImageRepository,
+            ImageDeleteTaskRepository taskRepository,
+            ImageDeleteQueue deleteQueue,
+            ImageDeleteWorker deleteWorker,
+            @Value("${product.images.reconcile.enabled:false}") boolean enabled,
+            @Value("${product.images.reconcile.delete-orphans:false}") boolean deleteOrphans,
+            @Value("${product.images.reconcile.min-age-minutes:60}") long minAgeMinutes
+    ) {
+        this.imageUploadService = imageUploadService;
+        this.productImageRepository = productImageRepository;
+        this.taskRepository = taskRepository;
+        this.deleteQueue = deleteQueue;
+        this.deleteWorker = deleteWorker;
+        this.enabled = enabled;
+        this.deleteOrphans = deleteOrphans;
+        this.minAge = Duration.ofMinutes(minAgeMinutes);
+    }
+
+    @Scheduled(
+            initialDelayString = "${product.images.reconcile.initial-delay-ms:300000}",
+            fixedDelayString = "${product.images.reconcile.interval-ms:21600000}"
+    )
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Orphan image scan failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scans storage once; queues the orphans found if delete-orphans is on.
+     *
+     * @return number of orphans found (0 if a scan is already running)
+     */
+    public int reconcile() {
+        if (!lock.tryLock()) {
+            return 0;
+        }
+        try {
+            List<String> stored = imageUploadService.listImages(
+                    ProductImageService.IMAGE_FOLDER, Instant.now().minus(minAge));
+
+            int orphans = 0;
+            for (int from = 0; from < stored.size(); from += CHUNK) {
+                List<String> chunk = stored.subList(from, Math.min(from + CHUNK, stored.size()));
+                List<String> found = orphansIn(chunk);
+                if (deleteOrphans) {
+                    deleteQueue.enqueue(found);
+                }
+                orphans += found.size();
+            }
+
+            lastReconcileAt = LocalDateTime.now();
+            lastScanned = stored.size();
+            lastOrphans = orphans;
+            if (orphans > 0 && deleteOrphans) {
+                log.info("Queued {} orphaned image(s) of {} stored for deletion", orphans, stored.size());
+            } else if (orphans > 0) {
+                log.info("Found {} orphaned image(s) of {} stored (report only, nothing queued)",
+                        orphans, stored.size());
+            }
+            return orphans;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ImageCleanupStats stats() {
+        return new ImageCleanupStats(
+                taskRepository.countByStatus(ImageDeleteStatus.PENDING),
+                taskRepository.countByStatus(ImageDeleteStatus.FAILED),
+                deleteWorker.deletedCount(),
+                deleteWorker.retriedCount(),
+                lastReconcileAt,
+                lastScanned,
+                lastOrphans
+        );
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    // Stored ids that no image row uses and that are not queued already
+    List<String> orphansIn(List<String> publicIds) {
+        Set<String> known = new HashSet<>(taskRepository.findQueuedPublicIds(publicIds));
+        for (Object[] row : productImageRepository.findRenditionIdsUsing(publicIds)) {
+            for (Object id : row) {
+                if (id != null) {
+                    known.add((String) id);
+                }
+            }
+        }
+
+        List<String> orphans = new ArrayList<>();
+        for (String publicId : publicIds) {
+            if (!known.contains(publicId)) {
+                orphans.add(publicId);
+            }
+        }
+        return orphans;
+    }
+}
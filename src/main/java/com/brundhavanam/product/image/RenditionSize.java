@@ -0,0 +1,22 @@
+package com.brundhavanam.product.image;
+
+/**
+ * Sizes produced for every product image (longest edge, in pixels).
+ * Smaller originals are never upscaled.
+ */
+public enum RenditionSize {
+
+    THUMBNAIL(160),   // cart lines, search suggestions
+    CARD(480),        // catalog listings (mainImageUrl)
+    DETAIL(1280);     // product page gallery (imageUrls)
+
+    private final int maxEdge;
+
+    RenditionSize(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int maxEdge() {
+        return maxEdge;
+    }
+}
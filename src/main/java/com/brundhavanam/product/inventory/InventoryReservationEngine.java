@@ -0,0 +1,308 @@
+package com.brundhavanam.product.inventory;
+
+import com.brundhavanam.common.exception.BadRequestException;
+import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory stock reservations for hot SKUs.
+ *
+ * Checkout reserves against per-variant {@link VariantCounter}s with lock-free CAS,
+ * so concurrent buyers of one variant no longer queue on its row lock.
+ * Confirmation turns the reservation into a pending deduction (order CONFIRMED,
+ * stockDeducted = false) which {@link StockReconciler} applies to the stock column
+ * in batches.
+ *
+ * Expiry is tracked in a {@link TimingWheel}: {@link ReservationSweeper} advances it
+ * and only touches reservations that are due. Open reservations are rebuilt from
+ * CREATED orders on startup.
+ *
+ * The stock column stays the final authority: the reconciler deducts with a
+ * conditional UPDATE. Counters are per instance, so a multi-node deployment only
+ * gets best-effort reservations per node.
+ */
+@Slf4j
+@Component
+public class InventoryReservationEngine {
+
+    private static final int REFRESH_ATTEMPTS = 5;
+
+    private final ProductVariantRepository variantRepository;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<Long, VariantCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    // Expiry index (1s ticks); stale entries (released / replaced) are skipped when they fire
+    private final TimingWheel<Reservation> expiries =
+            new TimingWheel<>(1000, System.currentTimeMillis(), Reservation::expiresAt);
+
+    public InventoryReservationEngine(
+            ProductVariantRepository variantRepository,
+            @Value("${inventory.reservation.ttl-minutes:15}") long ttlMinutes
+    ) {
+        this.variantRepository = variantRepository;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    // =========================================================
+    // Reservations
+    // =========================================================
+
+    /**
+     * Reserves every line of an order, all or nothing.
+     *
+     * @param quantities variant id -> quantity (sorted by variant id)
+     * @param labels     variant id -> label, for the error message
+     * @throws BadRequestException if any line cannot be reserved
+     */
+    public Reservation reserve(Long orderId, SortedMap<Long, Integer> quantities, Map<Long, String> labels) {
+
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>(quantities.size());
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (!counter(line.getKey()).tryReserve(line.getValue())) {
+                for (Map.Entry<Long, Integer> undo : taken) {
+                    counter(undo.getKey()).release(orderId, undo.getValue());
+                }
+                throw new BadRequestException("Insufficient stock for "
+                        + labels.getOrDefault(line.getKey(), String.valueOf(line.getKey())));
+            }
+            taken.add(line);
+        }
+
+        Reservation reservation = new Reservation(
+                orderId,
+                new TreeMap<>(quantities),
+                System.currentTimeMillis() + ttlMillis
+        );
+
+        Reservation previous = reservations.put(orderId, reservation);
+        if (previous != null) {
+            releaseCounters(previous); // re-reserve replaces the old hold
+        }
+        expiries.add(reservation);
+        return reservation;
+    }
+
+    /**
+     * Re-establishes a hold that already existed before a restart (CREATED order).
+     * Not checked against availability: the order was accepted at checkout.
+     *
+     * @return false if the order already has a reservation or the hold is already past its expiry
+     */
+    public boolean restore(Long orderId, SortedMap<Long, Integer> quantities, long expiresAt) {
+        Reservation reservation = new Reservation(orderId, new TreeMap<>(quantities), expiresAt);
+        if (expiresAt <= System.currentTimeMillis() || reservations.putIfAbsent(orderId, reservation) != null) {
+            return false;
+        }
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            try {
+                counter(line.getKey()).forceReserve(line.getValue());
+            } catch (ResourceNotFoundException e) {
+                // variant deleted since checkout; nothing to hold
+            }
+        }
+        expiries.add(reservation);
+        return true;
+    }
+
+    public boolean hasReservation(Long orderId) {
+        return reservations.containsKey(orderId);
+    }
+
+    /**
+     * Releases the order's reservation (cancel / expiry / failed checkout).
+     *
+     * @return true if a reservation was held
+     */
+    public boolean release(Long orderId) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation == null) {
+            return false;
+        }
+        releaseCounters(reservation);
+        return true;
+    }
+
+    /**
+     * Call inside the confirming transaction, just before it commits. Until
+     * {@link #commit} or {@link #abortCommit}, a DB re-read of the order's variants
+     * adds its quantities back: the hold is still counted in memory even once the
+     * confirmation is visible as a pending deduction.
+     */
+    public void beginCommit(Long orderId) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            return;
+        }
+        for (Long variantId : reservation.quantities().keySet()) {
+            VariantCounter counter = counters.get(variantId);
+            if (counter != null) {
+                counter.beginCommit(orderId);
+            }
+        }
+    }
+
+    /**
+     * The confirming transaction rolled back: the hold stays a plain reservation.
+     */
+    public void abortCommit(Long orderId) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            return; // released, which already cleared the mark
+        }
+        for (Long variantId : reservation.quantities().keySet()) {
+            VariantCounter counter = counters.get(variantId);
+            if (counter != null) {
+                counter.abortCommit(orderId);
+            }
+        }
+    }
+
+    /**
+     * Call after the confirming transaction commits: the order's quantities now
+     * count as pending deductions in the DB, so each hold moves from "reserved"
+     * to effective stock in memory. No DB re-read: a read here would also see
+     * other confirmations whose holds are not committed yet and count them twice.
+     */
+    public void commit(Long orderId, Collection<Long> variantIds) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation == null) {
+            refresh(variantIds); // hold already gone (expired); re-sync from the DB
+            return;
+        }
+        List<Long> stale = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : reservation.quantities().entrySet()) {
+            VariantCounter counter = counters.get(line.getKey());
+            if (counter != null && !counter.commit(orderId, line.getValue())) {
+                stale.add(line.getKey()); // counter reloaded after the hold was taken
+            }
+        }
+        if (!stale.isEmpty()) {
+            refresh(stale);
+        }
+    }
+
+    // =========================================================
+    // Counters
+    // =========================================================
+
+    /**
+     * Live available-to-sell for a variant (stock - pending deductions - reservations).
+     */
+    public int available(Long variantId) {
+        return counter(variantId).available();
+    }
+
+    /**
+     * Re-reads effective stock after a committed change to the stock column
+     * or to pending deductions (admin edit, cancel).
+     * Holds that are committing are added back (see {@link #beginCommit}).
+     */
+    public void refresh(Collection<Long> variantIds) {
+        for (Long variantId : variantIds) {
+            VariantCounter counter = counters.get(variantId);
+            if (counter != null) {
+                refresh(variantId, counter);
+            }
+        }
+    }
+
+    private void refresh(Long variantId, VariantCounter counter) {
+        for (int attempt = 1; attempt <= REFRESH_ATTEMPTS; attempt++) {
+            int version = counter.version();
+            List<Long> committing = counter.committingOrders();
+            Long effective = (committing.isEmpty()
+                    ? variantRepository.findEffectiveStock(variantId)
+                    : variantRepository.findEffectiveStockExcluding(variantId, committing))
+                    .orElse(null);
+            if (effective == null) {
+                counters.remove(variantId, counter); // variant deleted
+                return;
+            }
+            if (counter.resetEffectiveStock(effective.intValue(), version)) {
+                return;
+            }
+        }
+        log.warn("Stock counter of variant {} kept its value: confirmations kept committing during {} re-reads",
+                variantId, REFRESH_ATTEMPTS);
+    }
+
+    /**
+     * Admin stock / variant edits: refresh all counters of the product.
+     * Order-driven stock changes refresh their own variants.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.VARIANTS_CHANGED) {
+            refresh(variantRepository.findByProductId(event.productId()).stream()
+                    .map(ProductVariant::getId)
+                    .toList());
+        }
+    }
+
+    /**
+     * Releases reservations whose expiry tick has passed.
+     * Cost is proportional to the reservations that expire, not to those held.
+     *
+     * @return ids of orders whose hold was released by this call
+     */
+    public List<Long> expire(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        expiries.advance(nowMillis, reservation -> {
+            // Skip entries released, confirmed or replaced since they were scheduled
+            if (reservations.remove(reservation.orderId(), reservation)) {
+                releaseCounters(reservation);
+                expired.add(reservation.orderId());
+            }
+        });
+        return expired;
+    }
+
+    public int liveReservations() {
+        return reservations.size();
+    }
+
+    private void releaseCounters(Reservation reservation) {
+        for (Map.Entry<Long, Integer> line : reservation.quantities().entrySet()) {
+            VariantCounter counter = counters.get(line.getKey());
+            if (counter != null) {
+                counter.release(reservation.orderId(), line.getValue());
+            }
+        }
+    }
+
+    // Loaded outside the map: computeIfAbsent would run the query under the bin lock.
+    // A new counter holds nothing yet, so nothing is committing on it either.
+    private VariantCounter counter(Long variantId) {
+        VariantCounter counter = counters.get(variantId);
+        if (counter != null) {
+            return counter;
+        }
+        VariantCounter loaded = new VariantCounter(loadEffectiveStock(variantId));
+        VariantCounter raced = counters.putIfAbsent(variantId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private int loadEffectiveStock(Long variantId) {
+        return variantRepository.findEffectiveStock(variantId)
+                .map(Long::intValue)
+                .orElseThrow(() -> new ResourceNotFoundException("Variant not found"));
+    }
+}
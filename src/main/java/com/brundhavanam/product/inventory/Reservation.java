@@ -0,0 +1,12 @@
+package com.brundhavanam.product.inventory;
+
+import java.util.SortedMap;
+
+/**
+ * Stock held for one order between checkout and confirmation.
+ *
+ * @param quantities variant id -> quantity, sorted by variant id
+ * @param expiresAt  epoch millis after which the hold is released
+ */
+public record Reservation(Long orderId, SortedMap<Long, Integer> quantities, long expiresAt) {
+}
@@ -0,0 +1,114 @@
+package com.brundhavanam.product.inventory;
+
+import com.brundhavanam.order.repository.OrderItemRepository;
+import com.brundhavanam.order.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires checkout reservations.
+ *
+ * - Every tick the engine's timing wheel hands back only the reservations that
+ *   are due; their orders are cancelled with one bulk UPDATE per chunk
+ *   (only orders still CREATED, so a concurrent confirm wins)
+ * - On startup, holds for CREATED orders are rebuilt from one query; orders
+ *   whose hold lapsed while the app was down are cancelled
+ */
+@Slf4j
+@Component
+public class ReservationSweeper {
+
+    private static final int CANCEL_CHUNK = 500;
+
+    private final InventoryReservationEngine inventory;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+
+    public ReservationSweeper(
+            InventoryReservationEngine inventory,
+            OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.reservation.ttl-minutes:15}") long ttlMinutes
+    ) {
+        this.inventory = inventory;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:1000}")
+    public void sweep() {
+        List<Long> expired = inventory.expire(System.currentTimeMillis());
+        if (!expired.isEmpty()) {
+            int cancelled = cancelCreated(expired);
+            log.info("Released {} expired stock reservation(s), cancelled {} order(s)", expired.size(), cancelled);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        // orderId -> (createdAt, variant -> qty)
+        Map<Long, LocalDateTime> createdAt = new LinkedHashMap<>();
+        Map<Long, SortedMap<Long, Integer>> lines = new LinkedHashMap<>();
+
+        for (Object[] row : orderItemRepository.findOpenReservationLines()) {
+            Long orderId = (Long) row[0];
+            createdAt.put(orderId, (LocalDateTime) row[1]);
+            lines.computeIfAbsent(orderId, id -> new TreeMap<>())
+                 .merge((Long) row[2], (Integer) row[3], Integer::sum);
+        }
+
+        List<Long> lapsed = new ArrayList<>();
+        int restored = 0;
+
+        for (Map.Entry<Long, SortedMap<Long, Integer>> order : lines.entrySet()) {
+            LocalDateTime created = createdAt.get(order.getKey());
+            long expiresAt = (created == null ? System.currentTimeMillis()
+                    : created.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()) + ttlMillis;
+
+            if (expiresAt <= System.currentTimeMillis()) {
+                lapsed.add(order.getKey());
+            } else if (inventory.restore(order.getKey(), order.getValue(), expiresAt)) {
+                restored++;
+            }
+        }
+
+        int cancelled = lapsed.isEmpty() ? 0 : cancelCreated(lapsed);
+        log.info("Stock reservations rebuilt: {} restored, {} lapsed order(s) cancelled", restored, cancelled);
+    }
+
+    private int cancelCreated(List<Long> orderIds) {
+        int cancelled = 0;
+        for (int from = 0; from < orderIds.size(); from += CANCEL_CHUNK) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + CANCEL_CHUNK, orderIds.size()));
+            try {
+                Integer updated = transactionTemplate.execute(status -> orderRepository.cancelCreated(chunk));
+                cancelled += updated == null ? 0 : updated;
+            } catch (RuntimeException e) {
+                log.warn("Could not cancel {} expired order(s)", chunk.size(), e);
+            }
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,179 @@
+package com.brundhavanam.product.inventory;
+
+import com.brundhavanam.common.enums.OrderStatus;
+import com.brundhavanam.order.entity.Order;
+import com.brundhavanam.order.entity.OrderItem;
+import com.brundhavanam.order.repository.OrderItemRepository;
+import com.brundhavanam.order.repository.OrderRepository;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Applies pending stock deductions (orders confirmed with stockDeducted = false)
+ * to the stock column in batches.
+ *
+ * One conditional UPDATE per variant per batch, in ascending variant id order,
+ * instead of one locked read + save per order line. If a batch hits a variant
+ * without enough stock, its orders are retried one by one so only the
+ * offending order stays pending; it is parked (stockRetryAt) for park-seconds
+ * so it neither fills later batches nor forces every round onto the slow path.
+ *
+ * Effective stock (stock minus pending) does not change here, so the in-memory
+ * counters need no update.
+ */
+@Slf4j
+@Component
+public class StockReconciler {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductVariantRepository variantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long parkSeconds;
+
+    // Same statuses findPendingStockDeductions excludes
+    private static final Set<OrderStatus> NOT_DEDUCTIBLE = EnumSet.of(OrderStatus.CREATED, OrderStatus.CANCELLED);
+
+    public StockReconciler(
+            OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
+            ProductVariantRepository variantRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.reconcile.batch-size:200}") int batchSize,
+            @Value("${inventory.reconcile.park-seconds:300}") long parkSeconds
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.variantRepository = variantRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.parkSeconds = parkSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reconcile.interval-ms:1000}")
+    public void reconcile() {
+        Integer processed;
+        do {
+            processed = reconcileBatch();
+        } while (processed != null && processed == batchSize);
+    }
+
+    private Integer reconcileBatch() {
+        try {
+            return transactionTemplate.execute(status -> {
+                List<Order> orders = orderRepository.findPendingStockDeductions(LocalDateTime.now(), Limit.of(batchSize));
+                if (!orders.isEmpty()) {
+                    deduct(orders);
+                }
+                return orders.size();
+            });
+        } catch (InsufficientStockException e) {
+            return reconcileOneByOne();
+        }
+    }
+
+    // Slow path: isolate the order(s) that cannot be deducted and park them
+    private Integer reconcileOneByOne() {
+        List<Long> orderIds = transactionTemplate.execute(status ->
+                orderRepository.findPendingStockDeductions(LocalDateTime.now(), Limit.of(batchSize)).stream()
+                        .map(Order::getId)
+                        .toList());
+        if (orderIds == null) {
+            return 0;
+        }
+
+        for (Long orderId : orderIds) {
+            try {
+                // Re-checked under the lock: the id list is from an earlier transaction,
+                // and a cancel in between must not have its stock deducted
+                transactionTemplate.executeWithoutResult(status ->
+                        orderRepository.findByIdForUpdate(orderId)
+                                .filter(StockReconciler::isPendingDeduction)
+                                .ifPresent(o -> deduct(List.of(o))));
+            } catch (InsufficientStockException e) {
+                if (!park(orderId, e.variantId)) {
+                    return 0; // could not park; stop this round
+                }
+            }
+        }
+        return orderIds.size();
+    }
+
+    private boolean park(Long orderId, Long variantId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    orderRepository.findByIdForUpdate(orderId).ifPresent(order -> {
+                        if (order.getStockRetryAt() == null) {
+                            log.error("Order {} is confirmed but variant {} has insufficient stock; "
+                                    + "retrying every {}s", orderId, variantId, parkSeconds);
+                        }
+                        order.setStockRetryAt(LocalDateTime.now().plusSeconds(parkSeconds));
+                    }));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not park order {}: {}", orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isPendingDeduction(Order order) {
+        return !Boolean.TRUE.equals(order.getStockDeducted()) && !NOT_DEDUCTIBLE.contains(order.getStatus());
+    }
+
+    private void deduct(List<Order> orders) {
+
+        List<OrderItem> items = orderItemRepository.findByOrderIdIn(orders.stream().map(Order::getId).toList());
+
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductVariantId(), item.getQuantity(), Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (variantRepository.deductStock(line.getKey(), line.getValue()) == 0) {
+                throw new InsufficientStockException(line.getKey()); // rolls back the batch
+            }
+        }
+
+        for (Order order : orders) {
+            order.setStockDeducted(true);
+            order.setStockRetryAt(null);
+        }
+
+        if (!quantities.isEmpty()) {
+            for (Long productId : variantRepository.findProductIdsByIdIn(quantities.keySet())) {
+                eventPublisher.publishEvent(CatalogChangedEvent.of(productId, CatalogChangedEvent.Type.STOCK_CHANGED));
+            }
+        }
+    }
+
+    private static final class InsufficientStockException extends RuntimeException {
+
+        private final Long variantId;
+
+        InsufficientStockException(Long variantId) {
+            super(null, null, false, false);
+            this.variantId = variantId;
+        }
+    }
+}
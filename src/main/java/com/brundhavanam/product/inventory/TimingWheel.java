@@ -0,0 +1,135 @@
+package com.brundhavanam.product.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hierarchical timing wheel for expiring items without scanning them.
+ *
+ * - Level 0 has {@code SLOTS} buckets of one tick each; level n buckets span SLOTS^n ticks
+ * - An item goes into the lowest level whose range covers its deadline
+ * - Each tick fires one level-0 bucket; when a level wraps, the next level's
+ *   current bucket is cascaded down (re-placed with finer resolution)
+ *
+ * add() and advance() are O(1) per item (amortized over cascades), so cost is
+ * proportional to items that expire, not to items held.
+ *
+ * Items are never removed early: callers ignore fired items that are no longer live.
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;      // 64
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;             // 64^4 ticks (~194 days at 1s)
+
+    private final long tickMillis;
+    private final ToLongFunction<T> deadline;
+
+    private final List<List<T>> buckets = new ArrayList<>(LEVELS * SLOTS);
+    private final List<T> overflow = new ArrayList<>();
+
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long nowMillis, ToLongFunction<T> deadline) {
+        this.tickMillis = tickMillis;
+        this.deadline = deadline;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * @return false if the item is already due (caller should expire it now)
+     */
+    synchronized boolean add(T item) {
+        if (!place(item)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Fires every item whose deadline tick has been reached by nowMillis.
+     */
+    void advance(long nowMillis, Consumer<T> onExpire) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade(expired);
+
+                List<T> bucket = buckets.get((int) (currentTick & MASK));
+                expired.addAll(bucket);
+                size -= bucket.size();
+                bucket.clear();
+            }
+        }
+        // Callbacks run outside the wheel lock
+        expired.forEach(onExpire);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private boolean place(T item) {
+        // Round up: an item never fires before its deadline (at most one tick late)
+        long expiresTick = Math.floorDiv(deadline.applyAsLong(item) + tickMillis - 1, tickMillis);
+        long delta = expiresTick - currentTick;
+
+        if (delta <= 0) {
+            return false;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                int slot = (int) ((expiresTick >>> (BITS * level)) & MASK);
+                buckets.get(level * SLOTS + slot).add(item);
+                return true;
+            }
+        }
+
+        overflow.add(item); // beyond the top level; re-placed when the top level wraps
+        return true;
+    }
+
+    // Re-places the current bucket of every level whose lower level just wrapped
+    private void cascade(List<T> expired) {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> (BITS * level)) & MASK);
+            List<T> bucket = buckets.get(level * SLOTS + slot);
+            replace(bucket, expired);
+        }
+        if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+            replace(overflow, expired);
+        }
+    }
+
+    private void replace(List<T> items, List<T> expired) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<T> moving = new ArrayList<>(items);
+        items.clear();
+        for (T item : moving) {
+            if (!place(item)) {
+                expired.add(item);
+                size--;
+            }
+        }
+    }
+}
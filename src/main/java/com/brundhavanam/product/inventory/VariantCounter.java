@@ -0,0 +1,122 @@
+package com.brundhavanam.product.inventory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Available-to-sell counter for one variant.
+ *
+ * available = effectiveStock - reserved
+ *
+ * - effectiveStock: stock column minus confirmed-but-not-yet-deducted quantities;
+ *   only changed under this object's monitor
+ * - available is the gate for reservations and changes with a single CAS, so
+ *   a hold turning into a pending deduction (commit) never moves it
+ * - committing: orders whose confirmation may already be visible in the DB while
+ *   their hold is still counted in reserved; a DB re-read adds them back
+ * - version: bumped on every change to committing, so a re-read that raced one is retried
+ */
+final class VariantCounter {
+
+    private int effectiveStock;
+
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger available;
+
+    private final Set<Long> committing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger version = new AtomicInteger();
+
+    VariantCounter(int effectiveStock) {
+        this.effectiveStock = effectiveStock;
+        this.available = new AtomicInteger(effectiveStock);
+    }
+
+    /**
+     * @return true if qty was reserved, false if not enough is available
+     */
+    boolean tryReserve(int qty) {
+        for (;;) {
+            int current = available.get();
+            if (current < qty) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - qty)) {
+                reserved.addAndGet(qty);
+                return true;
+            }
+        }
+    }
+
+    // Restores a hold taken before a restart, even if it overcommits
+    void forceReserve(int qty) {
+        available.addAndGet(-qty);
+        reserved.addAndGet(qty);
+    }
+
+    void release(Long orderId, int qty) {
+        reserved.addAndGet(-qty);
+        available.addAndGet(qty);
+        abortCommit(orderId);
+    }
+
+    // The confirming transaction is about to commit; the hold stays reserved until commit()
+    void beginCommit(Long orderId) {
+        committing.add(orderId);
+        version.incrementAndGet();
+    }
+
+    void abortCommit(Long orderId) {
+        if (committing.remove(orderId)) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * The order was confirmed: its hold is now a pending deduction (available unchanged).
+     *
+     * @return false if this counter never saw the hold begin committing (nothing changed)
+     */
+    synchronized boolean commit(Long orderId, int qty) {
+        if (!committing.remove(orderId)) {
+            return false;
+        }
+        effectiveStock -= qty;
+        reserved.addAndGet(-qty);
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Fresh effective stock from the DB; applied as a delta so concurrent holds are kept.
+     *
+     * @param effective       read with {@link #committingOrders()} added back
+     * @param expectedVersion {@link #version()} taken before those orders were read
+     * @return false if a hold began or finished committing meanwhile (read again)
+     */
+    synchronized boolean resetEffectiveStock(int effective, int expectedVersion) {
+        if (version.get() != expectedVersion) {
+            return false;
+        }
+        available.addAndGet(effective - effectiveStock);
+        effectiveStock = effective;
+        return true;
+    }
+
+    int version() {
+        return version.get();
+    }
+
+    List<Long> committingOrders() {
+        return List.copyOf(committing);
+    }
+
+    int reserved() {
+        return reserved.get();
+    }
+
+    int available() {
+        return available.get();
+    }
+}
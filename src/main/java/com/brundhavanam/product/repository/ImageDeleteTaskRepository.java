@@ -0,0 +1,38 @@
+package com.brundhavanam.product.repository;
+
+import com.brundhavanam.common.enums.ImageDeleteStatus;
+import com.brundhavanam.product.entity.ImageDeleteTask;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageDeleteTaskRepository extends JpaRepository<ImageDeleteTask, Long> {
+
+    /**
+     * PENDING tasks whose next attempt is due (oldest first).
+     * Rows claimed by another instance are skipped, not waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("SELECT t FROM ImageDeleteTask t "
+            + "WHERE t.status = com.brundhavanam.common.enums.ImageDeleteStatus.PENDING "
+            + "AND t.nextAttemptAt <= :now ORDER BY t.nextAttemptAt")
+    List<ImageDeleteTask> findDue(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Which of these publicIds already have a task (pending or failed).
+     */
+    @Query("SELECT DISTINCT t.publicId FROM ImageDeleteTask t WHERE t.publicId IN :publicIds")
+    List<String> findQueuedPublicIds(@Param("publicIds") Collection<String> publicIds);
+
+    long countByStatus(ImageDeleteStatus status);
+}
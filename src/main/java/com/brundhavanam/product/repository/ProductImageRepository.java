@@ -2,7 +2,10 @@ package com.brundhavanam.product.repository;
 
 import com.brundhavanam.product.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
@@ -12,6 +15,34 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
      */
     List<ProductImage> findByProductIdOrderBySortOrderAsc(Long productId);
 
+    /**
+     * Fetch images of many products at once (used by catalog listings).
+     */
+    List<ProductImage> findByProductIdInOrderBySortOrderAsc(Collection<Long> productIds);
+
+    /**
+     * Highest sort order used by a product's images (0 if it has none);
+     * new uploads are numbered after it.
+     */
+    @Query("SELECT COALESCE(MAX(i.sortOrder), 0) FROM ProductImage i WHERE i.product.id = :productId")
+    int findMaxSortOrder(@Param("productId") Long productId);
+
+    /**
+     * True if any rendition of any product image uses this publicId
+     * (local storage shares one file between identical uploads).
+     */
+    @Query("SELECT COUNT(i) > 0 FROM ProductImage i WHERE i.publicId = :publicId "
+            + "OR i.cardPublicId = :publicId OR i.thumbnailPublicId = :publicId")
+    boolean existsByAnyPublicId(@Param("publicId") String publicId);
+
+    /**
+     * Rendition publicIds of the images that use any of these publicIds.
+     * Rows: [publicId, cardPublicId, thumbnailPublicId]
+     */
+    @Query("SELECT i.publicId, i.cardPublicId, i.thumbnailPublicId FROM ProductImage i "
+            + "WHERE i.publicId IN :publicIds OR i.cardPublicId IN :publicIds OR i.thumbnailPublicId IN :publicIds")
+    List<Object[]> findRenditionIdsUsing(@Param("publicIds") Collection<String> publicIds);
+
     /**
      * Delete all images when product is deleted (optional cleanup).
      */
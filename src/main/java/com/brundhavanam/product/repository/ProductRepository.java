@@ -2,8 +2,7 @@ package com.brundhavanam.product.repository;
 
 import com.brundhavanam.product.entity.Product;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -15,16 +14,9 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     // Optional: filter by category
     List<Product> findByActiveTrueAndCategoryIgnoreCase(String category);
-    
-    //-----------------for search API------------------
-    
-    // ✅ USER Search: Only active products
-    Page<Product> findByActiveTrueAndNameContainingIgnoreCaseOrActiveTrueAndDescriptionContainingIgnoreCaseOrActiveTrueAndCategoryContainingIgnoreCase(
-            String name, String description, String category, Pageable pageable
-    );
-
-    // ✅ ADMIN Search: All products (active/inactive)
-    Page<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseOrCategoryContainingIgnoreCase(
-            String name, String description, String category, Pageable pageable
-    );
+
+    // Keyset pagination (newest first): first page / pages after a cursor id
+    List<Product> findAllByOrderByIdDesc(Limit limit);
+
+    List<Product> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 }
@@ -1,10 +1,12 @@
 package com.brundhavanam.product.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -18,12 +20,85 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
 
     List<ProductVariant> findByProductIdAndActiveTrue(Long productId);
 
+    // Bulk variants lookup for catalog listings (one IN query instead of one per product)
+    List<ProductVariant> findByProductIdIn(Collection<Long> productIds);
+
+    List<ProductVariant> findByProductIdInAndActiveTrue(Collection<Long> productIds);
+
     Optional<ProductVariant> findByIdAndActiveTrue(Long id);
 
     boolean existsByProductIdAndLabelIgnoreCase(Long productId, String label);
     
     long countByProductIdAndActiveTrue(Long productId);
-    
+
+    /**
+     * Units sold per product across non-cancelled orders (popularity for suggestions).
+     * Rows: [productId, unitsSold]
+     */
+    @Query("SELECT v.product.id, SUM(oi.quantity) "
+            + "FROM OrderItem oi JOIN ProductVariant v ON oi.productVariantId = v.id "
+            + "WHERE oi.order.status <> com.brundhavanam.common.enums.OrderStatus.CANCELLED "
+            + "GROUP BY v.product.id")
+    List<Object[]> sumUnitsSoldPerProduct();
+
+    @Query("SELECT COALESCE(SUM(oi.quantity), 0) "
+            + "FROM OrderItem oi JOIN ProductVariant v ON oi.productVariantId = v.id "
+            + "WHERE v.product.id = :productId "
+            + "AND oi.order.status <> com.brundhavanam.common.enums.OrderStatus.CANCELLED")
+    long sumUnitsSoldByProductId(@Param("productId") Long productId);
+
+    // Variants with their product in one query (cart line details)
+    @Query("SELECT v FROM ProductVariant v JOIN FETCH v.product WHERE v.id IN :ids")
+    List<ProductVariant> findWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT v.id FROM ProductVariant v WHERE v.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Conditional stock deduction: a single statement that locks the row, checks and updates.
+     *
+     * @return 1 if deducted, 0 if the variant is missing or has less than qty in stock
+     */
+    @Modifying
+    @Query("UPDATE ProductVariant v SET v.stock = v.stock - :qty "
+            + "WHERE v.id = :id AND v.stock >= :qty")
+    int deductStock(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE ProductVariant v SET v.stock = v.stock + :qty WHERE v.id = :id")
+    int restoreStock(@Param("id") Long id, @Param("qty") int qty);
+
+    /**
+     * Stock column minus quantities of orders that are confirmed but not yet deducted
+     * (read in one statement, so both parts come from the same snapshot).
+     */
+    @Query("SELECT v.stock - COALESCE((SELECT SUM(oi.quantity) FROM OrderItem oi "
+            + "WHERE oi.productVariantId = v.id AND oi.order.stockDeducted = false "
+            + "AND oi.order.status NOT IN (com.brundhavanam.common.enums.OrderStatus.CREATED, "
+            + "com.brundhavanam.common.enums.OrderStatus.CANCELLED)), 0) "
+            + "FROM ProductVariant v WHERE v.id = :id")
+    Optional<Long> findEffectiveStock(@Param("id") Long id);
+
+    /**
+     * Effective stock as if the given orders did not exist yet: they are still held in memory
+     * while their confirmation commits, so their pending (or already deducted) quantities are
+     * added back instead of being counted a second time.
+     */
+    @Query("SELECT v.stock - COALESCE((SELECT SUM(oi.quantity) FROM OrderItem oi "
+            + "WHERE oi.productVariantId = v.id AND oi.order.stockDeducted = false "
+            + "AND oi.order.status NOT IN (com.brundhavanam.common.enums.OrderStatus.CREATED, "
+            + "com.brundhavanam.common.enums.OrderStatus.CANCELLED) "
+            + "AND oi.order.id NOT IN :orderIds), 0) "
+            + "+ COALESCE((SELECT SUM(oi.quantity) FROM OrderItem oi "
+            + "WHERE oi.productVariantId = v.id AND oi.order.stockDeducted = true "
+            + "AND oi.order.status <> com.brundhavanam.common.enums.OrderStatus.CANCELLED "
+            + "AND oi.order.id IN :orderIds), 0) "
+            + "FROM ProductVariant v WHERE v.id = :id")
+    Optional<Long> findEffectiveStockExcluding(@Param("id") Long id, @Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT DISTINCT v.product.id FROM ProductVariant v WHERE v.id IN :ids")
+    List<Long> findProductIdsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT v FROM ProductVariant v WHERE v.id = :id")
     Optional<ProductVariant> findByIdForUpdate(@Param("id") Long id);
@@ -0,0 +1,258 @@
+package com.brundhavanam.product.search;
+
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded inverted index over product name, description, category and variant labels.
+ *
+ * - Built once at startup, then kept in sync from {@link CatalogChangedEvent}s
+ * - Terms live in a sorted map, so prefix queries ("gh" -> ghee) are a range scan
+ * - Ranking: sum over query tokens of the best field weight, exact match > prefix match
+ * - Multi-word queries are AND-ed: every token must match
+ *
+ * Replaces the LIKE '%q%' search which could not use any index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    // Field weights: a hit in the name matters more than one in the description
+    private static final float NAME_WEIGHT = 4f;
+    private static final float CATEGORY_WEIGHT = 3f;
+    private static final float VARIANT_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository variantRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> weight)
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // productId -> indexed document (needed to remove old terms on update)
+    private Map<Long, IndexedProduct> documents = new HashMap<>();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole index from the database (2 queries) and swaps it in.
+     */
+    public void rebuild() {
+        rebuilding.set(true);
+        try {
+            List<Product> products = productRepository.findAll();
+            Map<Long, List<ProductVariant>> variants = products.isEmpty()
+                    ? Map.of()
+                    : variantRepository.findByProductIdIn(products.stream().map(Product::getId).toList())
+                    .stream()
+                    .collect(Collectors.groupingBy(v -> v.getProduct().getId()));
+
+            NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+            Map<Long, IndexedProduct> newDocuments = new HashMap<>();
+
+            for (Product product : products) {
+                IndexedProduct doc = toDocument(product, variants.getOrDefault(product.getId(), List.of()));
+                newDocuments.put(product.getId(), doc);
+                addPostings(newPostings, product.getId(), doc);
+            }
+
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Product search index built: {} products, {} terms", newDocuments.size(), newPostings.size());
+        } finally {
+            rebuilding.set(false);
+        }
+
+        // Changes committed while we were reading may be missing from the snapshot
+        for (Long productId : List.copyOf(changedDuringRebuild)) {
+            changedDuringRebuild.remove(productId);
+            reindex(productId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT_UPSERTED, VARIANTS_CHANGED, PRODUCT_DELETED -> {
+                if (rebuilding.get()) {
+                    changedDuringRebuild.add(event.productId());
+                }
+                reindex(event.productId());
+            }
+            default -> {
+                // images / stock do not affect search terms
+            }
+        }
+    }
+
+    /**
+     * Re-reads one product (and its variants) and replaces its postings.
+     * Removes the product when it no longer exists.
+     */
+    public void reindex(Long productId) {
+
+        IndexedProduct doc = productRepository.findById(productId)
+                .map(p -> toDocument(p, variantRepository.findByProductId(productId)))
+                .orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            IndexedProduct old = documents.remove(productId);
+            if (old != null) {
+                removePostings(productId, old);
+            }
+            if (doc != null) {
+                documents.put(productId, doc);
+                addPostings(postings, productId, doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked, paginated search.
+     *
+     * @param onlyActive user search hides inactive products, admin search does not
+     */
+    public SearchHits search(String query, boolean onlyActive, int page, int size) {
+
+        List<String> tokens = SearchTokenizer.tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty() || size <= 0 || page < 0) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        Map<Long, Float> scores = null;
+
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND semantics: keep only products matching every token
+                    Map<Long, Float> merged = new HashMap<>();
+                    for (Map.Entry<Long, Float> e : scores.entrySet()) {
+                        Float s = tokenScores.get(e.getKey());
+                        if (s != null) {
+                            merged.put(e.getKey(), e.getValue() + s);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return new SearchHits(List.of(), 0);
+                }
+            }
+
+            if (onlyActive) {
+                scores.keySet().removeIf(id -> !documents.get(id).active());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        long from = (long) page * size;
+        if (from >= ranked.size()) {
+            return new SearchHits(List.of(), ranked.size());
+        }
+        int to = (int) Math.min(from + size, ranked.size());
+        return new SearchHits(List.copyOf(ranked.subList((int) from, to)), ranked.size());
+    }
+
+    // caller holds the read lock
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> result = new HashMap<>();
+
+        // every term starting with the token; the exact term is the first entry of the range
+        for (Map.Entry<String, Map<Long, Float>> term
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_FACTOR;
+            for (Map.Entry<Long, Float> posting : term.getValue().entrySet()) {
+                result.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return result;
+    }
+
+    private static IndexedProduct toDocument(Product product, List<ProductVariant> variants) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        addTerms(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        for (ProductVariant v : variants) {
+            addTerms(terms, v.getLabel(), VARIANT_WEIGHT);
+        }
+        return new IndexedProduct(Boolean.TRUE.equals(product.getActive()), terms);
+    }
+
+    // A term found in several fields accumulates their weights
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : new HashSet<>(SearchTokenizer.indexTerms(text))) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static void addPostings(NavigableMap<String, Map<Long, Float>> target, Long productId, IndexedProduct doc) {
+        for (Map.Entry<String, Float> term : doc.terms().entrySet()) {
+            target.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(productId, term.getValue());
+        }
+    }
+
+    // caller holds the write lock
+    private void removePostings(Long productId, IndexedProduct doc) {
+        for (String term : doc.terms().keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private record IndexedProduct(boolean active, Map<String, Float> terms) {}
+}
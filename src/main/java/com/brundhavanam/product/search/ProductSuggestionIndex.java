@@ -0,0 +1,289 @@
+package com.brundhavanam.product.search;
+
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead index: a character trie over product names, categories and variant labels.
+ *
+ * - Every node keeps its own pre-computed top-k completions, so a lookup is
+ *   one walk down the prefix plus an array copy (no DB, no sorting on the request path)
+ * - Completions are reachable from the start of every word ("ghee" finds "A2 Cow Ghee")
+ * - Popularity = 1 + units sold of the contributing products (non-cancelled orders)
+ * - Reads are lock-free; writes (startup build, catalog events) are serialized
+ *
+ * Updated incrementally from {@link CatalogChangedEvent}s after commit: only the
+ * completions of the changed product are re-ranked, along their trie paths.
+ */
+@Slf4j
+@Component
+public class ProductSuggestionIndex {
+
+    // Default variant created with every product; not a useful suggestion
+    private static final String BASE_VARIANT_LABEL = "BASE";
+
+    private static final Ranked[] EMPTY = new Ranked[0];
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository variantRepository;
+    private final int topK;
+
+    private final Node root = new Node();
+
+    // normalized completion text -> completion (writer side only)
+    private final Map<String, Completion> completions = new HashMap<>();
+
+    // productId -> what the product currently contributes (writer side only)
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+
+    public ProductSuggestionIndex(
+            ProductRepository productRepository,
+            ProductVariantRepository variantRepository,
+            @Value("${catalog.suggest.max-results:10}") int topK
+    ) {
+        this.productRepository = productRepository;
+        this.variantRepository = variantRepository;
+        this.topK = topK;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (Object[] row : variantRepository.sumUnitsSoldPerProduct()) {
+            unitsSold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        List<Product> products = productRepository.findByActiveTrue();
+        Map<Long, List<ProductVariant>> variants = products.isEmpty()
+                ? Map.of()
+                : variantRepository.findByProductIdInAndActiveTrue(products.stream().map(Product::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(v -> v.getProduct().getId()));
+
+        for (Product p : products) {
+            apply(p.getId(),
+                    1 + unitsSold.getOrDefault(p.getId(), 0L),
+                    displaysOf(p, variants.getOrDefault(p.getId(), List.of())));
+        }
+
+        log.info("Product suggestion index built: {} completions", completionCount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT_UPSERTED, VARIANTS_CHANGED, PRODUCT_DELETED -> refresh(event.productId(), null);
+            case STOCK_CHANGED -> refresh(event.productId(),
+                    1 + variantRepository.sumUnitsSoldByProductId(event.productId()));
+            default -> {
+                // images do not affect suggestions
+            }
+        }
+    }
+
+    /**
+     * Top completions for the typed prefix, most popular first.
+     */
+    public List<String> suggest(String query, int limit) {
+
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        Ranked[] top = node.top;
+        int n = Math.min(limit, top.length);
+        List<String> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(top[i].display());
+        }
+        return result;
+    }
+
+    // ================= WRITE SIDE =================
+
+    private void refresh(Long productId, Long popularity) {
+
+        List<String> displays = productRepository.findById(productId)
+                .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                .map(p -> displaysOf(p, variantRepository.findByProductIdAndActiveTrue(productId)))
+                .orElse(List.of());
+
+        apply(productId, popularity, displays);
+    }
+
+    /**
+     * Replaces everything a product contributes and re-ranks the affected completions.
+     *
+     * @param popularity new popularity, or null to keep the current one
+     */
+    private synchronized void apply(Long productId, Long popularity, List<String> displays) {
+
+        Contribution old = contributions.remove(productId);
+        long weight = popularity != null ? popularity : (old != null ? old.popularity() : 1L);
+
+        Set<String> affected = new HashSet<>();
+        if (old != null) {
+            for (String key : old.keys()) {
+                completions.get(key).weights.remove(productId);
+                affected.add(key);
+            }
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (String display : displays) {
+            String key = normalize(display);
+            if (key.isEmpty()) {
+                continue;
+            }
+            completions.computeIfAbsent(key, k -> new Completion(display.trim())).weights.put(productId, weight);
+            keys.add(key);
+            affected.add(key);
+        }
+        if (!keys.isEmpty()) {
+            contributions.put(productId, new Contribution(weight, keys));
+        }
+
+        for (String key : affected) {
+            Completion c = completions.get(key);
+            if (c.weights.isEmpty()) {
+                completions.remove(key);
+                place(key, false);
+            } else {
+                place(key, true);
+            }
+        }
+    }
+
+    // Adds/removes a completion under each of its word starts and re-ranks those paths
+    private void place(String key, boolean present) {
+        for (int start = 0; start < key.length(); start++) {
+            if (start > 0 && key.charAt(start - 1) != ' ') {
+                continue;
+            }
+
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            for (int i = start; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                path.add(node);
+            }
+
+            if (present) {
+                node.terminals.add(key);
+            } else {
+                node.terminals.remove(key);
+            }
+
+            // bottom-up: a node's ranking is built from its children's rankings
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node current = path.get(i);
+                if (i > 0 && current.children.isEmpty() && current.terminals.isEmpty()) {
+                    path.get(i - 1).children.remove(key.charAt(start + i - 1));
+                    continue;
+                }
+                current.top = rank(current);
+            }
+        }
+    }
+
+    private Ranked[] rank(Node node) {
+        Map<String, Ranked> candidates = new HashMap<>();
+        for (String key : node.terminals) {
+            Completion c = completions.get(key);
+            candidates.put(key, new Ranked(key, c.display, c.weight()));
+        }
+        for (Node child : node.children.values()) {
+            for (Ranked r : child.top) {
+                candidates.putIfAbsent(r.key(), r);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return EMPTY;
+        }
+        return candidates.values().stream()
+                .sorted(Comparator.comparingLong(Ranked::weight).reversed()
+                        .thenComparing(Ranked::display))
+                .limit(topK)
+                .toArray(Ranked[]::new);
+    }
+
+    private synchronized int completionCount() {
+        return completions.size();
+    }
+
+    private static List<String> displaysOf(Product product, List<ProductVariant> activeVariants) {
+        List<String> displays = new ArrayList<>();
+        displays.add(product.getName());
+        if (product.getCategory() != null) {
+            displays.add(product.getCategory());
+        }
+        for (ProductVariant v : activeVariants) {
+            if (!BASE_VARIANT_LABEL.equalsIgnoreCase(v.getLabel())) {
+                displays.add(v.getLabel());
+            }
+        }
+        return displays;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFC)
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new ConcurrentHashMap<>();
+        final Set<String> terminals = new HashSet<>();   // writer side only
+        volatile Ranked[] top = EMPTY;                    // read lock-free
+    }
+
+    private static final class Completion {
+        final String display;
+        final Map<Long, Long> weights = new HashMap<>();  // productId -> popularity
+
+        Completion(String display) {
+            this.display = display;
+        }
+
+        long weight() {
+            long sum = 0;
+            for (long w : weights.values()) {
+                sum += w;
+            }
+            return sum;
+        }
+    }
+
+    private record Contribution(long popularity, Set<String> keys) {}
+
+    private record Ranked(String key, String display, long weight) {}
+}
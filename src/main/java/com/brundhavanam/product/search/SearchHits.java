@@ -0,0 +1,14 @@
+package com.brundhavanam.product.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results.
+ *
+ * @param productIds ids of the page, best match first
+ * @param total      number of matching products across all pages
+ */
+public record SearchHits(
+        List<Long> productIds,
+        long total
+) {}
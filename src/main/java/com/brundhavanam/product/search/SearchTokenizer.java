@@ -0,0 +1,110 @@
+package com.brundhavanam.product.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tokenizer shared by indexing and querying.
+ *
+ * - Unicode NFC normalization, lower-cased with Locale.ROOT
+ * - A token is a run of letters, digits and combining marks, so Telugu words
+ *   (consonant + vowel sign / virama) stay in one piece
+ * - Latin tokens get light English plural folding ("berries" -> "berry", "ladoos" -> "ladoo");
+ *   other plural forms are covered by prefix matching at query time
+ * - Indexing keeps the unfolded word next to the folded one, so a prefix typed
+ *   past the folded stem ("berri") still reaches "berries"
+ */
+final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Query tokens: folded words, in order.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String word : words(text)) {
+            tokens.add(fold(word));
+        }
+        return tokens;
+    }
+
+    /**
+     * Index terms: each folded word, plus the word itself where folding changed it.
+     */
+    static List<String> indexTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            String folded = fold(word);
+            terms.add(folded);
+            if (!folded.equals(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> words(String text) {
+
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < normalized.length()) {
+            int cp = normalized.codePointAt(i);
+            if (isTokenChar(cp)) {
+                current.appendCodePoint(cp);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+            i += Character.charCount(cp);
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isTokenChar(int cp) {
+        if (Character.isLetterOrDigit(cp)) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    // Plural folding only for plain ASCII words; other scripts are left untouched
+    private static String fold(String token) {
+        if (token.length() <= 3 || !isAsciiLetters(token)) {
+            return token;
+        }
+        if (token.endsWith("ies")) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static boolean isAsciiLetters(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
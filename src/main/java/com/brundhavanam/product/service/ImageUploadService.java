@@ -1,22 +1,38 @@
 package com.brundhavanam.product.service;
 
-import org.springframework.web.multipart.MultipartFile;
-
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public interface ImageUploadService {
 
     /**
-     * Uploads an image to Cloudinary.
+     * Uploads already-encoded image bytes (e.g. a processed rendition).
      *
-     * @param file Multipart file received from client
-     * @param folder Cloudinary folder name (e.g., "products")
+     * @param data        encoded image
+     * @param contentType e.g. "image/jpeg"
+     * @param folder      Cloudinary folder name (e.g., "products")
      * @return Map containing url and public_id
      */
-    Map<String, String> uploadImage(MultipartFile file, String folder);
+    Map<String, String> uploadImage(byte[] data, String contentType, String folder);
 
     /**
      * Deletes an image from Cloudinary using public_id.
      */
     void deleteImage(String publicId);
+
+    /**
+     * Deletes several images (ImageDeleteWorker batches). Deleting an id that
+     * no longer exists is not an error; any other failure fails the whole call.
+     */
+    default void deleteImages(Collection<String> publicIds) {
+        publicIds.forEach(this::deleteImage);
+    }
+
+    /**
+     * publicIds of the images stored in a folder that were uploaded before the
+     * given time (used to find orphans; newer uploads may not be saved yet).
+     */
+    List<String> listImages(String folder, Instant uploadedBefore);
 }
@@ -5,6 +5,9 @@ import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 
 public interface ProductImageService {
+
+    // Storage folder of product images (also scanned by OrphanImageReconciler)
+    String IMAGE_FOLDER = "products";
 	
     List<String> uploadProductImages(Long productId, List<MultipartFile> images);
     
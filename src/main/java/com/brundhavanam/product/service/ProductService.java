@@ -1,7 +1,10 @@
 package com.brundhavanam.product.service;
 
+import com.brundhavanam.common.response.CursorPage;
+import com.brundhavanam.product.cache.CatalogSnapshot;
 import com.brundhavanam.product.dto.ProductRequest;
 import com.brundhavanam.product.dto.ProductResponse;
+import com.brundhavanam.product.dto.VariantAvailabilityResponse;
 
 import java.util.List;
 
@@ -14,16 +17,25 @@ public interface ProductService {
     ProductResponse update(Long id, ProductRequest request);
     void delete(Long id);
     List<ProductResponse> getAllForAdmin();
+    CursorPage<ProductResponse> getPageForAdmin(String cursor, int size, boolean includeTotal);
 
     // User operations
     List<ProductResponse> getAllForUser();
     ProductResponse getByIdForUser(Long id);
+    List<VariantAvailabilityResponse> getAvailability(Long productId);
 
     // Optional
     List<ProductResponse> getByCategory(String category);
+
+    // Pre-serialized JSON of the user listings (served as bytes with ETag)
+    CatalogSnapshot getAllForUserSnapshot();
+    CatalogSnapshot getByCategorySnapshot(String category);
     
     //---------search API--------------
     Page<ProductResponse> searchForUser(String query, int page, int size);
 
     Page<ProductResponse> searchForAdmin(String query, int page, int size);
+
+    //---------typeahead--------------
+    List<String> suggest(String query, int limit);
 }
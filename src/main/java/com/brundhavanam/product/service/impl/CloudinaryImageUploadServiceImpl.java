@@ -4,17 +4,30 @@ import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.product.service.ImageUploadService;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Cloudinary-based image upload service.
+ *
+ * Uploads the renditions produced by ImageProcessor (already-encoded bytes);
+ * deletes and listings go through the Admin API in batches.
  */
 @Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryImageUploadServiceImpl implements ImageUploadService {
 
+    // Admin API limits: ids per delete call, resources per listing page
+    private static final int DELETE_BATCH = 100;
+    private static final int LIST_PAGE = 500;
+
     private final Cloudinary cloudinary;
 
     public CloudinaryImageUploadServiceImpl(Cloudinary cloudinary) {
@@ -22,32 +35,19 @@ public class CloudinaryImageUploadServiceImpl implements ImageUploadService {
     }
 
     @Override
-    public Map<String, String> uploadImage(MultipartFile file, String folder) {
+    public Map<String, String> uploadImage(byte[] data, String contentType, String folder) {
         try {
-            if (file == null || file.isEmpty()) {
-                throw new BadRequestException("Image file is required");
-            }
-
-            // Optional validation for file types
-            String contentType = file.getContentType();
-            if (contentType == null || (!contentType.startsWith("image/"))) {
-                throw new BadRequestException("Only image files are allowed");
-            }
-
             Map<?, ?> uploadResult = cloudinary.uploader().upload(
-                    file.getBytes(),
+                    data,
                     ObjectUtils.asMap(
                             "folder", folder,
                             "resource_type", "image"
                     )
             );
 
-            String url = (String) uploadResult.get("secure_url");
-            String publicId = (String) uploadResult.get("public_id");
-
             return Map.of(
-                    "url", url,
-                    "publicId", publicId
+                    "url", (String) uploadResult.get("secure_url"),
+                    "publicId", (String) uploadResult.get("public_id")
             );
 
         } catch (Exception e) {
@@ -66,4 +66,52 @@ public class CloudinaryImageUploadServiceImpl implements ImageUploadService {
             throw new BadRequestException("Image delete failed: " + e.getMessage());
         }
     }
+
+    // Up to 100 ids per Admin API call (the Admin API is rate limited per hour, uploader destroy per image)
+    @Override
+    public void deleteImages(Collection<String> publicIds) {
+        List<String> ids = new ArrayList<>(publicIds);
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+            List<String> batch = ids.subList(from, Math.min(from + DELETE_BATCH, ids.size()));
+            try {
+                cloudinary.api().deleteResources(batch, ObjectUtils.asMap(
+                        "type", "upload",
+                        "resource_type", "image"
+                ));
+            } catch (Exception e) {
+                throw new BadRequestException("Image delete failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public List<String> listImages(String folder, Instant uploadedBefore) {
+        List<String> publicIds = new ArrayList<>();
+        String cursor = null;
+        try {
+            do {
+                Map<String, Object> options = new HashMap<>();
+                options.put("type", "upload");
+                options.put("resource_type", "image");
+                options.put("prefix", folder + "/");
+                options.put("max_results", LIST_PAGE);
+                if (cursor != null) {
+                    options.put("next_cursor", cursor);
+                }
+                Map<?, ?> page = cloudinary.api().resources(options);
+
+                for (Object resource : (List<?>) page.get("resources")) {
+                    Map<?, ?> fields = (Map<?, ?>) resource;
+                    Instant createdAt = Instant.parse((String) fields.get("created_at"));
+                    if (createdAt.isBefore(uploadedBefore)) {
+                        publicIds.add((String) fields.get("public_id"));
+                    }
+                }
+                cursor = (String) page.get("next_cursor");
+            } while (cursor != null);
+        } catch (Exception e) {
+            throw new BadRequestException("Image listing failed: " + e.getMessage());
+        }
+        return publicIds;
+    }
 }
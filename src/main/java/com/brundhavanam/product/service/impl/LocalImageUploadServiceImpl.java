@@ -0,0 +1,230 @@
+package com.brundhavanam.product.service.impl;
+
+import com.brundhavanam.common.exception.BadRequestException;
+import com.brundhavanam.product.repository.ProductImageRepository;
+import com.brundhavanam.product.service.ImageUploadService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local filesystem image store (image.storage=local), for self-hosted runs
+ * and offline development.
+ *
+ * - Content-addressed: an image is stored once under the SHA-256 of its bytes
+ *   ({@code <dir>/ab/cd/<sha256>.<ext>}); uploading identical bytes again
+ *   returns the same publicId without writing anything
+ * - Files are written to a temp file with a FileChannel, forced to disk and
+ *   atomically renamed into place, so readers never see a partial image
+ * - Served by ImageFileController (Range / ETag, zero-copy)
+ *
+ * Because identical uploads share one file, deleteImage keeps a file that a
+ * product image still references, or that was (re)uploaded within the grace
+ * period (its row may not be inserted yet).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "local")
+public class LocalImageUploadServiceImpl implements ImageUploadService {
+
+    private static final Pattern PUBLIC_ID = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp"
+    );
+
+    private final Path root;
+    private final Path tmp;
+    private final String urlPrefix;
+    private final boolean fsync;
+    private final long deleteGraceMillis;
+    private final ProductImageRepository productImageRepository;
+
+    public LocalImageUploadServiceImpl(
+            ProductImageRepository productImageRepository,
+            @Value("${image.local.dir:data/images}") String dir,
+            @Value("${image.local.url-prefix:/api/v1/images}") String urlPrefix,
+            @Value("${image.local.fsync:true}") boolean fsync,
+            @Value("${image.local.delete-grace-seconds:300}") long deleteGraceSeconds
+    ) {
+        this.productImageRepository = productImageRepository;
+        this.root = Path.of(dir).toAbsolutePath().normalize();
+        this.tmp = root.resolve("tmp");
+        this.urlPrefix = urlPrefix;
+        this.fsync = fsync;
+        this.deleteGraceMillis = TimeUnit.SECONDS.toMillis(deleteGraceSeconds);
+        try {
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create image directory " + root, e);
+        }
+    }
+
+    @Override
+    public Map<String, String> uploadImage(byte[] data, String contentType, String folder) {
+        String extension = extensionOf(contentType);
+
+        Path staged = null;
+        try {
+            staged = Files.createTempFile(tmp, "upload-", ".tmp");
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            return store(staged, sha256(data), extension);
+        } catch (IOException e) {
+            throw new BadRequestException("Image upload failed: " + e.getMessage());
+        } finally {
+            deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public void deleteImage(String publicId) {
+        Path path = locate(publicId).orElse(null);
+        if (path == null) {
+            return;
+        }
+        try {
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis();
+            if (age < deleteGraceMillis || productImageRepository.existsByAnyPublicId(publicId)) {
+                return; // shared with another image, or possibly about to be
+            }
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new BadRequestException("Image delete failed: " + e.getMessage());
+        }
+    }
+
+    // One namespace for all folders; uploadedBefore compares against the last (re)upload
+    @Override
+    public List<String> listImages(String folder, Instant uploadedBefore) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                    .filter(path -> !path.startsWith(tmp))
+                    .filter(path -> PUBLIC_ID.matcher(path.getFileName().toString()).matches())
+                    .filter(path -> lastModified(path).isBefore(uploadedBefore))
+                    .map(path -> path.getFileName().toString())
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            throw new BadRequestException("Image listing failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * File of a stored image; empty if the id is malformed or nothing is stored under it.
+     */
+    public Optional<Path> locate(String publicId) {
+        if (publicId == null || !PUBLIC_ID.matcher(publicId).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(publicId);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private Map<String, String> store(Path staged, String sha256, String extension) throws IOException {
+        String publicId = sha256 + "." + extension;
+        Path target = pathOf(publicId);
+
+        if (Files.exists(target)) {
+            // Same bytes already stored; refresh mtime so a pending delete keeps it
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        } else {
+            if (fsync) {
+                try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Concurrent upload of the same bytes won; identical content
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        return Map.of(
+                "url", urlPrefix + "/" + publicId,
+                "publicId", publicId
+        );
+    }
+
+    private static Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (IOException e) {
+            // Deleted while walking: never reported
+            return Instant.MAX;
+        }
+    }
+
+    // Two directory levels keep directories small (ab/cd/abcd....jpg)
+    private Path pathOf(String publicId) {
+        return root.resolve(publicId.substring(0, 2)).resolve(publicId.substring(2, 4)).resolve(publicId);
+    }
+
+    private static String extensionOf(String contentType) {
+        String extension = contentType == null ? null : EXTENSIONS.get(contentType.toLowerCase());
+        if (extension == null) {
+            throw new BadRequestException("Only JPEG, PNG, GIF and WebP images are allowed");
+        }
+        return extension;
+    }
+
+    private static String sha256(byte[] data) {
+        return HexFormat.of().formatHex(digest().digest(data));
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteIfExists(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path, e);
+        }
+    }
+}
@@ -4,56 +4,154 @@ import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
 import com.brundhavanam.product.entity.Product;
 import com.brundhavanam.product.entity.ProductImage;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.image.ImageDeleteQueue;
+import com.brundhavanam.product.image.ImageProcessor;
+import com.brundhavanam.product.image.ImageRendition;
+import com.brundhavanam.product.image.RenditionSize;
 import com.brundhavanam.product.repository.ProductImageRepository;
 import com.brundhavanam.product.repository.ProductRepository;
 import com.brundhavanam.product.service.ImageUploadService;
 import com.brundhavanam.product.service.ProductImageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+@Slf4j
 @Service
 public class ProductImageServiceImpl implements ProductImageService {
 
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
     private final ImageUploadService imageUploadService;
+    private final ImageProcessor imageProcessor;
+    private final ImageDeleteQueue imageDeleteQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /*
+     * Uploads of one request run in parallel on this pool.
+     * Bounded on both threads and queue; when both are full the request
+     * thread uploads the file itself (back-pressure instead of rejection).
+     */
+    private final ThreadPoolExecutor uploadExecutor;
+    private final int maxFilesPerRequest;
 
     public ProductImageServiceImpl(ProductRepository productRepository,
                                    ProductImageRepository productImageRepository,
-                                   ImageUploadService imageUploadService) {
+                                   ImageUploadService imageUploadService,
+                                   ImageProcessor imageProcessor,
+                                   ImageDeleteQueue imageDeleteQueue,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${product.images.upload.threads:8}") int uploadThreads,
+                                   @Value("${product.images.upload.queue-capacity:64}") int queueCapacity,
+                                   @Value("${product.images.upload.max-files:10}") int maxFilesPerRequest) {
         this.productRepository = productRepository;
         this.productImageRepository = productImageRepository;
         this.imageUploadService = imageUploadService;
+        this.imageProcessor = imageProcessor;
+        this.imageDeleteQueue = imageDeleteQueue;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxFilesPerRequest = maxFilesPerRequest;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(
+                uploadThreads, uploadThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "image-upload-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        uploadExecutor.shutdown();
+        uploadExecutor.awaitTermination(30, TimeUnit.SECONDS);
     }
 
+    /*
+     * Resizes and uploads all files in parallel, then inserts the rows in one batch.
+     * Images keep the request's order (sortOrder continues after the product's
+     * existing images). If any upload or the insert fails, the files that did
+     * reach storage are queued for deletion and nothing is saved.
+     */
     @Override
     public List<String> uploadProductImages(Long productId, List<MultipartFile> images) {
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        List<String> urls = new ArrayList<>();
+        validateImages(images);
 
-        int sortOrder = 1;
+        // One future per file, in request order
+        List<CompletableFuture<UploadedImage>> uploads = new ArrayList<>(images.size());
         for (MultipartFile file : images) {
-            Map<String, String> upload = imageUploadService.uploadImage(file, "products");
+            uploads.add(CompletableFuture.supplyAsync(() -> processAndUpload(file), uploadExecutor));
+        }
+
+        RuntimeException failure = null;
+        List<UploadedImage> uploaded = new ArrayList<>(uploads.size());
+        for (CompletableFuture<UploadedImage> upload : uploads) {
+            try {
+                uploaded.add(upload.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = unwrap(e);
+                }
+            }
+        }
+        if (failure != null) {
+            discard(publicIdsOf(uploaded));
+            throw failure;
+        }
 
-            ProductImage productImage = ProductImage.builder()
+        int sortOrder = productImageRepository.findMaxSortOrder(productId);
+        List<ProductImage> rows = new ArrayList<>(uploaded.size());
+        for (UploadedImage upload : uploaded) {
+            ProductImage row = ProductImage.builder()
                     .product(product)
-                    .imageUrl(upload.get("url"))
-                    .publicId(upload.get("publicId"))
-                    .sortOrder(sortOrder++)
+                    .sortOrder(++sortOrder)
                     .build();
+            upload.applyTo(row);
+            rows.add(row);
+        }
 
-            productImageRepository.save(productImage);
-            urls.add(productImage.getImageUrl());
+        try {
+            productImageRepository.saveAll(rows);
+        } catch (RuntimeException e) {
+            discard(publicIdsOf(uploaded));
+            throw e;
         }
 
-        return urls;
+        publishImagesChanged(productId);
+
+        return rows.stream().map(ProductImage::getImageUrl).toList();
     }
     
     @Override
@@ -66,16 +164,25 @@ public class ProductImageServiceImpl implements ProductImageService {
             throw new BadRequestException("Image does not belong to this product");
         }
 
-        // delete old image from Cloudinary
-        imageUploadService.deleteImage(productImage.getPublicId());
+        validateImages(Collections.singletonList(image));
 
-        // upload new one
-        Map<String, String> upload = imageUploadService.uploadImage(image, "products");
+        // upload new renditions first (a failed upload keeps the old image)
+        UploadedImage upload = processAndUpload(image);
+        List<String> oldPublicIds = publicIdsOf(productImage);
 
-        productImage.setImageUrl(upload.get("url"));
-        productImage.setPublicId(upload.get("publicId"));
+        // swap the row and queue the old renditions for deletion in one transaction
+        upload.applyTo(productImage);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productImageRepository.save(productImage);
+                imageDeleteQueue.enqueue(oldPublicIds);
+            });
+        } catch (RuntimeException e) {
+            discard(upload.publicIds());
+            throw e;
+        }
 
-        productImageRepository.save(productImage);
+        publishImagesChanged(productId);
 
         return productImage.getImageUrl();
     }
@@ -90,11 +197,129 @@ public class ProductImageServiceImpl implements ProductImageService {
             throw new BadRequestException("Image does not belong to this product");
         }
 
-        // delete from Cloudinary
-        imageUploadService.deleteImage(productImage.getPublicId());
+        // delete from DB; every rendition is deleted from storage in the background
+        transactionTemplate.executeWithoutResult(status -> {
+            productImageRepository.delete(productImage);
+            imageDeleteQueue.enqueue(publicIdsOf(productImage));
+        });
+
+        publishImagesChanged(productId);
+    }
+
+    // Rejects the whole request before anything is uploaded
+    private void validateImages(List<MultipartFile> images) {
+        if (images == null || images.isEmpty()) {
+            throw new BadRequestException("At least one image is required");
+        }
+        if (images.size() > maxFilesPerRequest) {
+            throw new BadRequestException("At most " + maxFilesPerRequest + " images can be uploaded at once");
+        }
+        for (MultipartFile file : images) {
+            if (file == null || file.isEmpty()) {
+                throw new BadRequestException("Image file is required");
+            }
+            String contentType = file.getContentType();
+            if (contentType == null || !contentType.startsWith("image/")) {
+                throw new BadRequestException("Only image files are allowed");
+            }
+        }
+    }
+
+    /*
+     * Spools the file to disk, decodes it once into every rendition size and
+     * uploads the renditions. If one of them fails, the ones already uploaded
+     * are deleted again before the exception propagates.
+     */
+    private UploadedImage processAndUpload(MultipartFile file) {
+        List<ImageRendition> renditions;
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("image-upload-", ".tmp");
+            file.transferTo(spooled);
+            renditions = imageProcessor.process(spooled);
+        } catch (IOException e) {
+            throw new BadRequestException("Image upload failed: " + e.getMessage());
+        } finally {
+            deleteTempFile(spooled);
+        }
+
+        Map<RenditionSize, Map<String, String>> uploads = new EnumMap<>(RenditionSize.class);
+        try {
+            for (ImageRendition rendition : renditions) {
+                uploads.put(rendition.size(),
+                        imageUploadService.uploadImage(rendition.data(), rendition.contentType(), IMAGE_FOLDER));
+            }
+        } catch (RuntimeException e) {
+            discard(new UploadedImage(uploads).publicIds());
+            throw e;
+        }
+        return new UploadedImage(uploads);
+    }
+
+    private static List<String> publicIdsOf(List<UploadedImage> uploaded) {
+        List<String> ids = new ArrayList<>();
+        for (UploadedImage upload : uploaded) {
+            ids.addAll(upload.publicIds());
+        }
+        return ids;
+    }
+
+    private static List<String> publicIdsOf(ProductImage image) {
+        List<String> ids = new ArrayList<>(3);
+        for (String id : new String[] { image.getPublicId(), image.getCardPublicId(), image.getThumbnailPublicId() }) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // Uploads of a failed request; if even queueing fails, OrphanImageReconciler finds them later
+    private void discard(List<String> publicIds) {
+        try {
+            imageDeleteQueue.enqueue(publicIds);
+        } catch (RuntimeException e) {
+            log.warn("Could not queue {} uploaded image(s) for deletion after a failed upload: {}",
+                    publicIds.size(), e.getMessage());
+        }
+    }
+
+    private static void deleteTempFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path, e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    // Upload result (url + publicId) per rendition size
+    private record UploadedImage(Map<RenditionSize, Map<String, String>> uploads) {
+
+        List<String> publicIds() {
+            return uploads.values().stream().map(u -> u.get("publicId")).toList();
+        }
+
+        void applyTo(ProductImage image) {
+            image.setImageUrl(uploads.get(RenditionSize.DETAIL).get("url"));
+            image.setPublicId(uploads.get(RenditionSize.DETAIL).get("publicId"));
+            image.setCardUrl(uploads.get(RenditionSize.CARD).get("url"));
+            image.setCardPublicId(uploads.get(RenditionSize.CARD).get("publicId"));
+            image.setThumbnailUrl(uploads.get(RenditionSize.THUMBNAIL).get("url"));
+            image.setThumbnailPublicId(uploads.get(RenditionSize.THUMBNAIL).get("publicId"));
+        }
+    }
 
-        // delete from DB
-        productImageRepository.delete(productImage);
+    private void publishImagesChanged(Long productId) {
+        eventPublisher.publishEvent(
+                CatalogChangedEvent.of(productId, CatalogChangedEvent.Type.IMAGES_CHANGED)
+        );
     }
 
 }
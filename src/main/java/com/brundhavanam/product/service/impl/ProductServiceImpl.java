@@ -2,22 +2,40 @@ package com.brundhavanam.product.service.impl;
 
 import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.common.response.CursorPage;
+import com.brundhavanam.common.util.CursorUtil;
+import com.brundhavanam.product.cache.CatalogSnapshot;
+import com.brundhavanam.product.cache.ProductCatalogCache;
+import com.brundhavanam.product.dto.ProductImageResponse;
 import com.brundhavanam.product.dto.ProductRequest;
 import com.brundhavanam.product.dto.ProductResponse;
+import com.brundhavanam.product.dto.VariantAvailabilityResponse;
 import com.brundhavanam.product.dto.VariantResponse;
 import com.brundhavanam.product.entity.Product;
 import com.brundhavanam.product.entity.ProductImage;
 import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
+import com.brundhavanam.product.image.ImageDeleteQueue;
+import com.brundhavanam.product.inventory.InventoryReservationEngine;
 import com.brundhavanam.product.repository.ProductImageRepository;
 import com.brundhavanam.product.repository.ProductRepository;
 import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.product.search.ProductSearchIndex;
+import com.brundhavanam.product.search.ProductSuggestionIndex;
+import com.brundhavanam.product.search.SearchHits;
 import com.brundhavanam.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +44,12 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductVariantRepository variantRepository;
     private final ProductImageRepository imageRepository;
+    private final ProductCatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryReservationEngine inventory;
+    private final ImageDeleteQueue imageDeleteQueue;
 
     // ================= ADMIN =================
 
@@ -58,6 +82,8 @@ public class ProductServiceImpl implements ProductService {
 
         variantRepository.save(baseVariant);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.upserted(saved.getId(), saved.getCategory()));
+
         return mapForAdmin(saved);
     }
 
@@ -75,98 +101,213 @@ public class ProductServiceImpl implements ProductService {
             product.setActive(request.active());
         }
 
-        return mapForAdmin(productRepository.save(product));
+        Product saved = productRepository.save(product);
+
+        eventPublisher.publishEvent(CatalogChangedEvent.upserted(saved.getId(), saved.getCategory()));
+
+        return mapForAdmin(saved);
     }
 
+    // Rows go in one transaction with the delete tasks of every image rendition
     @Override
+    @Transactional
     public void delete(Long id) {
         if (!productRepository.existsById(id)) {
             throw new ResourceNotFoundException("Product not found");
         }
-        imageRepository.deleteByProductId(id);
+        List<ProductImage> images = imageRepository.findByProductIdOrderBySortOrderAsc(id);
+        List<String> publicIds = new ArrayList<>();
+        for (ProductImage image : images) {
+            for (String publicId : new String[] { image.getPublicId(), image.getCardPublicId(), image.getThumbnailPublicId() }) {
+                if (publicId != null) {
+                    publicIds.add(publicId);
+                }
+            }
+        }
+        imageDeleteQueue.enqueue(publicIds);
+        imageRepository.deleteAllInBatch(images);
         productRepository.deleteById(id);
+
+        eventPublisher.publishEvent(CatalogChangedEvent.of(id, CatalogChangedEvent.Type.PRODUCT_DELETED));
     }
 
     @Override
     public List<ProductResponse> getAllForAdmin() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapForAdmin)
-                .toList();
+        return mapAll(productRepository.findAll(), false);
+    }
+
+    @Override
+    public CursorPage<ProductResponse> getPageForAdmin(String cursor, int size, boolean includeTotal) {
+
+        Long afterId = CursorUtil.decode(cursor);
+        int pageSize = CursorUtil.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Product> rows = afterId == null
+                ? productRepository.findAllByOrderByIdDesc(limit)
+                : productRepository.findByIdLessThanOrderByIdDesc(afterId, limit);
+
+        Long total = includeTotal ? productRepository.count() : null;
+
+        return CursorUtil.toPage(rows, pageSize, Product::getId, page -> mapAll(page, false), total);
     }
 
     // ================= USER =================
 
     @Override
     public List<ProductResponse> getAllForUser() {
-        return productRepository.findByActiveTrue()
-                .stream()
-                .map(this::mapForUser)
-                .toList();
+        return catalogCache.getAll(
+                () -> mapAll(productRepository.findByActiveTrue(), true)
+        );
     }
 
     @Override
     public ProductResponse getByIdForUser(Long id) {
+        return catalogCache.getProduct(id, () -> {
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        if (!Boolean.TRUE.equals(product.getActive())) {
-            throw new ResourceNotFoundException("Product not available");
-        }
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                throw new ResourceNotFoundException("Product not available");
+            }
 
-        return mapForUser(product);
+            return mapForUser(product);
+        });
     }
 
+    // Variants come from the cached product; live numbers from the in-memory reservation counters
     @Override
-    public List<ProductResponse> getByCategory(String category) {
-        return productRepository.findByActiveTrueAndCategoryIgnoreCase(category)
-                .stream()
-                .map(this::mapForUser)
+    public List<VariantAvailabilityResponse> getAvailability(Long productId) {
+        List<VariantResponse> variants = getByIdForUser(productId).variants();
+        if (variants == null) {
+            return List.of();
+        }
+        return variants.stream()
+                .map(v -> new VariantAvailabilityResponse(
+                        v.getId(),
+                        v.getLabel(),
+                        Math.max(inventory.available(v.getId()), 0)))
                 .toList();
     }
 
+    @Override
+    public List<ProductResponse> getByCategory(String category) {
+        return catalogCache.getByCategory(category,
+                () -> mapAll(productRepository.findByActiveTrueAndCategoryIgnoreCase(category), true)
+        );
+    }
+
+    @Override
+    public CatalogSnapshot getAllForUserSnapshot() {
+        return catalogCache.getAllSnapshot(this::getAllForUser);
+    }
+
+    @Override
+    public CatalogSnapshot getByCategorySnapshot(String category) {
+        return catalogCache.getCategorySnapshot(category, () -> getByCategory(category));
+    }
+
     // ================= SEARCH =================
+    // Served by the in-memory ProductSearchIndex; the DB is only hit to load the page
 
     @Override
     public Page<ProductResponse> searchForUser(String query, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return productRepository
-                .findByActiveTrueAndNameContainingIgnoreCaseOrActiveTrueAndDescriptionContainingIgnoreCaseOrActiveTrueAndCategoryContainingIgnoreCase(
-                        query, query, query, pageable
-                )
-                .map(this::mapForUser);
+        return search(query, page, size, true);
     }
 
     @Override
     public Page<ProductResponse> searchForAdmin(String query, int page, int size) {
+        return search(query, page, size, false);
+    }
+
+    private Page<ProductResponse> search(String query, int page, int size, boolean userView) {
+
+        if (page < 0 || size <= 0) {
+            throw new BadRequestException("page must be >= 0 and size must be > 0");
+        }
+
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseOrCategoryContainingIgnoreCase(
-                        query, query, query, pageable
-                )
-                .map(this::mapForAdmin);
+        SearchHits hits = searchIndex.search(query, userView, page, size);
+
+        if (hits.productIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.total());
+        }
+
+        // findAllById does not keep order -> restore ranking order
+        Map<Long, Product> byId = productRepository.findAllById(hits.productIds())
+                .stream()
+                .filter(p -> !userView || Boolean.TRUE.equals(p.getActive()))
+                .collect(Collectors.toMap(Product::getId, p -> p));
+
+        List<Product> ranked = hits.productIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new PageImpl<>(mapAll(ranked, userView), pageable, hits.total());
+    }
+
+    // ================= TYPEAHEAD =================
+    // Pure in-memory lookup, no DB access on this path
+
+    @Override
+    public List<String> suggest(String query, int limit) {
+        return suggestionIndex.suggest(query, limit);
     }
 
     // ================= MAPPERS =================
 
     private ProductResponse mapForAdmin(Product product) {
         List<VariantResponse> variants = fetchVariants(product.getId(), false);
-        return buildResponse(product, variants);
+        return buildResponse(product, variants, fetchImages(product.getId()));
     }
 
     private ProductResponse mapForUser(Product product) {
         List<VariantResponse> variants = fetchVariants(product.getId(), true);
-        return buildResponse(product, variants);
+        return buildResponse(product, variants, fetchImages(product.getId()));
     }
 
-    private ProductResponse buildResponse(Product product, List<VariantResponse> variants) {
+    /**
+     * Maps a page/list of products using a constant number of queries:
+     * one for all variants and one for all images of the given products.
+     * Responses keep the order of the input list.
+     */
+    private List<ProductResponse> mapAll(List<Product> products, boolean onlyActiveVariants) {
+
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = products.stream().map(Product::getId).toList();
+
+        Map<Long, List<VariantResponse>> variantsByProduct = (onlyActiveVariants
+                ? variantRepository.findByProductIdInAndActiveTrue(ids)
+                : variantRepository.findByProductIdIn(ids))
+                .stream()
+                .collect(Collectors.groupingBy(
+                        v -> v.getProduct().getId(),
+                        Collectors.mapping(this::mapVariant, Collectors.toList())
+                ));
 
-        List<String> images = imageRepository
-                .findByProductIdOrderBySortOrderAsc(product.getId())
+        Map<Long, List<ProductImageResponse>> imagesByProduct = imageRepository
+                .findByProductIdInOrderBySortOrderAsc(ids)
                 .stream()
-                .map(ProductImage::getImageUrl)
+                .collect(Collectors.groupingBy(
+                        img -> img.getProduct().getId(),
+                        Collectors.mapping(this::mapImage, Collectors.toList())
+                ));
+
+        return products.stream()
+                .map(p -> buildResponse(
+                        p,
+                        variantsByProduct.getOrDefault(p.getId(), List.of()),
+                        imagesByProduct.getOrDefault(p.getId(), List.of())
+                ))
                 .toList();
+    }
+
+    private ProductResponse buildResponse(Product product, List<VariantResponse> variants, List<ProductImageResponse> images) {
 
         BigDecimal minPrice = variants.stream()
                 .filter(VariantResponse::getActive)
@@ -179,7 +320,9 @@ public class ProductServiceImpl implements ProductService {
                 product.getName(),
                 product.getDescription(),
                 product.getCategory(),
-                images.isEmpty() ? null : images.get(0),
+                images.isEmpty() ? null : images.get(0).cardUrl(),
+                images.isEmpty() ? null : images.get(0).thumbnailUrl(),
+                images.stream().map(ProductImageResponse::detailUrl).toList(),
                 images,
                 product.getActive(),
                 minPrice,
@@ -187,6 +330,25 @@ public class ProductServiceImpl implements ProductService {
         );
     }
 
+    private List<ProductImageResponse> fetchImages(Long productId) {
+        return imageRepository
+                .findByProductIdOrderBySortOrderAsc(productId)
+                .stream()
+                .map(this::mapImage)
+                .toList();
+    }
+
+    // Older images have no smaller renditions; they fall back to the original
+    private ProductImageResponse mapImage(ProductImage image) {
+        String detail = image.getImageUrl();
+        return new ProductImageResponse(
+                image.getId(),
+                image.getThumbnailUrl() != null ? image.getThumbnailUrl() : detail,
+                image.getCardUrl() != null ? image.getCardUrl() : detail,
+                detail
+        );
+    }
+
     private List<VariantResponse> fetchVariants(Long productId, boolean onlyActive) {
         return (onlyActive
                 ? variantRepository.findByProductIdAndActiveTrue(productId)
@@ -7,11 +7,13 @@ import com.brundhavanam.product.dto.CreateVariantRequest;
 import com.brundhavanam.product.dto.VariantResponse;
 import com.brundhavanam.product.entity.Product;
 import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.event.CatalogChangedEvent;
 import com.brundhavanam.product.repository.ProductRepository;
 import com.brundhavanam.product.repository.ProductVariantRepository;
 import com.brundhavanam.product.service.ProductVariantService;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 
     private final ProductVariantRepository variantRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public VariantResponse createVariant(Long productId, CreateVariantRequest request) {
@@ -48,6 +51,7 @@ public class ProductVariantServiceImpl implements ProductVariantService {
                 .build();
 
         ProductVariant saved = variantRepository.save(variant);
+        publishVariantsChanged(productId);
         return mapToResponse(saved);
     }
 
@@ -85,7 +89,9 @@ public class ProductVariantServiceImpl implements ProductVariantService {
         variant.setStock(request.getStock());
         variant.setActive(request.getActive() != null ? request.getActive() : variant.getActive());
 
-        return mapToResponse(variantRepository.save(variant));
+        ProductVariant saved = variantRepository.save(variant);
+        publishVariantsChanged(saved.getProduct().getId());
+        return mapToResponse(saved);
     }
 
     @Override
@@ -103,6 +109,7 @@ public class ProductVariantServiceImpl implements ProductVariantService {
         }
 
         variantRepository.delete(variant);
+        publishVariantsChanged(variant.getProduct().getId());
     }
 
 
@@ -143,9 +150,17 @@ public class ProductVariantServiceImpl implements ProductVariantService {
         variant.setActive(active);
 
         ProductVariant saved = variantRepository.save(variant);
+        publishVariantsChanged(saved.getProduct().getId());
         return mapToResponse(saved);
     }
 
+    // Catalog cache is refreshed once this transaction commits
+    private void publishVariantsChanged(Long productId) {
+        eventPublisher.publishEvent(
+                CatalogChangedEvent.of(productId, CatalogChangedEvent.Type.VARIANTS_CHANGED)
+        );
+    }
+
 
     private VariantResponse mapToResponse(ProductVariant v) {
         return VariantResponse.builder()
@@ -2,6 +2,7 @@ package com.brundhavanam.user.controller;
 
 //import com.brundhavanam.auth.dto.AuthResponse;
 import com.brundhavanam.common.response.ApiResponse;
+import com.brundhavanam.common.response.CursorPage;
 import com.brundhavanam.user.dto.*;
 import com.brundhavanam.user.service.UserService;
 
@@ -48,6 +49,21 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(userService.getAllUsers()));
     }
 
+    /**
+     * Fetch users page by page (cursor / keyset pagination, newest first)
+     * Pass nextCursor of the previous response as cursor; includeTotal adds a COUNT(*)
+     *
+     * GET http://localhost:8080/brundhavanam/api/v1/users/page?size=20
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(userService.getUsersPage(cursor, size, includeTotal)));
+    }
+
     /**
      * Fetch specific user by ID
      * If user not found → throws ResourceNotFoundException
@@ -1,8 +1,10 @@
 package com.brundhavanam.user.repository;
 
 import com.brundhavanam.user.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -10,5 +12,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByMobile(String mobile);
 
     boolean existsByMobile(String mobile);
+
+    // Keyset pagination (newest first): first page / pages after a cursor id
+    List<User> findAllByOrderByIdDesc(Limit limit);
+
+    List<User> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 }
 //new
\ No newline at end of file
@@ -23,6 +23,7 @@
 package com.brundhavanam.user.service;
 
 //import com.brundhavanam.auth.dto.AuthResponse;
+import com.brundhavanam.common.response.CursorPage;
 import com.brundhavanam.user.dto.*;
 
 import java.util.List;
@@ -62,6 +63,20 @@ public interface UserService {
      */
     List<UserResponse> getAllUsers();
 
+    /**
+     * Fetches users page by page using keyset (cursor) pagination, newest first.
+     *
+     * Unlike {@link #getAllUsers()} this never loads the whole table, and the
+     * COUNT(*) query only runs when includeTotal is true.
+     *
+     * @param cursor       nextCursor of the previous page, null/blank for the first page
+     * @param size         page size (capped)
+     * @param includeTotal whether to compute totalElements
+     * @return one page of users
+     * @throws com.brundhavanam.common.exception.BadRequestException if the cursor is malformed
+     */
+    CursorPage<UserResponse> getUsersPage(String cursor, int size, boolean includeTotal);
+
     /**
      * Fetches a single user by ID.
      *
@@ -4,13 +4,17 @@ package com.brundhavanam.user.service.impl;
 import com.brundhavanam.common.enums.Role;
 import com.brundhavanam.common.exception.BadRequestException;
 import com.brundhavanam.common.exception.ResourceNotFoundException;
+import com.brundhavanam.common.response.CursorPage;
+import com.brundhavanam.common.util.CursorUtil;
 //import com.brundhavanam.config.jwt.JwtUtil;
+import com.brundhavanam.config.security.AuthenticatedUserResolver;
 import com.brundhavanam.user.dto.*;
 import com.brundhavanam.user.entity.User;
 import com.brundhavanam.user.repository.UserRepository;
 //import com.brundhavanam.user.service.OtpService;
 import com.brundhavanam.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,6 +24,7 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 //    private final OtpService otpService;
 //    private final JwtUtil jwtUtil;   // ✅ NEW
 
@@ -81,6 +86,23 @@ public class UserServiceImpl implements UserService {
                 .toList();
     }
 
+    @Override
+    public CursorPage<UserResponse> getUsersPage(String cursor, int size, boolean includeTotal) {
+
+        Long afterId = CursorUtil.decode(cursor);
+        int pageSize = CursorUtil.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<User> rows = afterId == null
+                ? userRepository.findAllByOrderByIdDesc(limit)
+                : userRepository.findByIdLessThanOrderByIdDesc(afterId, limit);
+
+        Long total = includeTotal ? userRepository.count() : null;
+
+        return CursorUtil.toPage(rows, pageSize, User::getId,
+                page -> page.stream().map(this::mapToResponse).toList(), total);
+    }
+
     @Override
     public UserResponse getUserById(Long id) {
         return userRepository.findById(id)
@@ -94,6 +116,7 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User not found");
         }
         userRepository.deleteById(id);
+        authenticatedUserResolver.evict(id);
     }
 
     // 🔹 Mapper method
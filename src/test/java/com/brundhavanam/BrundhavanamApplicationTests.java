@@ -1,6 +1,6 @@
 package com.brundhavanam;
 
-//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Disabled;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @Disabled
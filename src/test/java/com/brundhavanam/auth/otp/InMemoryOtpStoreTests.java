@@ -0,0 +1,251 @@
+package com.brundhavanam.auth.otp;
+
+import com.brundhavanam.auth.otp.OtpStore.Verification;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryOtpStoreTests {
+
+    private static final int SHARDS = 16;
+    private static final int WHEEL_SLOTS = 512;
+    private static final long TICK = 1000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void removingFromAProbeChainKeepsTheRestReachable() {
+        // 8 per shard -> 16-slot tables; mobiles sharing one home slot form a probe chain
+        InMemoryOtpStore store = store(SHARDS * 8);
+        List<Long> chain = mobiles(0, 4, 15); // home is the last slot, so the chain wraps
+        List<Long> next = mobiles(0, 1, 0);   // home 0: probes behind the wrapped chain
+        long far = far();
+
+        for (long mobile : chain) {
+            assertTrue(store.put(mobile, otpOf(mobile), far));
+        }
+        assertTrue(store.put(next.get(0), otpOf(next.get(0)), far));
+
+        // Remove from the middle, then the head: the rest must still be found
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(chain.get(1), otpOf(chain.get(1)), now.get()));
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(chain.get(0), otpOf(chain.get(0)), now.get()));
+        for (long mobile : List.of(chain.get(2), chain.get(3), next.get(0))) {
+            assertEquals(Verification.MISMATCHED, store.verifyAndConsume(mobile, 0, now.get()), "lost " + mobile);
+        }
+
+        // Re-inserted entries are found again, and never twice
+        assertTrue(store.put(chain.get(1), 111111, far));
+        assertTrue(store.put(chain.get(0), 222222, far));
+        assertEquals(5, store.size());
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(chain.get(1), 111111, now.get()));
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(chain.get(0), 222222, now.get()));
+        assertEquals(Verification.MISSING, store.verifyAndConsume(chain.get(0), 222222, now.get()));
+    }
+
+    @Test
+    void randomPutsAndVerificationsMatchAPlainMap() {
+        int limit = 8;
+        InMemoryOtpStore store = store(SHARDS * limit);
+        List<Long> pool = mobiles(3, 20, -1);
+        Map<Long, int[]> model = new HashMap<>(); // mobile -> {otp, failed attempts}
+        Random random = new Random(11);
+        long far = far();
+
+        for (int op = 0; op < 50_000; op++) {
+            long mobile = pool.get(random.nextInt(pool.size()));
+            int otp = 100000 + random.nextInt(10);
+
+            if (random.nextBoolean()) {
+                boolean accepted = model.containsKey(mobile) || model.size() < limit;
+                assertEquals(accepted, store.put(mobile, otp, far));
+                if (accepted) {
+                    model.put(mobile, new int[] {otp, 0});
+                }
+            } else {
+                int[] entry = model.get(mobile);
+                Verification expected;
+                if (entry == null) {
+                    expected = Verification.MISSING;
+                } else if (entry[0] == otp) {
+                    expected = Verification.MATCHED;
+                    model.remove(mobile);
+                } else if (++entry[1] >= MAX_ATTEMPTS) {
+                    expected = Verification.EXHAUSTED;
+                    model.remove(mobile);
+                } else {
+                    expected = Verification.MISMATCHED;
+                }
+                assertEquals(expected, store.verifyAndConsume(mobile, otp, now.get()));
+            }
+            assertEquals(model.size(), store.size());
+        }
+    }
+
+    @Test
+    void fullShardRefusesNewMobilesButAcceptsResends() {
+        InMemoryOtpStore store = store(SHARDS * 2);
+        List<Long> sameShard = mobiles(7, 3, -1);
+        long far = far();
+
+        assertTrue(store.put(sameShard.get(0), 111111, far));
+        assertTrue(store.put(sameShard.get(1), 222222, far));
+        assertFalse(store.put(sameShard.get(2), 333333, far));
+        assertTrue(store.put(sameShard.get(0), 444444, far)); // re-send
+
+        // Other shards are not affected
+        assertTrue(store.put(mobiles(8, 1, -1).get(0), 555555, far));
+
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(sameShard.get(0), 444444, now.get()));
+        assertTrue(store.put(sameShard.get(2), 333333, far));
+    }
+
+    @Test
+    void exhaustedAfterMaxAttempts() {
+        InMemoryOtpStore store = store(SHARDS * 8);
+        long mobile = 9876543210L;
+        store.put(mobile, 123456, far());
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            assertEquals(Verification.MISMATCHED, store.verifyAndConsume(mobile, 654321, now.get()));
+        }
+        assertEquals(Verification.EXHAUSTED, store.verifyAndConsume(mobile, 654321, now.get()));
+        assertEquals(Verification.MISSING, store.verifyAndConsume(mobile, 123456, now.get()));
+        assertEquals(0, store.size());
+
+        // A new OTP starts a new count
+        store.put(mobile, 111111, far());
+        assertEquals(Verification.MISMATCHED, store.verifyAndConsume(mobile, 654321, now.get()));
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(mobile, 111111, now.get()));
+    }
+
+    @Test
+    void sweepRemovesOnlyExpiredEntries() {
+        InMemoryOtpStore store = store(SHARDS * 8);
+        long mobile = 9876543210L;
+        store.put(mobile, 123456, now.get() + 5 * TICK - 1);
+
+        advance(store, 4 * TICK);
+        assertEquals(1, store.size());
+
+        advance(store, TICK);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expiredButNotSweptIsMissing() {
+        InMemoryOtpStore store = store(SHARDS * 8);
+        long mobile = 9876543210L;
+        store.put(mobile, 123456, now.get() + TICK);
+
+        assertEquals(Verification.MISSING, store.verifyAndConsume(mobile, 123456, now.get() + TICK));
+    }
+
+    @Test
+    void resendWithLaterExpiryIsKeptUntilTheNewExpiry() {
+        InMemoryOtpStore store = store(SHARDS * 8);
+        long mobile = 9876543210L;
+        long start = now.get();
+        store.put(mobile, 111111, start + 3 * TICK);
+        store.put(mobile, 222222, start + 10 * TICK);
+
+        advance(store, 3 * TICK);
+        assertEquals(1, store.size(), "swept at the first expiry");
+
+        advance(store, 7 * TICK);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void resendWithEarlierExpiryIsSweptAtTheEarlierExpiry() {
+        InMemoryOtpStore store = store(SHARDS * 8);
+        long mobile = 9876543210L;
+        long start = now.get();
+        store.put(mobile, 111111, start + 10 * TICK);
+        store.put(mobile, 222222, start + 3 * TICK);
+
+        advance(store, 3 * TICK);
+        assertEquals(0, store.size());
+
+        // The stale record at the old expiry must not remove a newer OTP
+        store.put(mobile, 333333, start + 20 * TICK);
+        advance(store, 7 * TICK);
+        assertEquals(1, store.size());
+        assertEquals(Verification.MATCHED, store.verifyAndConsume(mobile, 333333, now.get()));
+    }
+
+    @Test
+    void sweepAfterMoreThanAFullWheelTurn() {
+        InMemoryOtpStore store = store(SHARDS * 64);
+        long start = now.get();
+        Random random = new Random(5);
+
+        Map<Long, Long> expiries = new HashMap<>();
+        for (long mobile : mobiles(-1, 200, -1)) {
+            long expiresAt = start + 1 + (long) random.nextInt(3 * WHEEL_SLOTS) * TICK;
+            store.put(mobile, 123456, expiresAt);
+            expiries.put(mobile, expiresAt);
+        }
+
+        // One sweep after a pause longer than the wheel
+        advance(store, (WHEEL_SLOTS + 100) * TICK);
+        assertEquals(count(expiries, now.get()), store.size());
+
+        // Driven normally again, the rest expires on time
+        for (int tick = 0; tick < 2 * WHEEL_SLOTS; tick++) {
+            advance(store, TICK);
+            assertEquals(count(expiries, now.get()), store.size());
+        }
+        assertEquals(0, store.size());
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private InMemoryOtpStore store(int maxEntries) {
+        return new InMemoryOtpStore(maxEntries, TICK, MAX_ATTEMPTS, now::get);
+    }
+
+    private void advance(InMemoryOtpStore store, long millis) {
+        now.addAndGet(millis);
+        store.sweep();
+    }
+
+    private long far() {
+        return now.get() + 100 * TICK;
+    }
+
+    private static long count(Map<Long, Long> expiries, long at) {
+        return expiries.values().stream().filter(expiresAt -> expiresAt > at).count();
+    }
+
+    private static int otpOf(long mobile) {
+        return (int) (mobile % 900000) + 100000;
+    }
+
+    /**
+     * 10-digit mobiles in the given shard (-1: any) whose home slot in a
+     * 16-slot table is home (-1: any).
+     */
+    private static List<Long> mobiles(int shard, int count, int home) {
+        List<Long> mobiles = new ArrayList<>();
+        for (long mobile = 9000000000L; mobiles.size() < count; mobile++) {
+            long hash = InMemoryOtpStore.mix(mobile);
+            if ((shard < 0 || InMemoryOtpStore.shardIndex(hash) == shard)
+                    && (home < 0 || ((int) hash & 15) == home)) {
+                mobiles.add(mobile);
+            }
+        }
+        return mobiles;
+    }
+}
@@ -0,0 +1,205 @@
+package com.brundhavanam.cart.memory;
+
+import com.brundhavanam.cart.dto.CartLineView;
+import com.brundhavanam.cart.entity.Cart;
+import com.brundhavanam.cart.repository.CartItemRepository;
+import com.brundhavanam.cart.repository.CartRepository;
+import com.brundhavanam.common.enums.CartStatus;
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.common.enums.UnitType;
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.user.entity.User;
+import com.brundhavanam.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Write-behind cart store against the H2 database of the "test" profile.
+ *
+ * Stores are built by hand (the context runs with cart.mode=db), each on its
+ * own journal directory; a "restart" is a new store replaying the same directory.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class MemoryCartStoreTests {
+
+    @Autowired private CartRepository cartRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductVariantRepository variantRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private Long userId;
+    private Long rice;
+    private Long dal;
+
+    @BeforeEach
+    void fixtures() {
+        userId = userRepository.save(User.builder()
+                .fullName("Cart Test")
+                .mobile("8" + String.format("%09d", System.nanoTime() % 1_000_000_000L))
+                .role(Role.USER)
+                .build()).getId();
+
+        Product product = productRepository.save(Product.builder()
+                .name("Cart SKU " + System.nanoTime())
+                .category("test")
+                .build());
+        rice = variant(product, "1kg").getId();
+        dal = variant(product, "500g").getId();
+    }
+
+    @Test
+    void acknowledgedChangesSurviveARestartBeforeAnyFlush() {
+        MemoryCartStore before = store(transactionManager);
+        before.mutate(userId, cart -> before.addLine(cart, rice, 2));
+        before.mutate(userId, cart -> before.addLine(cart, dal, 3));
+        before.mutate(userId, cart -> cart.findByVariant(rice).orElseThrow().setQuantity(5));
+
+        // Crash: nothing was flushed and the store is never shut down
+        assertTrue(cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE).isEmpty());
+
+        MemoryCartStore after = store(transactionManager);
+        assertEquals(Map.of(rice, 5, dal, 3), quantities(after.snapshot(userId)));
+
+        after.flushDirty();
+        assertEquals(Map.of(rice, 5, dal, 3), dbQuantities());
+
+        // Lines now carry their cart_items ids
+        after.snapshot(userId).lines().forEach(line -> assertTrue(line.cartItemId() > 0));
+    }
+
+    @Test
+    void failedChangeLeavesTheCartAsItWas() {
+        MemoryCartStore store = store(transactionManager);
+        store.mutate(userId, cart -> store.addLine(cart, rice, 2));
+
+        assertThrows(IllegalStateException.class, () -> store.mutate(userId, cart -> {
+            cart.clear();
+            throw new IllegalStateException("rejected");
+        }));
+
+        assertEquals(Map.of(rice, 2), quantities(store.snapshot(userId)));
+        store.flushDirty();
+        assertEquals(Map.of(rice, 2), dbQuantities());
+
+        // A restart replays only the acknowledged change
+        assertEquals(Map.of(rice, 2), quantities(store(transactionManager).snapshot(userId)));
+    }
+
+    @Test
+    void checkoutWaitsForABackgroundFlushStillInFlight() throws Exception {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemoryCartStore store = store(new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                committing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                transactionManager.commit(status);
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        });
+        store.mutate(userId, cart -> store.addLine(cart, rice, 2));
+        store.mutate(userId, cart -> store.addLine(cart, dal, 1));
+
+        // The background round has written the cart but not committed yet
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(store::flushDirty);
+        assertTrue(committing.await(10, TimeUnit.SECONDS));
+
+        // What OrderServiceImpl.checkout reads after flushForCheckout
+        TransactionTemplate checkoutTx = new TransactionTemplate(transactionManager);
+        CompletableFuture<List<CartLineView>> checkout = CompletableFuture.supplyAsync(() ->
+                checkoutTx.execute(status -> {
+                    store.flushForCheckout(userId);
+                    return cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE)
+                            .map(cart -> cartItemRepository.findLinesByCartId(cart.getId()))
+                            .orElse(List.of());
+                }));
+
+        Thread.sleep(200);
+        assertFalse(checkout.isDone(), "checkout did not wait for the flush");
+
+        release.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+        List<CartLineView> lines = checkout.get(10, TimeUnit.SECONDS);
+
+        Map<Long, Integer> read = new TreeMap<>();
+        lines.forEach(line -> read.put(line.variantId(), line.quantity()));
+        assertEquals(Map.of(rice, 2, dal, 1), read);
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private MemoryCartStore store(PlatformTransactionManager transactions) {
+        MemoryCartStore store = new MemoryCartStore(cartRepository, cartItemRepository, variantRepository,
+                userRepository, transactions, journalDir.toString(), false, 100, 30);
+        store.recover();
+        return store;
+    }
+
+    private ProductVariant variant(Product product, String label) {
+        return variantRepository.save(ProductVariant.builder()
+                .product(product).label(label).value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(100).active(true)
+                .build());
+    }
+
+    private static Map<Long, Integer> quantities(CartSnapshot snapshot) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        snapshot.lines().forEach(line -> quantities.put(line.variantId(), line.quantity()));
+        return quantities;
+    }
+
+    private Map<Long, Integer> dbQuantities() {
+        Cart cart = cartRepository.findByUserIdAndStatus(userId, CartStatus.ACTIVE).orElseThrow();
+        Map<Long, Integer> quantities = new TreeMap<>();
+        cartItemRepository.findLinesByCartId(cart.getId())
+                .forEach(line -> quantities.put(line.variantId(), line.quantity()));
+        return quantities;
+    }
+}
@@ -0,0 +1,103 @@
+package com.brundhavanam.common.idempotency;
+
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.config.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyFilterTests {
+
+    private static final int MAX_RESPONSE_BYTES = 64;
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            Mockito.mock(IdempotencyRecordRepository.class), new ObjectMapper().findAndRegisterModules(),
+            true, false, 1000, 3600, 1000, MAX_RESPONSE_BYTES);
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void authenticate() {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "9000000007", Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatReplaysTheStoredResponse() throws Exception {
+        FilterChain chain = created("{\"id\":1}");
+
+        MockHttpServletResponse first = send(chain);
+        MockHttpServletResponse repeat = send(chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, repeat.getStatus());
+        assertEquals("true", repeat.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("{\"id\":1}", repeat.getContentAsString());
+    }
+
+    @Test
+    void responseTooLargeToStoreIsNeverExecutedTwice() throws Exception {
+        String large = "{\"data\":\"" + "x".repeat(MAX_RESPONSE_BYTES) + "\"}";
+        FilterChain chain = created(large);
+
+        MockHttpServletResponse first = send(chain);
+        MockHttpServletResponse repeat = send(chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, first.getStatus());
+        assertEquals(large, first.getContentAsString());
+
+        assertEquals(409, repeat.getStatus());
+        assertEquals("true", repeat.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertTrue(repeat.getContentAsString().contains("already processed (status 201)"),
+                repeat.getContentAsString());
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private FilterChain created(String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse send(FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders");
+        request.addHeader(IdempotencyFilter.HEADER, "order-1");
+        request.setContentType("application/json");
+        request.setContent("{\"addressId\":3}".getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
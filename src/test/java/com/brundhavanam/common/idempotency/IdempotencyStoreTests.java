@@ -0,0 +1,191 @@
+package com.brundhavanam.common.idempotency;
+
+import com.brundhavanam.common.idempotency.IdempotencyStore.Claim;
+import com.brundhavanam.common.idempotency.IdempotencyStore.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IdempotencyStoreTests {
+
+    private static final int STRIPES = 16;
+    private static final long TTL = 60_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void completedKeyIsReplayedAndRejectsOtherRequests() {
+        IdempotencyStore store = store(STRIPES * 4);
+
+        Claim first = store.claim("u1:a", "fp");
+        assertEquals(Outcome.EXECUTE, first.outcome());
+        StoredResponse response = response("ok");
+        store.complete("u1:a", first.pending(), response);
+
+        Claim repeat = store.claim("u1:a", "fp");
+        assertEquals(Outcome.REPLAY, repeat.outcome());
+        assertSame(response, repeat.response());
+
+        assertEquals(Outcome.MISMATCH, store.claim("u1:a", "other").outcome());
+    }
+
+    @Test
+    void repeatWhileInFlightWaitsForTheFirstResponse() throws Exception {
+        IdempotencyStore store = store(STRIPES * 4);
+        int threads = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Claim>> claims = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            claims.add(pool.submit(() -> {
+                start.await();
+                return store.claim("u1:a", "fp");
+            }));
+        }
+        start.countDown();
+
+        Claim executing = null;
+        List<Claim> waiting = new ArrayList<>();
+        for (Future<Claim> future : claims) {
+            Claim claim = future.get(10, TimeUnit.SECONDS);
+            if (claim.outcome() == Outcome.EXECUTE) {
+                assertNull(executing, "executed twice");
+                executing = claim;
+            } else {
+                assertEquals(Outcome.WAIT, claim.outcome());
+                waiting.add(claim);
+            }
+        }
+        pool.shutdown();
+        assertEquals(threads - 1, waiting.size());
+
+        StoredResponse response = response("ok");
+        store.complete("u1:a", executing.pending(), response);
+        for (Claim claim : waiting) {
+            assertSame(response, claim.pending().get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void failedExecutionReleasesWaitersAndLetsTheNextAttemptRun() throws Exception {
+        IdempotencyStore store = store(STRIPES * 4);
+
+        Claim first = store.claim("u1:a", "fp");
+        Claim waiter = store.claim("u1:a", "fp");
+        assertEquals(Outcome.WAIT, waiter.outcome());
+
+        store.complete("u1:a", first.pending(), null);
+
+        assertNull(waiter.pending().get(1, TimeUnit.SECONDS));
+        assertEquals(Outcome.EXECUTE, store.claim("u1:a", "fp").outcome());
+    }
+
+    @Test
+    void completedKeyExpiresAfterTtlButInFlightKeyDoesNot() {
+        IdempotencyStore store = store(STRIPES * 4);
+
+        Claim done = store.claim("u1:a", "fp");
+        store.complete("u1:a", done.pending(), response("ok"));
+        store.claim("u1:b", "fp"); // still running
+
+        now.addAndGet(TTL - 1);
+        assertEquals(Outcome.REPLAY, store.claim("u1:a", "fp").outcome());
+
+        now.addAndGet(1);
+        assertEquals(Outcome.EXECUTE, store.claim("u1:a", "fp").outcome());
+        assertEquals(Outcome.WAIT, store.claim("u1:b", "fp").outcome());
+    }
+
+    @Test
+    void fullStripeEvictsItsLeastRecentlyUsedKey() {
+        IdempotencyStore store = store(STRIPES * 2); // two keys per stripe
+        List<String> keys = keysInStripe(0, 3);
+
+        completed(store, keys.get(0));
+        completed(store, keys.get(1));
+        store.claim(keys.get(0), "fp"); // most recently used now
+        completed(store, keys.get(2));
+
+        assertEquals(Outcome.REPLAY, store.claim(keys.get(0), "fp").outcome());
+        assertEquals(Outcome.REPLAY, store.claim(keys.get(2), "fp").outcome());
+        assertEquals(Outcome.EXECUTE, store.claim(keys.get(1), "fp").outcome());
+    }
+
+    @Test
+    void stripesAreBoundedIndependently() {
+        IdempotencyStore store = store(STRIPES); // one key per stripe
+
+        List<String> oneEach = new ArrayList<>();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            String key = keysInStripe(stripe, 1).get(0);
+            completed(store, key);
+            oneEach.add(key);
+        }
+        assertEquals(STRIPES, store.size());
+        oneEach.forEach(key -> assertEquals(Outcome.REPLAY, store.claim(key, "fp").outcome()));
+
+        // A second key evicts only its own stripe's entry
+        completed(store, keysInStripe(3, 2).get(1));
+        assertEquals(STRIPES, store.size());
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            Outcome expected = stripe == 3 ? Outcome.EXECUTE : Outcome.REPLAY;
+            assertEquals(expected, store.claim(oneEach.get(stripe), "fp").outcome());
+        }
+    }
+
+    @Test
+    void evictedInFlightKeyStillCompletesItsWaiters() throws Exception {
+        IdempotencyStore store = store(STRIPES);
+        List<String> keys = keysInStripe(5, 2);
+
+        Claim running = store.claim(keys.get(0), "fp");
+        Claim waiter = store.claim(keys.get(0), "fp");
+        completed(store, keys.get(1)); // evicts the in-flight key
+
+        StoredResponse response = response("late");
+        store.complete(keys.get(0), running.pending(), response);
+        assertSame(response, waiter.pending().get(1, TimeUnit.SECONDS));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private IdempotencyStore store(int maxEntries) {
+        return new IdempotencyStore(maxEntries, TTL, now::get);
+    }
+
+    private static void completed(IdempotencyStore store, String key) {
+        Claim claim = store.claim(key, "fp");
+        assertEquals(Outcome.EXECUTE, claim.outcome());
+        store.complete(key, claim.pending(), response(key));
+    }
+
+    private static StoredResponse response(String body) {
+        return new StoredResponse(200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> keysInStripe(int stripe, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "u1:key-" + i;
+            if (IdempotencyStore.stripeIndex(key) == stripe) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,127 @@
+package com.brundhavanam.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 5 requests per 10 seconds: one every 2 s sustained, bursts of up to 5.
+ */
+class RateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long INTERVAL = 2 * SECOND;
+
+    // System.nanoTime() may be negative; the limiter must not care
+    private final AtomicLong now = new AtomicLong(-5 * SECOND);
+
+    @Test
+    void idleKeyGetsAFullBurstThenWaitsOneInterval() {
+        RateLimiter limiter = limiter(100);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("a"), "request " + (i + 1));
+        }
+        assertEquals(INTERVAL, limiter.tryAcquire("a"));
+
+        now.addAndGet(INTERVAL - 1);
+        assertEquals(1, limiter.tryAcquire("a"));
+
+        now.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(INTERVAL, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void sustainedRateIsOneRequestPerInterval() {
+        RateLimiter limiter = limiter(100);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        for (int i = 0; i < 20; i++) {
+            now.addAndGet(INTERVAL);
+            assertEquals(0, limiter.tryAcquire("a"));
+            assertEquals(INTERVAL, limiter.tryAcquire("a"));
+        }
+    }
+
+    @Test
+    void burstRecoversAfterAFullPeriodIdle() {
+        RateLimiter limiter = limiter(100);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        // Half the period back: half the burst
+        now.addAndGet(2 * INTERVAL);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(INTERVAL, limiter.tryAcquire("a"));
+
+        now.addAndGet(10 * SECOND);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        assertEquals(INTERVAL, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        RateLimiter limiter = limiter(100);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+        assertEquals(INTERVAL, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void newKeysAreRefusedAtTheKeyCapUntilIdleKeysAreEvicted() {
+        RateLimiter limiter = limiter(2);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(INTERVAL, limiter.tryAcquire("c")); // fails closed
+        assertEquals(0, limiter.tryAcquire("a"));         // known keys still served
+
+        // "b" has recovered, "a" has not
+        now.addAndGet(INTERVAL);
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(INTERVAL, limiter.tryAcquire("d"));
+
+        assertEquals(new RateLimitStats(4, 2, 2), limiter.stats());
+    }
+
+    @Test
+    void evictIdleKeepsKeysThatAreStillLimited() {
+        RateLimiter limiter = limiter(100);
+        for (int i = 0; i < 6; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        now.addAndGet(10 * SECOND - 1);
+        assertEquals(0, limiter.evictIdle());
+
+        now.addAndGet(1);
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(0, limiter.stats().keys());
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, RateLimiter.retryAfterSeconds(1));
+        assertEquals(1, RateLimiter.retryAfterSeconds(SECOND));
+        assertEquals(2, RateLimiter.retryAfterSeconds(SECOND + 1));
+        assertEquals(2, RateLimiter.retryAfterSeconds(INTERVAL));
+    }
+
+    private RateLimiter limiter(int maxKeys) {
+        return new RateLimiter(5, Duration.ofSeconds(10), maxKeys, now::get);
+    }
+}
@@ -0,0 +1,91 @@
+package com.brundhavanam.config.jwt;
+
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.support.BenchmarkTest;
+import com.brundhavanam.support.Benchmarks;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Token verification cost per request:
+ *
+ * - rebuilt : key and parser built for every call (how JwtUtil worked before)
+ * - miss    : JwtUtil, token not seen before (shared parser, signature checked)
+ * - hit     : JwtUtil, token verified recently (cache lookup by SHA-256)
+ *
+ * A microbenchmark, so it only runs with RUN_BENCHMARKS=true.
+ */
+@Slf4j
+@BenchmarkTest
+class JwtUtilBenchmarkTests {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=";
+    private static final int TOKENS = 1000;
+    private static final int ROUNDS = 20;
+    private static final int WARMUP_ROUNDS = 10;
+
+    @Test
+    void parseWithAndWithoutCache() throws Exception {
+        List<String> tokens = tokens(jwtUtil(TOKENS * 2));
+
+        long rebuilt = measure(tokens, token -> Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody());
+
+        // Fresh instance per round: every call is a cache miss
+        long miss = Benchmarks.bestNanosPerOpWithSetup(WARMUP_ROUNDS, ROUNDS, tokens.size(), () -> {
+            JwtUtil fresh = jwtUtil(TOKENS * 2);
+            return () -> parseAll(tokens, fresh::parseToken);
+        });
+
+        JwtUtil cached = jwtUtil(TOKENS * 2);
+        tokens.forEach(cached::parseToken);
+        long hit = measure(tokens, cached::parseToken);
+
+        log.info("JWT parse, ns/op: rebuilt {}, miss {}, hit {} (hit is {}x faster than miss)",
+                rebuilt, miss, hit, String.format("%.1f", (double) miss / hit));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private static long measure(List<String> tokens, Function<String, Claims> parse) throws Exception {
+        return Benchmarks.bestNanosPerOp(WARMUP_ROUNDS, ROUNDS, tokens.size(), () -> parseAll(tokens, parse));
+    }
+
+    private static void parseAll(List<String> tokens, Function<String, Claims> parse) {
+        for (String token : tokens) {
+            assertEquals("u", parse.apply(token).getSubject().substring(0, 1));
+        }
+    }
+
+    private static List<String> tokens(JwtUtil util) {
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (long i = 0; i < TOKENS; i++) {
+            tokens.add(util.generateToken("u" + i, i, Role.USER));
+        }
+        return tokens;
+    }
+
+    private static JwtUtil jwtUtil(int cacheEntries) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(3_600_000);
+        properties.setCacheMaxEntries(cacheEntries);
+        properties.setCacheTtlSeconds(300);
+        return new JwtUtil(properties);
+    }
+}
@@ -0,0 +1,84 @@
+package com.brundhavanam.config.security;
+
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.config.jwt.JwtUtil;
+import com.brundhavanam.user.entity.User;
+import com.brundhavanam.user.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claim tokens hit the users table at most once per verify TTL, whether or not
+ * the user still exists.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthenticatedUserResolverTests {
+
+    @Mock private UserRepository userRepository;
+
+    private AuthenticatedUserResolver resolver;
+
+    @BeforeEach
+    void resolver() {
+        resolver = new AuthenticatedUserResolver(userRepository, 100, 300, 30);
+    }
+
+    @Test
+    void existingUserIsLoadedOnce() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(
+                User.builder().id(7L).mobile("9000000007").role(Role.ADMIN).build()));
+
+        resolver.resolve(claims(7L));
+        AuthenticatedUser principal = resolver.resolve(claims(7L));
+
+        // Role from the row, not the USER claim
+        assertEquals(new AuthenticatedUser(7L, "9000000007", Role.ADMIN), principal);
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void unknownUserIsCachedAsMissing() {
+        when(userRepository.findById(8L)).thenReturn(Optional.empty());
+
+        assertNull(resolver.resolve(claims(8L)));
+        assertNull(resolver.resolve(claims(8L)));
+        assertNull(resolver.resolve(claims(8L)));
+
+        verify(userRepository, times(1)).findById(8L);
+    }
+
+    @Test
+    void evictDropsTheCachedMiss() {
+        when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+        resolver.resolve(claims(9L));
+        resolver.evict(9L);
+        resolver.resolve(claims(9L));
+
+        verify(userRepository, times(2)).findById(9L);
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private static Claims claims(long userId) {
+        Claims claims = Jwts.claims().setSubject("900000000" + userId);
+        claims.put(JwtUtil.CLAIM_USER_ID, userId);
+        claims.put(JwtUtil.CLAIM_ROLE, Role.USER.name());
+        return claims;
+    }
+}
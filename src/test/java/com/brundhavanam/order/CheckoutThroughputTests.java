@@ -0,0 +1,154 @@
+package com.brundhavanam.order;
+
+import com.brundhavanam.address.entity.Address;
+import com.brundhavanam.address.repository.AddressRepository;
+import com.brundhavanam.cart.entity.Cart;
+import com.brundhavanam.cart.entity.CartItem;
+import com.brundhavanam.cart.repository.CartItemRepository;
+import com.brundhavanam.cart.repository.CartRepository;
+import com.brundhavanam.common.enums.CartStatus;
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.common.enums.UnitType;
+import com.brundhavanam.config.security.AuthenticatedUser;
+import com.brundhavanam.order.service.OrderService;
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.support.BenchmarkTest;
+import com.brundhavanam.support.Benchmarks;
+import com.brundhavanam.user.entity.User;
+import com.brundhavanam.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent checkout throughput: platform threads vs virtual threads.
+ *
+ * Each simulated request blocks for EXTERNAL_CALL_MS (standing in for the
+ * payment-gateway / image-upload calls a request makes besides JDBC) and then
+ * runs a full checkout. Platform threads are capped at Tomcat's default 200;
+ * virtual threads get one per request. Both share the same Hikari pool, so
+ * the comparison shows where each mode's ceiling is.
+ *
+ * A benchmark, so it only runs with RUN_BENCHMARKS=true. Uses the "test"
+ * profile's H2 database unless SPRING_DATASOURCE_URL / _USERNAME / _PASSWORD
+ * point it at MySQL, which gives the meaningful numbers.
+ */
+@Slf4j
+@BenchmarkTest
+@ActiveProfiles("test")
+// Measures throughput, so requests queue for a connection instead of failing fast
+@SpringBootTest(properties = "spring.datasource.hikari.connection-timeout=60000")
+class CheckoutThroughputTests {
+
+    private static final int REQUESTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long EXTERNAL_CALL_MS = 50;
+
+    @Autowired private OrderService orderService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AddressRepository addressRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductVariantRepository variantRepository;
+
+    @Test
+    void checkoutThroughputPlatformVsVirtualThreads() throws Exception {
+
+        Product product = productRepository.save(Product.builder()
+                .name("Throughput SKU " + System.nanoTime())
+                .category("test")
+                .build());
+
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .product(product).label("1kg").value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(REQUESTS * 4).active(true)
+                .build());
+
+        double platform = run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS), variant);
+        double virtual = run("virtual", Executors.newVirtualThreadPerTaskExecutor(), variant);
+
+        log.info("checkout throughput: platform={}/s virtual={}/s (x{})",
+                Math.round(platform), Math.round(virtual), String.format("%.2f", virtual / platform));
+    }
+
+    // Checkouts per second for REQUESTS users checking out concurrently on the given executor
+    private double run(String label, ExecutorService pool, ProductVariant variant) throws Exception {
+
+        List<Buyer> buyers = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            buyers.add(newBuyer(label, i, variant));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>(REQUESTS);
+
+        for (Buyer buyer : buyers) {
+            results.add(pool.submit(() -> {
+                start.await();
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(buyer.principal(), null, List.of()));
+                try {
+                    Thread.sleep(EXTERNAL_CALL_MS);
+                    return orderService.checkout(buyer.addressId());
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        long millis = Benchmarks.elapsedMillis(() -> {
+            start.countDown();
+            for (Future<Long> result : results) {
+                if (result.get(5, TimeUnit.MINUTES) != null) {
+                    completed.incrementAndGet();
+                }
+            }
+        });
+        pool.shutdown();
+
+        assertEquals(REQUESTS, completed.get());
+        log.info("{} threads: {} checkouts in {} ms", label, completed.get(), millis);
+        return completed.get() * 1000.0 / millis;
+    }
+
+    private Buyer newBuyer(String label, int i, ProductVariant variant) {
+        User user = userRepository.save(User.builder()
+                .fullName("Load " + label + " " + i)
+                .mobile("8" + String.format("%09d", (System.nanoTime() + i) % 1_000_000_000L))
+                .role(Role.USER)
+                .build());
+
+        Address address = addressRepository.save(Address.builder()
+                .user(user).fullName(user.getFullName()).mobile(user.getMobile())
+                .street("1 Test St").city("Hyderabad").state("TS").pincode("500001").country("IN")
+                .build());
+
+        Cart cart = cartRepository.save(Cart.builder().user(user).status(CartStatus.ACTIVE).build());
+        cartItemRepository.save(CartItem.builder().cart(cart).variant(variant).quantity(1).build());
+
+        return new Buyer(new AuthenticatedUser(user.getId(), user.getMobile(), Role.USER), address.getId());
+    }
+
+    private record Buyer(AuthenticatedUser principal, Long addressId) {}
+}
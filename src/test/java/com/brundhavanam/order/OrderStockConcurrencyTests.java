@@ -0,0 +1,243 @@
+package com.brundhavanam.order;
+
+import com.brundhavanam.common.enums.OrderStatus;
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.common.enums.UnitType;
+import com.brundhavanam.common.exception.BadRequestException;
+import com.brundhavanam.order.entity.Order;
+import com.brundhavanam.order.entity.OrderItem;
+import com.brundhavanam.order.repository.OrderItemRepository;
+import com.brundhavanam.order.repository.OrderRepository;
+import com.brundhavanam.order.service.OrderService;
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.inventory.InventoryReservationEngine;
+import com.brundhavanam.product.inventory.StockReconciler;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.user.entity.User;
+import com.brundhavanam.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Stock for one hot SKU under concurrent orders.
+ *
+ * Stock moves in three steps: a reservation holds it in the in-memory
+ * counters (InventoryReservationEngine), confirmOrder turns the hold into a
+ * pending deduction (CONFIRMED, stockDeducted = false) without touching the
+ * stock column, and StockReconciler later deducts confirmed orders from the
+ * column in batches. Overselling is prevented at the reservation; the column
+ * only catches up.
+ *
+ * Runs on the in-memory H2 database of the "test" profile.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class OrderStockConcurrencyTests {
+
+    private static final int STOCK = 50;
+    private static final int ORDERS = 40;
+    private static final int QTY_PER_ORDER = 2;
+    private static final int THREADS = 16;
+
+    @Autowired private OrderService orderService;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductVariantRepository variantRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private StockReconciler stockReconciler;
+    @Autowired private InventoryReservationEngine inventory;
+
+    @Test
+    void concurrentConfirmsNeverOversellOrDeadlock() throws Exception {
+
+        User user = userRepository.save(User.builder()
+                .fullName("Load Test")
+                .mobile("9" + String.format("%09d", System.nanoTime() % 1_000_000_000L))
+                .role(Role.USER)
+                .build());
+
+        Product product = productRepository.save(Product.builder()
+                .name("Hot SKU " + System.nanoTime())
+                .category("test")
+                .build());
+
+        ProductVariant hot = variantRepository.save(ProductVariant.builder()
+                .product(product).label("1kg").value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(STOCK).active(true)
+                .build());
+
+        ProductVariant other = variantRepository.save(ProductVariant.builder()
+                .product(product).label("500g").value(500.0).unit(UnitType.GRAM)
+                .price(BigDecimal.ONE).stock(ORDERS * QTY_PER_ORDER).active(true)
+                .build());
+
+        // No holds yet, so each confirmOrder reserves all or nothing before confirming.
+        // Half the orders list the variants in the opposite order (the old deadlock pattern)
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orderRepository.save(Order.builder()
+                    .user(user).totalAmount(BigDecimal.ZERO).status(OrderStatus.CREATED)
+                    .build());
+            ProductVariant first = i % 2 == 0 ? hot : other;
+            ProductVariant second = i % 2 == 0 ? other : hot;
+            for (ProductVariant v : List.of(first, second)) {
+                orderItemRepository.save(OrderItem.builder()
+                        .order(order).productVariantId(v.getId())
+                        .productName(product.getName()).variantLabel(v.getLabel())
+                        .unitPrice(v.getPrice()).quantity(QTY_PER_ORDER)
+                        .itemTotal(v.getPrice().multiply(BigDecimal.valueOf(QTY_PER_ORDER)))
+                        .build());
+            }
+            orderIds.add(order.getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (Long orderId : orderIds) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.confirmOrder(orderId);
+                    return true;
+                } catch (BadRequestException e) {
+                    return false; // reservation refused: insufficient stock
+                }
+            }));
+        }
+
+        start.countDown();
+        int confirmed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(60, TimeUnit.SECONDS)) {
+                confirmed++;
+            }
+        }
+        pool.shutdown();
+
+        // Confirming left the stock column alone; the reconciler applies the deductions
+        stockReconciler.reconcile();
+
+        assertEquals(STOCK / QTY_PER_ORDER, confirmed);
+        assertEquals(0, variantRepository.findById(hot.getId()).orElseThrow().getStock());
+        assertEquals((ORDERS - confirmed) * QTY_PER_ORDER,
+                variantRepository.findById(other.getId()).orElseThrow().getStock());
+    }
+
+    // A confirmed order the column can no longer cover must not hold up the reconcile of later ones
+    @Test
+    void undeductibleOrderIsParkedAndLaterOrdersStillReconcile() {
+
+        User user = userRepository.save(User.builder()
+                .fullName("Park Test")
+                .mobile("8" + String.format("%09d", System.nanoTime() % 1_000_000_000L))
+                .role(Role.USER)
+                .build());
+
+        Product product = productRepository.save(Product.builder()
+                .name("Short SKU " + System.nanoTime())
+                .category("test")
+                .build());
+
+        // Stock lowered below what was already confirmed (e.g. by an admin)
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .product(product).label("1kg").value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(5).active(true)
+                .build());
+
+        Long tooLarge = confirmedOrder(user, product, variant, 10);
+        Long later1 = confirmedOrder(user, product, variant, 1);
+        Long later2 = confirmedOrder(user, product, variant, 1);
+
+        stockReconciler.reconcile();
+
+        Order parked = orderRepository.findById(tooLarge).orElseThrow();
+        assertEquals(false, parked.getStockDeducted());
+        assertNotNull(parked.getStockRetryAt());
+        assertEquals(true, orderRepository.findById(later1).orElseThrow().getStockDeducted());
+        assertEquals(true, orderRepository.findById(later2).orElseThrow().getStockDeducted());
+        assertEquals(3, variantRepository.findById(variant.getId()).orElseThrow().getStock());
+    }
+
+    // Between confirmOrder's commit and its afterCommit, the hold and the pending deduction must not both count
+    @Test
+    void refreshWhileConfirmationCommitsDoesNotCountTheHoldTwice() {
+
+        User user = userRepository.save(User.builder()
+                .fullName("Window Test")
+                .mobile("7" + String.format("%09d", System.nanoTime() % 1_000_000_000L))
+                .role(Role.USER)
+                .build());
+
+        Product product = productRepository.save(Product.builder()
+                .name("Window SKU " + System.nanoTime())
+                .category("test")
+                .build());
+
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .product(product).label("1kg").value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(10).active(true)
+                .build());
+
+        Order order = orderRepository.save(Order.builder()
+                .user(user).totalAmount(BigDecimal.ZERO).status(OrderStatus.CREATED)
+                .build());
+        orderItemRepository.save(OrderItem.builder()
+                .order(order).productVariantId(variant.getId())
+                .productName(product.getName()).variantLabel(variant.getLabel())
+                .unitPrice(variant.getPrice()).quantity(3)
+                .itemTotal(variant.getPrice().multiply(BigDecimal.valueOf(3)))
+                .build());
+
+        inventory.reserve(order.getId(), new TreeMap<>(Map.of(variant.getId(), 3)), Map.of());
+        assertEquals(7, inventory.available(variant.getId()));
+
+        // Confirmation visible in the DB, its afterCommit not run yet; a cancel elsewhere refreshes
+        inventory.beginCommit(order.getId());
+        order.setStatus(OrderStatus.CONFIRMED);
+        orderRepository.save(order);
+        inventory.refresh(List.of(variant.getId()));
+        assertEquals(7, inventory.available(variant.getId()));
+
+        inventory.commit(order.getId(), List.of(variant.getId()));
+        assertEquals(7, inventory.available(variant.getId()));
+
+        inventory.refresh(List.of(variant.getId()));
+        assertEquals(7, inventory.available(variant.getId()));
+    }
+
+    // Saved as CREATED and confirmed only once its item exists (the scheduled reconciler is running)
+    private Long confirmedOrder(User user, Product product, ProductVariant variant, int qty) {
+        Order order = orderRepository.save(Order.builder()
+                .user(user).totalAmount(BigDecimal.ZERO).status(OrderStatus.CREATED)
+                .build());
+        orderItemRepository.save(OrderItem.builder()
+                .order(order).productVariantId(variant.getId())
+                .productName(product.getName()).variantLabel(variant.getLabel())
+                .unitPrice(variant.getPrice()).quantity(qty)
+                .itemTotal(variant.getPrice().multiply(BigDecimal.valueOf(qty)))
+                .build());
+        order.setStatus(OrderStatus.CONFIRMED);
+        return orderRepository.save(order).getId();
+    }
+}
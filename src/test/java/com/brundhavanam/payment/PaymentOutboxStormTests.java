@@ -0,0 +1,202 @@
+package com.brundhavanam.payment;
+
+import com.brundhavanam.common.enums.OrderStatus;
+import com.brundhavanam.common.enums.PaymentEventStatus;
+import com.brundhavanam.common.enums.PaymentMethod;
+import com.brundhavanam.common.enums.Role;
+import com.brundhavanam.common.enums.UnitType;
+import com.brundhavanam.order.entity.Order;
+import com.brundhavanam.order.entity.OrderItem;
+import com.brundhavanam.order.repository.OrderItemRepository;
+import com.brundhavanam.order.repository.OrderRepository;
+import com.brundhavanam.payment.dto.PaymentNotification;
+import com.brundhavanam.payment.entity.Payment;
+import com.brundhavanam.payment.entity.PaymentOutboxEvent;
+import com.brundhavanam.payment.gateway.LocalPaymentGateway;
+import com.brundhavanam.payment.gateway.LocalPaymentGateway.StormResult;
+import com.brundhavanam.payment.outbox.PaymentOutboxWorker;
+import com.brundhavanam.payment.repository.PaymentOutboxRepository;
+import com.brundhavanam.payment.repository.PaymentRepository;
+import com.brundhavanam.payment.service.PaymentService;
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.user.entity.User;
+import com.brundhavanam.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays a webhook storm (every payment delivered several times, concurrently)
+ * through the payment outbox and checks each order is paid and confirmed once.
+ *
+ * Runs on the in-memory H2 database of the "test" profile.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class PaymentOutboxStormTests {
+
+    private static final int ORDERS = 30;
+    private static final int DELIVERIES = 5;
+    private static final int THREADS = 16;
+
+    @Autowired private PaymentService paymentService;
+    @Autowired private PaymentOutboxWorker worker;
+    @Autowired private PaymentOutboxRepository outboxRepository;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductVariantRepository variantRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void duplicateWebhooksConfirmEachOrderOnce() throws Exception {
+
+        User user = userRepository.save(User.builder()
+                .fullName("Storm Test")
+                .mobile("8" + String.format("%09d", System.nanoTime() % 1_000_000_000L))
+                .role(Role.USER)
+                .build());
+
+        Product product = productRepository.save(Product.builder()
+                .name("Storm SKU " + System.nanoTime())
+                .category("test")
+                .build());
+
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .product(product).label("1kg").value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(ORDERS).active(true)
+                .build());
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orderRepository.save(Order.builder()
+                    .user(user).totalAmount(BigDecimal.TEN).status(OrderStatus.CREATED)
+                    .build());
+            orderItemRepository.save(OrderItem.builder()
+                    .order(order).productVariantId(variant.getId())
+                    .productName(product.getName()).variantLabel(variant.getLabel())
+                    .unitPrice(variant.getPrice()).quantity(1).itemTotal(variant.getPrice())
+                    .build());
+            orderIds.add(order.getId());
+        }
+
+        StormResult storm = new LocalPaymentGateway(paymentService).replayStorm(orderIds, DELIVERIES, THREADS);
+
+        assertEquals(ORDERS * DELIVERIES, storm.delivered());
+        assertEquals(ORDERS, storm.accepted());
+        assertEquals(0, storm.failed());
+
+        // Drain the outbox (the scheduled poller runs too; claims never overlap)
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline && !allProcessed(orderIds)) {
+            worker.poll();
+            Thread.sleep(100);
+        }
+        assertTrue(allProcessed(orderIds), "outbox not drained");
+
+        Set<Long> paidOrders = new HashSet<>();
+        for (Payment payment : paymentRepository.findAll()) {
+            if (orderIds.contains(payment.getOrder().getId())) {
+                assertTrue(paidOrders.add(payment.getOrder().getId()), "order paid twice");
+            }
+        }
+        assertEquals(ORDERS, paidOrders.size());
+
+        for (Long orderId : orderIds) {
+            assertEquals(OrderStatus.CONFIRMED, orderRepository.findById(orderId).orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void paymentsThatCannotConfirmTheirOrderAreKeptForRefund() throws Exception {
+
+        User user = userRepository.save(User.builder()
+                .fullName("Refund Test")
+                .mobile("6" + String.format("%09d", System.nanoTime() % 1_000_000_000L))
+                .role(Role.USER)
+                .build());
+
+        Product product = productRepository.save(Product.builder()
+                .name("Refund SKU " + System.nanoTime())
+                .category("test")
+                .build());
+
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .product(product).label("1kg").value(1.0).unit(UnitType.KG)
+                .price(BigDecimal.TEN).stock(5).active(true)
+                .build());
+
+        // Cancelled before the capture arrived: the confirmation fails, the payment must stay
+        Order cancelled = orderRepository.save(Order.builder()
+                .user(user).totalAmount(BigDecimal.TEN).status(OrderStatus.CANCELLED)
+                .build());
+
+        // Captured less than the order total: never confirms the order
+        Order shortPaid = orderRepository.save(Order.builder()
+                .user(user).totalAmount(BigDecimal.TEN).status(OrderStatus.CREATED)
+                .build());
+        orderItemRepository.save(OrderItem.builder()
+                .order(shortPaid).productVariantId(variant.getId())
+                .productName(product.getName()).variantLabel(variant.getLabel())
+                .unitPrice(variant.getPrice()).quantity(1).itemTotal(variant.getPrice())
+                .build());
+
+        String cancelledKey = "pay_refund_" + cancelled.getId();
+        String shortKey = "pay_short_" + shortPaid.getId();
+        paymentService.accept(new PaymentNotification(
+                cancelled.getId(), PaymentMethod.UPI, cancelledKey, cancelledKey, BigDecimal.TEN));
+        paymentService.accept(new PaymentNotification(
+                shortPaid.getId(), PaymentMethod.UPI, shortKey, shortKey, new BigDecimal("9.99")));
+
+        List<Long> orderIds = List.of(cancelled.getId(), shortPaid.getId());
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline && !allSettled(orderIds)) {
+            worker.poll();
+            Thread.sleep(100);
+        }
+        assertTrue(allSettled(orderIds), "outbox not drained");
+
+        for (PaymentOutboxEvent event : outboxRepository.findAll()) {
+            if (orderIds.contains(event.getOrderId())) {
+                assertEquals(PaymentEventStatus.FAILED, event.getStatus());
+            }
+        }
+
+        List<Payment> payments = paymentRepository.findByPaymentIdempotencyKeyIn(List.of(cancelledKey, shortKey));
+        assertEquals(2, payments.size());
+        payments.forEach(payment -> assertTrue(payment.getRefundRequired(), payment.getPaymentIdempotencyKey()));
+
+        assertEquals(OrderStatus.CREATED, orderRepository.findById(shortPaid.getId()).orElseThrow().getStatus());
+        assertFalse(orderRepository.findById(shortPaid.getId()).orElseThrow().getStockDeducted());
+    }
+
+    private boolean allSettled(List<Long> orderIds) {
+        return worker.isIdle() && outboxRepository.findAll().stream()
+                .filter(e -> orderIds.contains(e.getOrderId()))
+                .noneMatch(e -> e.getStatus() == PaymentEventStatus.PENDING);
+    }
+
+    private boolean allProcessed(List<Long> orderIds) {
+        List<PaymentOutboxEvent> events = outboxRepository.findAll().stream()
+                .filter(e -> orderIds.contains(e.getOrderId()))
+                .toList();
+        return worker.isIdle()
+                && events.size() == orderIds.size()
+                && events.stream().allMatch(e -> e.getStatus() == PaymentEventStatus.DONE);
+    }
+}
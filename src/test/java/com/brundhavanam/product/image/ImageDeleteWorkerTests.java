@@ -0,0 +1,141 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.common.enums.ImageDeleteStatus;
+import com.brundhavanam.product.entity.ImageDeleteTask;
+import com.brundhavanam.product.repository.ImageDeleteTaskRepository;
+import com.brundhavanam.product.service.ImageUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Retry schedule of the delete worker: base 1 s doubling up to 8 s, jittered
+ * between 50% and 100%, FAILED on the 10th failed attempt.
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageDeleteWorkerTests {
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_MILLIS = 1000;
+    private static final long MAX_MILLIS = 8000;
+
+    @Mock private ImageDeleteTaskRepository taskRepository;
+    @Mock private ImageUploadService imageUploadService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private ImageDeleteWorker worker;
+
+    @BeforeEach
+    void worker() {
+        worker = new ImageDeleteWorker(taskRepository, imageUploadService, transactionManager,
+                100, MAX_ATTEMPTS, BASE_MILLIS, MAX_MILLIS, 120);
+    }
+
+    @Test
+    void deletedTasksAreRemoved() {
+        ImageDeleteTask a = task(1L, "products/a", 0);
+        ImageDeleteTask b = task(2L, "products/b", 0);
+        when(taskRepository.findDue(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(a, b));
+
+        worker.poll();
+
+        verify(imageUploadService).deleteImages(List.of("products/a", "products/b"));
+        verify(taskRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertEquals(2, worker.deletedCount());
+        assertEquals(0, worker.retriedCount());
+    }
+
+    @Test
+    void failedDeleteIsRetriedWithJitteredExponentialBackoff() {
+        // Indexed by attempts already made; capped at backoff-max from the 4th
+        long[] expected = {1000, 2000, 4000, 8000, 8000, 8000};
+        for (int made = 0; made < expected.length; made++) {
+            ImageDeleteTask task = failOnce(10L + made, made);
+
+            assertEquals(ImageDeleteStatus.PENDING, task.getStatus());
+            assertEquals(made + 1, task.getAttempts());
+            assertEquals("IllegalStateException: storage down", task.getLastError());
+            assertBackoff(expected[made], task);
+        }
+
+        verify(taskRepository, never()).deleteAllByIdInBatch(anyList());
+        assertEquals(expected.length, worker.retriedCount());
+    }
+
+    @Test
+    void taskIsMarkedFailedAfterMaxAttempts() {
+        ImageDeleteTask task = failOnce(30L, MAX_ATTEMPTS - 1);
+
+        assertEquals(ImageDeleteStatus.FAILED, task.getStatus());
+        assertEquals(MAX_ATTEMPTS, task.getAttempts());
+        assertEquals(0, worker.retriedCount());
+    }
+
+    @Test
+    void storageFailureStopsThePollUntilTheNextInterval() {
+        List<ImageDeleteTask> full = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            full.add(task(id, "products/" + id, 0));
+        }
+        when(taskRepository.findDue(any(LocalDateTime.class), any(Limit.class))).thenReturn(full);
+        when(taskRepository.findAllById(anyCollection())).thenReturn(full);
+        doThrow(new IllegalStateException("storage down")).when(imageUploadService).deleteImages(anyCollection());
+
+        worker.poll(); // a full batch, but no second claim after the failure
+
+        verify(taskRepository).findDue(any(LocalDateTime.class), any(Limit.class));
+        full.forEach(task -> assertEquals(1, task.getAttempts()));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    // One poll in which storage fails for a new task; returns it as updated by the worker
+    private ImageDeleteTask failOnce(Long id, int attemptsMade) {
+        ImageDeleteTask task = task(id, "products/" + id, attemptsMade);
+        when(taskRepository.findDue(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(task));
+        when(taskRepository.findAllById(List.of(task.getId()))).thenReturn(List.of(task));
+        doThrow(new IllegalStateException("storage down"))
+                .when(imageUploadService).deleteImages(List.of(task.getPublicId()));
+
+        worker.poll();
+        return task;
+    }
+
+    // Jittered between half and all of the backoff, counted from just before now
+    private static void assertBackoff(long backoffMillis, ImageDeleteTask task) {
+        Duration delay = Duration.between(LocalDateTime.now(), task.getNextAttemptAt());
+        assertTrue(delay.toMillis() >= backoffMillis / 2 - 200 && delay.toMillis() <= backoffMillis,
+                "attempt " + task.getAttempts() + ": " + delay.toMillis() + " ms");
+    }
+
+    private static ImageDeleteTask task(Long id, String publicId, int attempts) {
+        return ImageDeleteTask.builder()
+                .id(id)
+                .publicId(publicId)
+                .status(ImageDeleteStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageProcessorTests {
+
+    @TempDir
+    Path dir;
+
+    private final ImageProcessor processor = new ImageProcessor(2, 4000, 0.82f);
+
+    @Test
+    void smallImagesAreNeverUpscaled() throws IOException {
+        List<ImageRendition> renditions = processor.process(png(100, 50, false));
+
+        assertSizes(renditions);
+        for (ImageRendition rendition : renditions) {
+            assertEquals(100, rendition.width(), rendition.size().name());
+            assertEquals(50, rendition.height(), rendition.size().name());
+            assertDecodesTo(rendition, 100, 50);
+        }
+    }
+
+    @Test
+    void landscapeRenditionsFitTheirLongestEdge() throws IOException {
+        List<ImageRendition> renditions = processor.process(png(3000, 1500, false));
+
+        assertSizes(renditions);
+        for (ImageRendition rendition : renditions) {
+            int edge = rendition.size().maxEdge();
+            assertEquals(edge, rendition.width(), rendition.size().name());
+            assertEquals(edge / 2, rendition.height(), 1, rendition.size().name());
+            assertDecodesTo(rendition, rendition.width(), rendition.height());
+        }
+    }
+
+    @Test
+    void portraitRenditionsFitTheirLongestEdge() throws IOException {
+        // Between CARD and DETAIL: only the smaller sizes are scaled
+        List<ImageRendition> renditions = processor.process(png(300, 900, false));
+
+        assertSizes(renditions);
+        for (ImageRendition rendition : renditions) {
+            int expectedHeight = Math.min(900, rendition.size().maxEdge());
+            assertEquals(expectedHeight, rendition.height(), rendition.size().name());
+            assertEquals(expectedHeight / 3, rendition.width(), 1, rendition.size().name());
+        }
+    }
+
+    @Test
+    void transparentAreasBecomeWhite() throws IOException {
+        List<ImageRendition> renditions = processor.process(png(200, 200, true));
+
+        for (ImageRendition rendition : renditions) {
+            BufferedImage decoded = decode(rendition);
+            assertFalse(decoded.getColorModel().hasAlpha());
+
+            // Left half transparent, right half opaque red
+            Color transparent = new Color(decoded.getRGB(decoded.getWidth() / 4, decoded.getHeight() / 2));
+            Color opaque = new Color(decoded.getRGB(decoded.getWidth() * 3 / 4, decoded.getHeight() / 2));
+            assertTrue(transparent.getRed() > 240 && transparent.getGreen() > 240 && transparent.getBlue() > 240,
+                    rendition.size() + " " + transparent);
+            assertTrue(opaque.getRed() > 200 && opaque.getGreen() < 50 && opaque.getBlue() < 50,
+                    rendition.size() + " " + opaque);
+        }
+    }
+
+    @Test
+    void originalsBeyondMaxEdgeAreRejected() throws IOException {
+        Path tooLarge = png(4001, 10, false);
+
+        assertThrows(BadRequestException.class, () -> processor.process(tooLarge));
+    }
+
+    @Test
+    void nonImagesAreRejected() throws IOException {
+        Path text = Files.writeString(dir.resolve("notes.txt"), "not an image");
+
+        assertThrows(BadRequestException.class, () -> processor.process(text));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    // Largest first, one per size, all JPEG
+    private static void assertSizes(List<ImageRendition> renditions) {
+        assertArrayEquals(
+                new RenditionSize[] {RenditionSize.DETAIL, RenditionSize.CARD, RenditionSize.THUMBNAIL},
+                renditions.stream().map(ImageRendition::size).toArray());
+        renditions.forEach(rendition -> assertEquals("image/jpeg", rendition.contentType()));
+    }
+
+    private static void assertDecodesTo(ImageRendition rendition, int width, int height) throws IOException {
+        BufferedImage decoded = decode(rendition);
+        assertEquals(width, decoded.getWidth());
+        assertEquals(height, decoded.getHeight());
+    }
+
+    private static BufferedImage decode(ImageRendition rendition) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(rendition.data()));
+    }
+
+    // Gray gradient; with alpha, the left half is fully transparent and the right half opaque red
+    private Path png(int width, int height, boolean alpha) throws IOException {
+        BufferedImage image = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            if (alpha) {
+                g.setColor(Color.RED);
+                g.fillRect(width / 2, 0, width - width / 2, height);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    int level = 255 * x / Math.max(1, width - 1);
+                    g.setColor(new Color(level, level, level));
+                    g.drawLine(x, 0, x, height - 1);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        Path file = dir.resolve(width + "x" + height + (alpha ? "-alpha" : "") + ".png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+}
@@ -0,0 +1,90 @@
+package com.brundhavanam.product.image;
+
+import com.brundhavanam.product.repository.ImageDeleteTaskRepository;
+import com.brundhavanam.product.repository.ProductImageRepository;
+import com.brundhavanam.product.service.ImageUploadService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanImageReconcilerTests {
+
+    @Mock private ImageUploadService imageUploadService;
+    @Mock private ProductImageRepository productImageRepository;
+    @Mock private ImageDeleteTaskRepository taskRepository;
+    @Mock private ImageDeleteQueue deleteQueue;
+    @Mock private ImageDeleteWorker deleteWorker;
+
+    @Test
+    void orphansAreStoredIdsNeitherUsedByAnImageNorQueued() {
+        List<String> stored = List.of("products/a", "products/a-card", "products/a-thumb",
+                "products/queued", "products/b", "products/c");
+        when(taskRepository.findQueuedPublicIds(stored)).thenReturn(List.of("products/queued"));
+        // One row per image using any of the ids, with all three renditions (and a missing one)
+        when(productImageRepository.findRenditionIdsUsing(stored)).thenReturn(List.<Object[]>of(
+                new Object[] {"products/a", "products/a-card", "products/a-thumb"},
+                new Object[] {"products/c", null, null}));
+
+        assertEquals(List.of("products/b"), reconciler(true).orphansIn(stored));
+    }
+
+    @Test
+    void reportOnlyByDefaultQueuesNothing() {
+        stored(List.of("products/a", "products/b"));
+        when(productImageRepository.findRenditionIdsUsing(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[] {"products/a", null, null}));
+
+        OrphanImageReconciler reconciler = reconciler(false);
+
+        assertEquals(1, reconciler.reconcile());
+        verify(deleteQueue, never()).enqueue(anyCollection());
+        assertEquals(1, reconciler.stats().lastOrphans());
+        assertEquals(2, reconciler.stats().lastScanned());
+    }
+
+    @Test
+    void deleteModeQueuesOrphansChunkByChunk() {
+        List<String> stored = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            stored.add("products/" + i);
+        }
+        stored(stored);
+
+        assertEquals(1200, reconciler(true).reconcile());
+
+        // 500 ids per query
+        verify(taskRepository, times(3)).findQueuedPublicIds(anyCollection());
+        verify(deleteQueue).enqueue(stored.subList(0, 500));
+        verify(deleteQueue).enqueue(stored.subList(500, 1000));
+        verify(deleteQueue).enqueue(stored.subList(1000, 1200));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private void stored(Collection<String> publicIds) {
+        when(imageUploadService.listImages(eq("products"), any(Instant.class))).thenReturn(List.copyOf(publicIds));
+    }
+
+    private OrphanImageReconciler reconciler(boolean deleteOrphans) {
+        return new OrphanImageReconciler(imageUploadService, productImageRepository, taskRepository,
+                deleteQueue, deleteWorker, false, deleteOrphans, 60);
+    }
+}
@@ -0,0 +1,155 @@
+package com.brundhavanam.product.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Level boundaries of the wheel (64 slots per level, 4 levels):
+ * level 1 from 64 ticks, level 2 from 4096, level 3 from 262144, overflow from 16777216.
+ */
+class TimingWheelTests {
+
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long OVERFLOW = 64L * 64 * 64 * 64;
+
+    // Identity equality: several items may share a deadline
+    private static final class Item {
+        private final long deadline;
+
+        Item(long deadline) {
+            this.deadline = deadline;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+    }
+
+    @Test
+    void itemsFireWithinOneTickAcrossEveryLevelBoundary() {
+        long start = 37; // not aligned to any level
+        TimingWheel<Item> wheel = new TimingWheel<>(1, start, Item::deadline);
+
+        List<Item> items = new ArrayList<>();
+        for (long boundary : new long[] {1, LEVEL_1, LEVEL_2, LEVEL_3, OVERFLOW, 2 * OVERFLOW}) {
+            for (long offset = -2; offset <= 2; offset++) {
+                // relative to the start and to the absolute (aligned) boundary
+                items.add(new Item(start + boundary + offset));
+                items.add(new Item(boundary + offset));
+            }
+        }
+        items.removeIf(item -> item.deadline() <= start);
+        items.forEach(item -> assertTrue(wheel.add(item)));
+
+        Map<Item, Long> fired = new HashMap<>();
+        long end = start + 2 * OVERFLOW + 3;
+        for (long now = start + 1; now <= end; now++) {
+            long at = now;
+            wheel.advance(now, item -> fired.put(item, at));
+        }
+
+        assertEquals(items.size(), fired.size());
+        items.forEach(item -> assertEquals(item.deadline(), fired.get(item), "deadline " + item.deadline()));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void itemsNeverFireBeforeTheirDeadline() {
+        TimingWheel<Item> wheel = new TimingWheel<>(1000, 0, Item::deadline);
+        Item item = new Item(1500);
+        wheel.add(item);
+
+        List<Long> fired = new ArrayList<>();
+        for (long now : new long[] {999, 1000, 1499, 1999}) {
+            wheel.advance(now, expired -> fired.add(now));
+        }
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(2000, expired -> fired.add(2000L));
+        assertEquals(List.of(2000L), fired);
+    }
+
+    @Test
+    void itemsAddedWhileRunningFireOnTime() {
+        Random random = new Random(42);
+        TimingWheel<Item> wheel = new TimingWheel<>(1, 0, Item::deadline);
+
+        Map<Item, Long> fired = new HashMap<>();
+        List<Item> added = new ArrayList<>();
+        long end = 3 * LEVEL_3;
+        for (long now = 1; now <= end; now++) {
+            if (now % 97 == 0) {
+                Item item = new Item(now + 1 + random.nextLong(2 * LEVEL_3));
+                assertTrue(wheel.add(item));
+                added.add(item);
+            }
+            long at = now;
+            wheel.advance(now, item -> {
+                assertFalse(fired.containsKey(item), "fired twice");
+                fired.put(item, at);
+            });
+        }
+
+        for (Item item : added) {
+            if (item.deadline() <= end) {
+                assertEquals(item.deadline(), fired.get(item), "deadline " + item.deadline());
+            } else {
+                assertFalse(fired.containsKey(item));
+            }
+        }
+    }
+
+    @Test
+    void advanceAfterLongPauseFiresOnlyWhatIsDue() {
+        Random random = new Random(7);
+        TimingWheel<Item> wheel = new TimingWheel<>(1, 0, Item::deadline);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Item item = new Item(1 + random.nextLong(OVERFLOW + LEVEL_3));
+            wheel.add(item);
+            items.add(item);
+        }
+
+        long pause = LEVEL_3 * 10 + 12_345;
+        List<Item> fired = new ArrayList<>();
+        wheel.advance(pause, fired::add);
+
+        List<Item> due = items.stream().filter(item -> item.deadline() <= pause).toList();
+        assertEquals(due.size(), fired.size());
+        assertTrue(fired.containsAll(due));
+        assertEquals(items.size() - due.size(), wheel.size());
+
+        // The rest still fires on its tick once the wheel is driven normally again
+        Map<Item, Long> later = new HashMap<>();
+        for (long now = pause + 1; now <= OVERFLOW + LEVEL_3; now++) {
+            long at = now;
+            wheel.advance(now, item -> later.put(item, at));
+        }
+        items.stream()
+                .filter(item -> item.deadline() > pause)
+                .forEach(item -> assertEquals(item.deadline(), later.get(item), "deadline " + item.deadline()));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void addRefusesItemsAlreadyDue() {
+        TimingWheel<Item> wheel = new TimingWheel<>(1000, 5000, Item::deadline);
+
+        assertFalse(wheel.add(new Item(4000)));
+        assertFalse(wheel.add(new Item(5000)));
+        assertTrue(wheel.add(new Item(5001)));
+        assertEquals(1, wheel.size());
+    }
+}
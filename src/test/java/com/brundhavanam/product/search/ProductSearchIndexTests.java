@@ -0,0 +1,60 @@
+package com.brundhavanam.product.search;
+
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Plural folding must not break search-as-you-type: every prefix of a plural
+ * word finds it, and singular and plural queries find each other.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTests {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductVariantRepository variantRepository;
+
+    @InjectMocks private ProductSearchIndex index;
+
+    @BeforeEach
+    void catalog() {
+        when(productRepository.findAll()).thenReturn(List.of(
+                Product.builder().id(1L).name("Dried Berries").category("dry fruits").build(),
+                Product.builder().id(2L).name("Besan Ladoo").category("sweets").build()));
+        when(variantRepository.findByProductIdIn(anyCollection())).thenReturn(List.of());
+        index.rebuild();
+    }
+
+    @Test
+    void everyPrefixOfAPluralFindsIt() {
+        for (String query : List.of("ber", "berr", "berri", "berrie", "berries", "dried berri")) {
+            assertEquals(List.of(1L), search(query), query);
+        }
+    }
+
+    @Test
+    void singularAndPluralFindEachOther() {
+        assertEquals(List.of(1L), search("berry"));
+        assertEquals(List.of(2L), search("ladoos"));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private List<Long> search(String query) {
+        return index.search(query, true, 0, 10).productIds();
+    }
+}
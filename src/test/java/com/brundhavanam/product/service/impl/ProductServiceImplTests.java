@@ -0,0 +1,115 @@
+package com.brundhavanam.product.service.impl;
+
+import com.brundhavanam.common.enums.UnitType;
+import com.brundhavanam.common.response.CursorPage;
+import com.brundhavanam.product.dto.ProductResponse;
+import com.brundhavanam.product.entity.Product;
+import com.brundhavanam.product.entity.ProductImage;
+import com.brundhavanam.product.entity.ProductVariant;
+import com.brundhavanam.product.repository.ProductImageRepository;
+import com.brundhavanam.product.repository.ProductRepository;
+import com.brundhavanam.product.repository.ProductVariantRepository;
+import com.brundhavanam.product.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Catalog listings must load a page with a fixed number of SQL statements,
+ * however many products it holds (no N+1 from per-product queries or lazy
+ * product / variant / image loads).
+ *
+ * Counts prepared statements with Hibernate statistics on the H2 database of
+ * the "test" profile, with the background pollers off (statistics are global).
+ * Each listing runs in one transaction, as it does behind open-in-view, so a
+ * lazy load would issue a statement instead of failing.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "scheduling.enabled=false")
+class ProductServiceImplTests {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductVariantRepository variantRepository;
+    @Autowired private ProductImageRepository imageRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private String category;
+    private List<Product> products;
+
+    @BeforeEach
+    void catalog() {
+        category = "stats-" + System.nanoTime();
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Product " + i + " " + category).category(category).active(true)
+                    .build());
+            for (int v = 0; v < 2; v++) {
+                variantRepository.save(ProductVariant.builder()
+                        .product(product).label("v" + v).value(1.0).unit(UnitType.KG)
+                        .price(BigDecimal.TEN).stock(5).active(true)
+                        .build());
+                imageRepository.save(ProductImage.builder()
+                        .product(product).imageUrl("img-" + product.getId() + "-" + v)
+                        .publicId("products/" + product.getId() + "-" + v).sortOrder(v)
+                        .build());
+            }
+            products.add(product);
+        }
+    }
+
+    @Test
+    void adminPageLoadsProductsVariantsAndImagesWithOneStatementEach() {
+        CursorPage<ProductResponse> page = statements(3, () -> productService.getPageForAdmin(null, PRODUCTS, false));
+
+        // Newest first: exactly the products created above
+        assertEquals(PRODUCTS, page.items().size());
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductResponse response = page.items().get(i);
+            assertEquals(products.get(PRODUCTS - 1 - i).getId(), response.id());
+            assertEquals(2, response.variants().size());
+            assertEquals(2, response.images().size());
+            assertEquals("img-" + response.id() + "-0", response.imageUrls().get(0));
+        }
+    }
+
+    @Test
+    void categoryListingLoadsProductsVariantsAndImagesWithOneStatementEach() {
+        List<ProductResponse> responses = statements(3, () -> productService.getByCategory(category));
+
+        assertEquals(PRODUCTS, responses.size());
+        responses.forEach(response -> assertEquals(2, response.variants().size()));
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    private <T> T statements(long expected, Supplier<T> listing) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        T result = new TransactionTemplate(transactionManager).execute(status -> listing.get());
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
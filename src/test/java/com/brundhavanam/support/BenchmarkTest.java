@@ -0,0 +1,20 @@
+package com.brundhavanam.support;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a benchmark class: it only runs with RUN_BENCHMARKS=true and is tagged
+ * "benchmark". Timing helpers are in {@link Benchmarks}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+@Tag("benchmark")
+public @interface BenchmarkTest {
+}
@@ -0,0 +1,58 @@
+package com.brundhavanam.support;
+
+import java.util.function.Supplier;
+
+/**
+ * Timing loops shared by the {@link BenchmarkTest} classes.
+ *
+ * Plain loops with warm-up rounds, not JMH: read the numbers as relative, not
+ * absolute. Benchmarks report through their own SLF4J logger.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    // A timed piece of work; may throw, the benchmark fails with it
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * Best time per operation over the measured rounds.
+     *
+     * @param opsPerRound operations one round performs (the divisor)
+     */
+    public static long bestNanosPerOp(int warmupRounds, int rounds, int opsPerRound, Work round) throws Exception {
+        return bestNanosPerOpWithSetup(warmupRounds, rounds, opsPerRound, () -> round);
+    }
+
+    /**
+     * Same, with an untimed setup per round: {@code setup} builds the round
+     * (e.g. on a fresh instance), only running it is timed.
+     */
+    public static long bestNanosPerOpWithSetup(int warmupRounds, int rounds, int opsPerRound, Supplier<Work> setup)
+            throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < warmupRounds + rounds; round++) {
+            Work work = setup.get();
+            long perOp = elapsedNanos(work) / opsPerRound;
+            if (round >= warmupRounds) {
+                best = Math.min(best, perOp);
+            }
+        }
+        return best;
+    }
+
+    // Wall-clock time of one run, at least 1 ms (safe as a divisor)
+    public static long elapsedMillis(Work work) throws Exception {
+        return Math.max(1, elapsedNanos(work) / 1_000_000);
+    }
+
+    public static long elapsedNanos(Work work) throws Exception {
+        long start = System.nanoTime();
+        work.run();
+        return System.nanoTime() - start;
+    }
+}